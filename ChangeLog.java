@@ -0,0 +1,92 @@
+package ID1069789.ID1070730;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+/**
+ * Numbers the changes made to a Trie, so that results computed from it can tell whether they are still current.
+ * A change either concerns one word, such as inserting it or changing its importance, or possibly every word,
+ * such as loading a dictionary or processing an importance file.
+ * The most recent changes are kept in a ring of {@value #SIZE} slots, so a result that is only a few changes old can
+ * check whether any of the changed words concerns it instead of being thrown away.
+ * Changes are recorded after they have been applied, so a result computed after reading a sequence number reflects
+ * at least every change up to that number. Recording is lock-free and safe from any thread.
+ */
+final class ChangeLog {
+    private static final int SIZE = 256;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong lastChangeToAll = new AtomicLong();
+    private final AtomicReferenceArray<Change> recent = new AtomicReferenceArray<>(SIZE);
+
+    /**
+     * Returns the number of the most recent change.
+     *
+     * @return the current sequence number, 0 before the first change
+     */
+    long sequence() {
+        return sequence.get();
+    }
+
+    /**
+     * Records a change to one word.
+     *
+     * @param word the lowercase word that changed
+     */
+    void wordChanged(String word) {
+        long number = sequence.incrementAndGet();
+        recent.set((int) (number & (SIZE - 1)), new Change(number, word));
+    }
+
+    /**
+     * Records a change that may concern every word.
+     */
+    void allChanged() {
+        long number = sequence.incrementAndGet();
+        lastChangeToAll.accumulateAndGet(number, Math::max);
+        recent.set((int) (number & (SIZE - 1)), new Change(number, null));
+    }
+
+    /**
+     * Checks whether any change after a sequence number, up to another, may concern a result.
+     * When the changes cannot be told apart any more, because one of them concerned every word or the ring no
+     * longer reaches back far enough, the answer is yes.
+     *
+     * @param since    the sequence number the result reflects
+     * @param until    the sequence number to check up to
+     * @param concerns tells whether a change to a word concerns the result
+     * @return {@code true} if the result may be out of date
+     */
+    boolean changedSince(long since, long until, Predicate<String> concerns) {
+        if (lastChangeToAll.get() > since || until - since > SIZE) {
+            return true;
+        }
+        for (long number = since + 1; number <= until; number++) {
+            Change change = recent.get((int) (number & (SIZE - 1)));
+            if (change == null || change.number != number || change.word == null || concerns.test(change.word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A numbered change, with the word it concerns or null for every word.
+     */
+    private static final class Change {
+        final long number;
+        final String word;
+
+        /**
+         * Creates a change.
+         *
+         * @param number the sequence number of the change
+         * @param word   the word that changed, or null if every word may have changed
+         */
+        Change(long number, String word) {
+            this.number = number;
+            this.word = word;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package ID1069789.ID1070730;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A Trie that can be queried while words are inserted and importance is updated from other threads.
+ * Readers never block: nodes reachable from the published root are never restructured in place. An insert or removal
+ * copies the nodes along its path, changes the copies and then publishes the new root through the volatile
+ * {@link #root} field, so every query walks a consistent snapshot that shares all untouched subtrees with the
+ * previous one.
+ * Importance is added atomically to the current node of a word, and the importance bounds along its path are only
+ * ever raised in place with compare-and-set; a removal lowers them on its copies. Importance updates share a read
+ * lock, so they run in parallel with each other, while inserts and removals take the write lock so that no update
+ * lands on a node that is being replaced by its copy. Rescaling importance at the end of an epoch likewise publishes
+ * a rescaled copy instead of changing importance under running queries. Lazy {@link #suggestions(String)} streams
+ * are the one exception to ranking a single set of values: they read importance as they reach each word.
+ */
+public class ConcurrentTrie extends Trie {
+    private static final VarHandle IMPORTANCE;
+    private static final VarHandle MAX_IMPORTANCE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            IMPORTANCE = lookup.findVarHandle(TrieNode.class, "importance", int.class);
+            MAX_IMPORTANCE = lookup.findVarHandle(TrieNode.class, "maxImportance", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final StampedLock lock = new StampedLock();
+
+    /**
+     * Constructs an empty ConcurrentTrie.
+     */
+    public ConcurrentTrie() {
+        super();
+    }
+
+    /**
+     * Constructs an empty ConcurrentTrie, optionally in path-compressed mode.
+     *
+     * @param compressed whether chains of single-child nodes are collapsed into labelled edges
+     */
+    public ConcurrentTrie(boolean compressed) {
+        super(compressed);
+    }
+
+    /**
+     * Constructs an empty ConcurrentTrie with the given child hash table load factor.
+     *
+     * @param loadFactor the load factor of every child hash table, strictly between 0 and 1
+     */
+    public ConcurrentTrie(float loadFactor) {
+        super(loadFactor);
+    }
+
+    /**
+     * Constructs an empty ConcurrentTrie with the given child hash table load factor, optionally in path-compressed mode.
+     *
+     * @param loadFactor the load factor of every child hash table, strictly between 0 and 1
+     * @param compressed whether chains of single-child nodes are collapsed into labelled edges
+     */
+    public ConcurrentTrie(float loadFactor, boolean compressed) {
+        super(loadFactor, compressed);
+    }
+
+    /**
+     * Inserts the first characters of a lowercase buffer as a word by copying the path it changes
+     * and publishing a new root. Words that are already present leave the Trie untouched.
+     *
+     * @param word   the buffer holding the lowercase word
+     * @param length the number of characters of the word
+     */
+    @Override
+    void insert(char[] word, int length) {
+        long stamp = lock.writeLock();
+        try {
+            TrieNode existing = search(word, length);
+            if (existing != null && existing.wordLength > 0) {
+                return;
+            }
+            TrieNode copy = copyPath(word, length);
+            insert(copy, word, length);
+            root = copy;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the first characters of a lowercase buffer as a word by copying its path, removing the word from the
+     * copies and publishing a new root, so queries running meanwhile still see the word.
+     *
+     * @param word   the buffer holding the lowercase word
+     * @param length the number of characters of the word
+     * @return {@code true} if the word was in the Trie
+     */
+    @Override
+    boolean remove(char[] word, int length) {
+        long stamp = lock.writeLock();
+        try {
+            TrieNode existing = search(word, length);
+            if (existing == null || existing.wordLength == 0) {
+                return false;
+            }
+            TrieNode copy = copyPath(word, length);
+            remove(copy, word, length);
+            root = copy;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Copies the root and every node an insert or removal of the given word would change, linking each copy to the
+     * copy of its parent. The copied path ends at the last node the word shares with the Trie, or at the node whose
+     * edge label the word leaves part way, which the insert will split.
+     *
+     * @param word   the buffer holding the lowercase word
+     * @param length the number of characters of the word
+     * @return the copy of the root
+     */
+    private TrieNode copyPath(char[] word, int length) {
+        TrieNode node = root;
+        TrieNode copy = node.copy();
+        TrieNode top = copy;
+        int i = 0;
+        while (i < length) {
+            char key = word[i++];
+            TrieNode child = node.child(key);
+            if (child == null) {
+                break;
+            }
+            TrieNode childCopy = child.copy();
+            copy.replaceChild(key, childCopy);
+            char[] label = child.label;
+            if (label != null) {
+                if (length - i < label.length || !Arrays.equals(label, 0, label.length, word, i, i + label.length)) {
+                    break;
+                }
+                i += label.length;
+            }
+            node = child;
+            copy = childCopy;
+        }
+        return top;
+    }
+
+    /**
+     * Adds to the importance of a word while holding the read lock, so updates run in parallel with each other
+     * and with queries.
+     *
+     * @param word  the word whose importance changes
+     * @param delta the amount to add
+     * @return {@code true} if the word was found
+     */
+    @Override
+    public boolean addImportance(String word, int delta) {
+        long stamp = lock.readLock();
+        try {
+            return super.addImportance(word, delta);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Counts a batch of tokens while holding the read lock.
+     *
+     * @param tokens the tokens to count
+     * @return the number of tokens that were dictionary words
+     */
+    @Override
+    public int addTokens(Iterable<String> tokens) {
+        long stamp = lock.readLock();
+        try {
+            return super.addTokens(tokens);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Adds to the importance of a node atomically with a compare-and-set loop, saturating instead of overflowing.
+     * Callers hold the read lock.
+     *
+     * @param node  the node of the word
+     * @param delta the amount to add
+     * @return the new importance
+     */
+    @Override
+    int addImportance(TrieNode node, int delta) {
+        int current;
+        int importance;
+        do {
+            current = (int) IMPORTANCE.getVolatile(node);
+            importance = saturate((long) current + delta);
+        } while (!IMPORTANCE.compareAndSet(node, current, importance));
+        return importance;
+    }
+
+    /**
+     * Starts a new epoch while holding the write lock, so no update is weighted by an epoch that a concurrent
+     * rescaling has already folded in.
+     * A rescaling publishes a rescaled copy of the Trie as the new root, so queries running at the same time keep
+     * ranking every word by the values they started with.
+     */
+    @Override
+    public void advanceEpoch() {
+        long stamp = lock.writeLock();
+        try {
+            super.advanceEpoch();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Copies a subtree with its importance and bounds shifted right by the given number of bits, leaving the nodes
+     * that queries may be walking untouched. Callers hold the write lock, so no update lands on the old nodes while
+     * they are copied.
+     *
+     * @param node  the root of the subtree
+     * @param shift the number of bits
+     * @return the rescaled copy of the subtree
+     */
+    @Override
+    TrieNode rescale(TrieNode node, int shift) {
+        TrieNode copy = node.copy();
+        TrieNode[] children = copy.children;
+        for (int i = 0; i < children.length; i++) {
+            if (children[i] != null) {
+                children[i] = rescale(children[i], shift);
+            }
+        }
+        copy.importance >>= shift;
+        copy.maxImportance >>= shift;
+        return copy;
+    }
+
+    /**
+     * Raises the importance bound of a node with a compare-and-set loop, so that concurrent updates
+     * can only ever raise it.
+     *
+     * @param node       the node to update
+     * @param importance the importance the bound must cover
+     */
+    @Override
+    void raiseMaxImportance(TrieNode node, int importance) {
+        int current;
+        do {
+            current = (int) MAX_IMPORTANCE.getVolatile(node);
+            if (current >= importance) {
+                return;
+            }
+        } while (!MAX_IMPORTANCE.compareAndSet(node, current, importance));
+    }
+
+    /**
+     * Processes a file to count word importance while holding the read lock,
+     * so inserts wait until the file has been processed but queries and other importance updates do not.
+     *
+     * @param importanceFile the file to process
+     */
+    @Override
+    public void processImportanceFile(String importanceFile) {
+        long stamp = lock.readLock();
+        try {
+            super.processImportanceFile(importanceFile);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Processes a file to count word importance using several threads while holding the read lock,
+     * so inserts wait until the file has been processed but queries and other importance updates do not.
+     *
+     * @param importanceFile the file to process
+     * @param threads        the number of worker threads
+     * @throws IllegalArgumentException if {@code threads} is less than 1
+     */
+    @Override
+    public void processImportanceFile(String importanceFile, int threads) {
+        long stamp = lock.readLock();
+        try {
+            super.processImportanceFile(importanceFile, threads);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
@@ -0,0 +1,457 @@
+package ID1069789.ID1070730;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.TreeSet;
+
+/**
+ * A minimal acyclic deterministic automaton (DAWG) over a dictionary.
+ * Unlike a {@link Trie}, equivalent suffix subtrees such as "-ing" or "-ness" are stored once and shared by every word
+ * that ends with them. The automaton is built in a single pass over a sorted word list with the incremental
+ * algorithm of Daciuk et al.: after each word, the states of the previous word that can no longer change are replaced
+ * by an equal state from a register when one exists.
+ * Because states are shared, importance cannot be kept on the states. Instead every state records how many words
+ * are accepted from it, which turns the automaton into a minimal perfect hash: the lexicographic index of a word is
+ * computed while it is being searched, and indexes an int array of importance.
+ */
+public class Dawg {
+    private final int[] firstEdge;
+    private final char[] edgeLabels;
+    private final int[] edgeTargets;
+    private final int[] wordsFrom;
+    private final long[] finalStates;
+    private final int[] importance;
+
+    /**
+     * A state of the automaton while it is being built.
+     * Once registered its edges never change, so equality compares edge targets by identity.
+     */
+    private static final class State {
+        char[] labels = new char[0];
+        State[] targets = new State[0];
+        boolean isFinal;
+        int hash;
+        int id = -1;
+
+        /**
+         * Appends an edge; edges are added in ascending label order because the input is sorted.
+         *
+         * @param label  the character of the edge
+         * @param target the state the edge leads to
+         */
+        void addEdge(char label, State target) {
+            labels = Arrays.copyOf(labels, labels.length + 1);
+            targets = Arrays.copyOf(targets, targets.length + 1);
+            labels[labels.length - 1] = label;
+            targets[targets.length - 1] = target;
+        }
+
+        /**
+         * Computes the hash once the state is complete and about to be looked up in the register.
+         */
+        void seal() {
+            int h = isFinal ? 1 : 0;
+            for (int i = 0; i < labels.length; i++) {
+                h = 31 * h + labels[i];
+                h = 31 * h + System.identityHashCode(targets[i]);
+            }
+            hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof State)) {
+                return false;
+            }
+            State state = (State) other;
+            if (isFinal != state.isFinal || !Arrays.equals(labels, state.labels)) {
+                return false;
+            }
+            for (int i = 0; i < targets.length; i++) {
+                if (targets[i] != state.targets[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Builds the minimal automaton for a sorted list of distinct lowercase words.
+     *
+     * @param sortedWords the words in strictly ascending order
+     * @throws IllegalArgumentException if the words are not sorted or contain duplicates
+     */
+    public Dawg(List<String> sortedWords) {
+        Map<State, State> register = new HashMap<>();
+        State root = new State();
+        State[] path = new State[16];
+        path[0] = root;
+        String previous = "";
+
+        for (String word : sortedWords) {
+            if (!previous.isEmpty() && word.compareTo(previous) <= 0) {
+                throw new IllegalArgumentException("Words must be sorted and distinct: \"" + previous + "\" before \"" + word + "\"");
+            }
+            int common = 0;
+            while (common < word.length() && common < previous.length() && word.charAt(common) == previous.charAt(common)) {
+                common++;
+            }
+            minimize(path, previous.length(), common, register);
+
+            if (word.length() >= path.length) {
+                path = Arrays.copyOf(path, Math.max(path.length * 2, word.length() + 1));
+            }
+            for (int i = common; i < word.length(); i++) {
+                State next = new State();
+                path[i].addEdge(word.charAt(i), next);
+                path[i + 1] = next;
+            }
+            path[word.length()].isFinal = true;
+            previous = word;
+        }
+        minimize(path, previous.length(), 0, register);
+
+        List<State> states = new ArrayList<>();
+        number(root, states);
+        int stateCount = states.size();
+        int edgeCount = 0;
+        for (State state : states) {
+            edgeCount += state.labels.length;
+        }
+
+        this.firstEdge = new int[stateCount + 1];
+        this.edgeLabels = new char[edgeCount];
+        this.edgeTargets = new int[edgeCount];
+        this.wordsFrom = new int[stateCount];
+        this.finalStates = new long[(stateCount + 63) >>> 6];
+        int edge = 0;
+        for (int id = 0; id < stateCount; id++) {
+            State state = states.get(id);
+            firstEdge[id] = edge;
+            if (state.isFinal) {
+                finalStates[id >>> 6] |= 1L << id;
+            }
+            for (int i = 0; i < state.labels.length; i++) {
+                edgeLabels[edge] = state.labels[i];
+                edgeTargets[edge] = state.targets[i].id;
+                edge++;
+            }
+        }
+        firstEdge[stateCount] = edge;
+        for (int id = stateCount - 1; id >= 0; id--) {
+            int count = isFinal(id) ? 1 : 0;
+            for (int e = firstEdge[id]; e < firstEdge[id + 1]; e++) {
+                count += wordsFrom[edgeTargets[e]];
+            }
+            wordsFrom[id] = count;
+        }
+        this.importance = new int[stateCount == 0 ? 0 : wordsFrom[0]];
+    }
+
+    /**
+     * Replaces or registers the states of the previous word below the given depth, deepest first.
+     *
+     * @param path     the states along the previous word
+     * @param length   the length of the previous word
+     * @param downTo   the depth of the deepest state shared with the next word
+     * @param register the states registered so far
+     */
+    private static void minimize(State[] path, int length, int downTo, Map<State, State> register) {
+        for (int i = length; i > downTo; i--) {
+            State state = path[i];
+            state.seal();
+            State equal = register.get(state);
+            if (equal != null) {
+                State parent = path[i - 1];
+                parent.targets[parent.targets.length - 1] = equal;
+            } else {
+                register.put(state, state);
+            }
+        }
+    }
+
+    /**
+     * Numbers the states reachable from a state in reverse depth-first post-order,
+     * so that the start state gets id 0 and every edge leads to a larger id.
+     *
+     * @param state  the state to number
+     * @param states the list of numbered states
+     */
+    private static void number(State state, List<State> states) {
+        List<State> order = new ArrayList<>();
+        postOrder(state, order);
+        for (int i = order.size() - 1; i >= 0; i--) {
+            State numbered = order.get(i);
+            numbered.id = states.size();
+            states.add(numbered);
+        }
+    }
+
+    /**
+     * Lists the states reachable from a state in depth-first post-order, each state once.
+     *
+     * @param state the state to start from
+     * @param order the list receiving the states
+     */
+    private static void postOrder(State state, List<State> order) {
+        state.id = -2;
+        for (State target : state.targets) {
+            if (target.id == -1) {
+                postOrder(target, order);
+            }
+        }
+        order.add(state);
+    }
+
+    /**
+     * Builds the automaton from a dictionary file, reading and cleaning words the same way as
+     * {@link Trie#loadDictionary(String)}. The words do not need to be sorted in the file.
+     *
+     * @param dictionaryFile the file containing dictionary words
+     * @return the automaton, empty if the file cannot be read
+     */
+    public static Dawg fromDictionary(String dictionaryFile) {
+        TreeSet<String> words = new TreeSet<>();
+        try (Scanner scanner = new Scanner(new File(dictionaryFile))) {
+            while (scanner.hasNext()) {
+                String dirtyWord = scanner.next();
+                StringBuilder cleanWord = new StringBuilder(dirtyWord.length());
+                for (int i = 0; i < dirtyWord.length(); i++) {
+                    if (Character.isLetter(dirtyWord.charAt(i))) {
+                        cleanWord.append(dirtyWord.charAt(i));
+                    }
+                }
+                if (cleanWord.length() > 0) {
+                    words.add(cleanWord.toString().toLowerCase());
+                }
+            }
+        } catch (FileNotFoundException e) {
+            System.out.println("File not found: " + e.getMessage());
+        }
+        System.out.println("Dictionary loaded into DAWG.\n");
+        return new Dawg(new ArrayList<>(words));
+    }
+
+    /**
+     * Processes a file to count word importance, with the same token cleaning as
+     * {@link Trie#processImportanceFile(String)}.
+     *
+     * @param importanceFile the file to process
+     */
+    public void processImportanceFile(String importanceFile) {
+        try (Scanner scanner = new Scanner(new File(importanceFile))) {
+            while (scanner.hasNext()) {
+                String cleanWord = Trie.clean(scanner.next());
+                if (!cleanWord.isEmpty()) {
+                    int id = search(cleanWord);
+                    if (id >= 0) {
+                        importance[id]++;
+                    }
+                }
+            }
+        } catch (FileNotFoundException e) {
+            System.out.println("File not found: " + e.getMessage());
+        }
+        System.out.println("Importance file processed.\n");
+    }
+
+    /**
+     * Checks whether a state accepts the word read so far.
+     *
+     * @param state the state id
+     * @return {@code true} if the state is final
+     */
+    private boolean isFinal(int state) {
+        return (finalStates[state >>> 6] & (1L << state)) != 0;
+    }
+
+    /**
+     * Searches for a word and computes its lexicographic index on the way.
+     *
+     * @param word the word to search
+     * @return the index of the word in [0, {@link #wordCount()}), or -1 if it is not in the automaton
+     */
+    public int search(String word) {
+        String lowerWord = word.toLowerCase();
+        if (wordsFrom.length == 0) {
+            return -1;
+        }
+        int state = 0;
+        int index = 0;
+        for (int i = 0; i < lowerWord.length(); i++) {
+            char key = lowerWord.charAt(i);
+            if (isFinal(state)) {
+                index++;
+            }
+            int next = -1;
+            for (int e = firstEdge[state]; e < firstEdge[state + 1]; e++) {
+                if (edgeLabels[e] == key) {
+                    next = edgeTargets[e];
+                    break;
+                }
+                index += wordsFrom[edgeTargets[e]];
+            }
+            if (next < 0) {
+                return -1;
+            }
+            state = next;
+        }
+        return isFinal(state) ? index : -1;
+    }
+
+    /**
+     * Returns the importance of a word.
+     *
+     * @param word the word to look up
+     * @return the importance of the word, or 0 if it is not in the automaton
+     */
+    public int importanceOf(String word) {
+        int id = search(word);
+        return id >= 0 ? importance[id] : 0;
+    }
+
+    /**
+     * Returns the number of states.
+     *
+     * @return the number of states
+     */
+    public int stateCount() {
+        return wordsFrom.length;
+    }
+
+    /**
+     * Returns the number of words.
+     *
+     * @return the number of words
+     */
+    public int wordCount() {
+        return importance.length;
+    }
+
+    /**
+     * Suggests words similar to the given input word using the same criteria as {@link Trie#suggestWords(String, int)}
+     * and prints the k most important ones, most important first.
+     *
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     */
+    public void suggestWords(String inputWord, int k) {
+        suggestWords(inputWord, k, MatchOptions.DEFAULT);
+    }
+
+    /**
+     * Suggests words that start with the given input word or match it under the given fuzzy matching options,
+     * and prints the k most important ones, most important first.
+     *
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     * @param options   the edit operations and distances that make a fuzzy match
+     */
+    public void suggestWords(String inputWord, int k, MatchOptions options) {
+        List<Suggestion> suggestions = suggest(inputWord, k, options);
+        for (Suggestion suggestion : suggestions) {
+            System.out.println(suggestion.word());
+        }
+        if (suggestions.isEmpty()) {
+            System.out.println("Did not find any words!!!");
+        }
+    }
+
+    /**
+     * Finds the k most important suggestions for the given input word, using the same criteria as
+     * {@link Trie#suggestWords(String, int)}.
+     *
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     * @return the suggestions, most important first
+     */
+    public List<Suggestion> suggest(String inputWord, int k) {
+        return suggest(inputWord, k, MatchOptions.DEFAULT);
+    }
+
+    /**
+     * Finds the k most important words that start with the given input word or match it under the given fuzzy
+     * matching options.
+     *
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     * @param options   the edit operations and distances that make a fuzzy match
+     * @return the suggestions, most important first
+     */
+    public List<Suggestion> suggest(String inputWord, int k, MatchOptions options) {
+        MinHeap minHeap = new MinHeap(k + 1);
+        FuzzyAutomaton automaton = new FuzzyAutomaton(inputWord, options);
+        if (wordsFrom.length > 0) {
+            findSuggestions(0, 0, new StringBuilder(), inputWord, inputWord.toLowerCase(), true, automaton, minHeap, k);
+        }
+
+        Suggestion[] suggestions = new Suggestion[minHeap.size()];
+        for (int i = suggestions.length - 1; i >= 0; i--) {
+            int importance = minHeap.minImportance();
+            suggestions[i] = Suggestion.of(minHeap.poll(), importance, inputWord);
+        }
+        return List.of(suggestions);
+    }
+
+    /**
+     * Visits the words accepted from a state that can still be suggested and offers the suggested ones to the heap.
+     * An edge is followed only while the path still starts like the input word or the automaton can still match.
+     * The lexicographic index of the first word accepted from the state is carried along, as in {@link #search(String)},
+     * so the importance of a suggested word is read without searching for it again.
+     * The path is compared with the lowercased input word, since edge labels are lowercase, and words that start with
+     * the input word keep the input word's spelling for that part, as {@link Trie#suggestWords(String, int)} prints
+     * them.
+     *
+     * @param state          the state id
+     * @param index          the index of the first word whose path goes through the state
+     * @param path           the characters read to reach the state
+     * @param inputWord      the word suggestions are made for
+     * @param lowerInputWord the input word in lowercase
+     * @param onPrefix       whether the path and the input word agree on every character they share
+     * @param automaton      the automaton positioned after the characters of the path
+     * @param minHeap        the MinHeap keeping the k most important suggestions
+     * @param k              the number of suggestions to provide
+     */
+    private void findSuggestions(int state, int index, StringBuilder path, String inputWord, String lowerInputWord,
+            boolean onPrefix, FuzzyAutomaton automaton, MinHeap minHeap, int k) {
+        boolean isFinal = isFinal(state);
+        int inputLength = lowerInputWord.length();
+        boolean prefixMatch = onPrefix && path.length() > inputLength;
+        if (isFinal && (prefixMatch || automaton.matches())) {
+            String word = prefixMatch ? inputWord + path.substring(inputLength) : path.toString();
+            if (!minHeap.contains(word)) {
+                minHeap.offer(word, importance[index]);
+                if (minHeap.size() > k) {
+                    minHeap.poll();
+                }
+            }
+        }
+        int depth = automaton.depth();
+        int childIndex = isFinal ? index + 1 : index;
+        for (int e = firstEdge[state]; e < firstEdge[state + 1]; e++) {
+            char c = edgeLabels[e];
+            path.append(c);
+            int length = path.length();
+            boolean childOnPrefix = onPrefix && (length > inputLength || lowerInputWord.charAt(length - 1) == c);
+            if (automaton.push(c) || childOnPrefix) {
+                findSuggestions(edgeTargets[e], childIndex, path, inputWord, lowerInputWord, childOnPrefix, automaton,
+                        minHeap, k);
+            }
+            automaton.popTo(depth);
+            path.setLength(length - 1);
+            childIndex += wordsFrom[edgeTargets[e]];
+        }
+    }
+}
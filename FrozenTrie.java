@@ -0,0 +1,626 @@
+package ID1069789.ID1070730;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable, compact copy of a {@link Trie} for read-only serving, created with {@link Trie#freeze()}.
+ * The shape of the tree is stored as a LOUDS (level-order unary degree sequence) bit vector:
+ * nodes are numbered in breadth-first order, and every node contributes one 1 bit per child followed by a 0 bit,
+ * after a leading "10" for a virtual super root. The children of node i are then the consecutive node ids
+ * starting at select0(i + 1) - i, so navigation needs nothing but a select directory over the bit vector.
+ * The edge labels are packed into a char array indexed by node id, a second bit vector marks the nodes that end words,
+ * and the importance of each word is packed into an int array indexed by the word's rank among those nodes.
+ * Edges of a path-compressed Trie are expanded to one node per character.
+ * All arrays are accessed through NIO buffers, so the same structure can be queried straight out of a
+ * memory-mapped snapshot file written by {@link #save(String)} and opened by {@link #open(String)},
+ * without rebuilding anything on the heap.
+ */
+public class FrozenTrie {
+    private final LongBuffer louds;
+    private final IntBuffer zerosBefore;
+    private final CharBuffer labels;
+    private final LongBuffer terminal;
+    private final IntBuffer terminalsBefore;
+    private final IntBuffer importance;
+    private final int nodeCount;
+    private final int wordCount;
+
+    /**
+     * Identifies a snapshot file; the ASCII characters "TRIE".
+     */
+    static final int SNAPSHOT_MAGIC = 0x54524945;
+
+    /**
+     * The snapshot layout written by this version; files with any other version are rejected.
+     */
+    static final int SNAPSHOT_VERSION = 1;
+
+    private static final int HEADER_BYTES = 32;
+
+    /**
+     * A node of the source Trie waiting to be numbered, together with the number of characters of its edge label
+     * already emitted as nodes of their own.
+     */
+    private static final class Pending {
+        final TrieNode node;
+        final int labelPosition;
+
+        Pending(TrieNode node, int labelPosition) {
+            this.node = node;
+            this.labelPosition = labelPosition;
+        }
+    }
+
+    /**
+     * Builds the frozen copy of the Trie rooted at the given node with a breadth-first walk.
+     *
+     * @param root the root of the Trie to copy
+     */
+    FrozenTrie(TrieNode root) {
+        long[] bits = new long[16];
+        int bitCount = 0;
+        char[] nodeLabels = new char[16];
+        long[] words = new long[1];
+        int[] wordImportance = new int[16];
+        int nodes = 0;
+        int wordTotal = 0;
+
+        bits[0] = 1L;
+        bitCount = 2;
+
+        ArrayDeque<Pending> queue = new ArrayDeque<>();
+        queue.add(new Pending(root, 0));
+        nodeLabels[nodes++] = 0;
+
+        while (!queue.isEmpty()) {
+            Pending pending = queue.poll();
+            TrieNode node = pending.node;
+            char[] label = node.label;
+            int id = nodes - queue.size() - 1;
+
+            int[] order;
+            if (label != null && pending.labelPosition < label.length) {
+                order = null;
+            } else {
+                order = sortedSlots(node);
+                if (node.wordLength > 0) {
+                    if ((id >>> 6) >= words.length) {
+                        words = Arrays.copyOf(words, Math.max(words.length * 2, (id >>> 6) + 1));
+                    }
+                    words[id >>> 6] |= 1L << id;
+                    if (wordTotal == wordImportance.length) {
+                        wordImportance = Arrays.copyOf(wordImportance, wordTotal * 2);
+                    }
+                    wordImportance[wordTotal++] = node.importance;
+                }
+            }
+
+            int childCount = order == null ? 1 : order.length;
+            if (bitCount + childCount + 1 > bits.length * 64) {
+                bits = Arrays.copyOf(bits, Math.max(bits.length * 2, (bitCount + childCount + 1) / 64 + 1));
+            }
+            for (int i = 0; i < childCount; i++) {
+                bits[bitCount >>> 6] |= 1L << bitCount;
+                bitCount++;
+            }
+            bitCount++;
+
+            if (nodes + childCount > nodeLabels.length) {
+                nodeLabels = Arrays.copyOf(nodeLabels, Math.max(nodeLabels.length * 2, nodes + childCount));
+            }
+            if (order == null) {
+                nodeLabels[nodes++] = label[pending.labelPosition];
+                queue.add(new Pending(node, pending.labelPosition + 1));
+            } else {
+                for (int slot : order) {
+                    nodeLabels[nodes++] = node.keys[slot];
+                    queue.add(new Pending(node.children[slot], 0));
+                }
+            }
+        }
+
+        long[] loudsWords = Arrays.copyOf(bits, (bitCount + 63) >>> 6);
+        int[] zeroRanks = new int[loudsWords.length + 1];
+        for (int i = 0; i < loudsWords.length; i++) {
+            int validBits = Math.min(64, bitCount - i * 64);
+            zeroRanks[i + 1] = zeroRanks[i] + validBits - Long.bitCount(loudsWords[i]);
+        }
+        long[] terminalWords = Arrays.copyOf(words, (nodes + 63) >>> 6);
+        int[] terminalRanks = new int[terminalWords.length + 1];
+        for (int i = 0; i < terminalWords.length; i++) {
+            terminalRanks[i + 1] = terminalRanks[i] + Long.bitCount(terminalWords[i]);
+        }
+
+        this.nodeCount = nodes;
+        this.wordCount = wordTotal;
+        this.louds = LongBuffer.wrap(loudsWords);
+        this.zerosBefore = IntBuffer.wrap(zeroRanks);
+        this.labels = CharBuffer.wrap(Arrays.copyOf(nodeLabels, nodes));
+        this.terminal = LongBuffer.wrap(terminalWords);
+        this.terminalsBefore = IntBuffer.wrap(terminalRanks);
+        this.importance = IntBuffer.wrap(Arrays.copyOf(wordImportance, wordTotal));
+    }
+
+    /**
+     * Creates a frozen trie over the sections of a snapshot buffer.
+     *
+     * @param snapshot the whole snapshot; its position is ignored and its byte order is set to little-endian
+     * @throws IOException if the buffer does not hold a snapshot of the supported version
+     */
+    private FrozenTrie(ByteBuffer snapshot) throws IOException {
+        snapshot.order(ByteOrder.LITTLE_ENDIAN);
+        if (snapshot.capacity() < HEADER_BYTES || snapshot.getInt(0) != SNAPSHOT_MAGIC) {
+            throw new IOException("Not a trie snapshot");
+        }
+        int version = snapshot.getInt(4);
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported trie snapshot version " + version);
+        }
+        this.nodeCount = snapshot.getInt(8);
+        this.wordCount = snapshot.getInt(12);
+        int loudsWords = snapshot.getInt(16);
+        int terminalWords = snapshot.getInt(20);
+        long expectedBytes = snapshotBytes(nodeCount, wordCount, loudsWords, terminalWords);
+        if (snapshot.capacity() != expectedBytes) {
+            throw new IOException("Truncated trie snapshot: expected " + expectedBytes + " bytes, found " + snapshot.capacity());
+        }
+
+        int offset = HEADER_BYTES;
+        this.louds = section(snapshot, offset, loudsWords * 8).asLongBuffer();
+        offset += loudsWords * 8;
+        this.terminal = section(snapshot, offset, terminalWords * 8).asLongBuffer();
+        offset += terminalWords * 8;
+        this.zerosBefore = section(snapshot, offset, (loudsWords + 1) * 4).asIntBuffer();
+        offset += (loudsWords + 1) * 4;
+        this.terminalsBefore = section(snapshot, offset, (terminalWords + 1) * 4).asIntBuffer();
+        offset += (terminalWords + 1) * 4;
+        this.importance = section(snapshot, offset, wordCount * 4).asIntBuffer();
+        offset += wordCount * 4;
+        this.labels = section(snapshot, offset, nodeCount * 2).asCharBuffer();
+    }
+
+    /**
+     * Returns a little-endian view of part of a buffer.
+     *
+     * @param buffer the buffer to slice
+     * @param offset the offset of the section in bytes
+     * @param length the length of the section in bytes
+     * @return the section
+     */
+    private static ByteBuffer section(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset).limit(offset + length);
+        return duplicate.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Computes the size of a snapshot file.
+     *
+     * @param nodes         the number of nodes
+     * @param words         the number of words
+     * @param loudsWords    the number of 64-bit words of the LOUDS bit vector
+     * @param terminalWords the number of 64-bit words of the terminal bit vector
+     * @return the size in bytes
+     */
+    private static long snapshotBytes(int nodes, int words, int loudsWords, int terminalWords) {
+        return HEADER_BYTES + 8L * loudsWords + 8L * terminalWords + 4L * (loudsWords + 1) + 4L * (terminalWords + 1)
+                + 4L * words + 2L * nodes;
+    }
+
+    /**
+     * Writes this trie to a versioned binary snapshot file that {@link #open(String)} can map back.
+     * The file starts with a 32-byte header (magic, version, node count, word count and the lengths of the two
+     * bit vectors in 64-bit words), followed by the LOUDS bits, the terminal bits, their rank directories,
+     * the importance of every word and the edge labels, all little-endian. Sections with 64-bit entries come first,
+     * so every section is naturally aligned.
+     *
+     * @param snapshotFile the file to write, replaced if it exists
+     * @throws IOException if the file cannot be written or would exceed 2 GB
+     */
+    public void save(String snapshotFile) throws IOException {
+        long bytes = snapshotBytes(nodeCount, wordCount, louds.capacity(), terminal.capacity());
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("Trie snapshot too large: " + bytes + " bytes");
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(snapshotFile), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            out.order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putInt(nodeCount).putInt(wordCount)
+                    .putInt(louds.capacity()).putInt(terminal.capacity()).putInt(0).putInt(0);
+            for (int i = 0; i < louds.capacity(); i++) {
+                out.putLong(louds.get(i));
+            }
+            for (int i = 0; i < terminal.capacity(); i++) {
+                out.putLong(terminal.get(i));
+            }
+            for (int i = 0; i < zerosBefore.capacity(); i++) {
+                out.putInt(zerosBefore.get(i));
+            }
+            for (int i = 0; i < terminalsBefore.capacity(); i++) {
+                out.putInt(terminalsBefore.get(i));
+            }
+            for (int i = 0; i < importance.capacity(); i++) {
+                out.putInt(importance.get(i));
+            }
+            for (int i = 0; i < labels.capacity(); i++) {
+                out.putChar(labels.get(i));
+            }
+            out.force();
+        }
+    }
+
+    /**
+     * Opens a snapshot file written by {@link #save(String)} by mapping it into memory read-only.
+     * Queries read the mapped file directly, so opening takes time independent of the dictionary size
+     * and the trie occupies almost no heap.
+     *
+     * @param snapshotFile the snapshot file
+     * @return the frozen trie backed by the file
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static FrozenTrie open(String snapshotFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(snapshotFile), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Trie snapshot too large: " + channel.size() + " bytes");
+            }
+            return new FrozenTrie(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Returns the occupied slots of a node's children arrays ordered by key.
+     *
+     * @param node the node whose children are listed
+     * @return the slot indices in ascending key order
+     */
+    private static int[] sortedSlots(TrieNode node) {
+        char[] keys = node.keys;
+        TrieNode[] children = node.children;
+        long[] packed = new long[children.length];
+        int count = 0;
+        for (int i = 0; i < children.length; i++) {
+            if (children[i] != null) {
+                packed[count++] = ((long) keys[i] << 32) | i;
+            }
+        }
+        Arrays.sort(packed, 0, count);
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = (int) packed[i];
+        }
+        return order;
+    }
+
+    /**
+     * Returns the position of the given zero bit in the LOUDS bit vector.
+     *
+     * @param rank the 1-based rank of the zero bit
+     * @return its position
+     */
+    private int select0(int rank) {
+        int low = 0;
+        int high = louds.capacity() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (zerosBefore.get(middle) < rank) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        long zeros = ~louds.get(low);
+        for (int remaining = rank - zerosBefore.get(low); remaining > 1; remaining--) {
+            zeros &= zeros - 1;
+        }
+        return (low << 6) + Long.numberOfTrailingZeros(zeros);
+    }
+
+    /**
+     * Returns the id of the first child of a node.
+     *
+     * @param node the node id
+     * @return the id of its first child, meaningful only if it has children
+     */
+    private int firstChild(int node) {
+        return select0(node + 1) - node;
+    }
+
+    /**
+     * Returns the number of children of a node.
+     *
+     * @param node the node id
+     * @return the number of children
+     */
+    private int childCount(int node) {
+        return select0(node + 2) - select0(node + 1) - 1;
+    }
+
+    /**
+     * Finds the child of a node reached through the given character, using a binary search over the sorted labels.
+     *
+     * @param node the node id
+     * @param key  the character labelling the edge
+     * @return the child id, or -1 if there is none
+     */
+    private int child(int node, char key) {
+        int start = select0(node + 1);
+        int first = start - node;
+        int last = select0(node + 2) - node - 2;
+        while (first <= last) {
+            int middle = (first + last) >>> 1;
+            char label = labels.get(middle);
+            if (label < key) {
+                first = middle + 1;
+            } else if (label > key) {
+                last = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether a word ends at the given node.
+     *
+     * @param node the node id
+     * @return {@code true} if the node ends a word
+     */
+    private boolean isWord(int node) {
+        return (terminal.get(node >>> 6) & (1L << node)) != 0;
+    }
+
+    /**
+     * Returns the dense id of the word ending at the given node, that is the number of word nodes before it.
+     *
+     * @param node the id of a node that ends a word
+     * @return the word id
+     */
+    private int wordId(int node) {
+        return terminalsBefore.get(node >>> 6) + Long.bitCount(terminal.get(node >>> 6) & ((1L << node) - 1));
+    }
+
+    /**
+     * Follows the characters of a word from the root.
+     *
+     * @param word the lowercase word
+     * @return the node id reached, or -1 if the path does not exist
+     */
+    private int walk(String word) {
+        int node = 0;
+        for (int i = 0; i < word.length() && node >= 0; i++) {
+            node = child(node, word.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Searches for a word.
+     *
+     * @param word the word to search
+     * @return the dense id of the word in [0, {@link #wordCount()}), or -1 if it is not in the trie
+     */
+    public int search(String word) {
+        int node = walk(word.toLowerCase());
+        return node >= 0 && isWord(node) ? wordId(node) : -1;
+    }
+
+    /**
+     * Searches for the first characters of a lowercase buffer.
+     *
+     * @param word   the buffer holding the lowercase word
+     * @param length the number of characters to look up
+     * @return the dense id of the word, or -1 if it is not in the trie
+     */
+    int search(char[] word, int length) {
+        int node = 0;
+        for (int i = 0; i < length && node >= 0; i++) {
+            node = child(node, word[i]);
+        }
+        return node >= 0 && isWord(node) ? wordId(node) : -1;
+    }
+
+    /**
+     * Returns the importance of a word.
+     *
+     * @param word the word to look up
+     * @return the importance of the word, or 0 if it is not in the trie
+     */
+    public int importanceOf(String word) {
+        int id = search(word);
+        return id >= 0 ? importance.get(id) : 0;
+    }
+
+    /**
+     * Returns the number of nodes, one per character of every edge.
+     *
+     * @return the number of nodes
+     */
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the number of words.
+     *
+     * @return the number of words
+     */
+    public int wordCount() {
+        return wordCount;
+    }
+
+    /**
+     * Lists the words that start with the given prefix, including the prefix itself if it is a word,
+     * in lexicographic order.
+     *
+     * @param prefix the prefix to complete
+     * @return the matching words
+     */
+    public List<String> wordsWithPrefix(String prefix) {
+        String lowerPrefix = prefix.toLowerCase();
+        List<String> words = new ArrayList<>();
+        int node = walk(lowerPrefix);
+        if (node >= 0) {
+            collectWords(node, new StringBuilder(lowerPrefix), words);
+        }
+        return words;
+    }
+
+    /**
+     * Adds every word in the subtree of a node to a list, in lexicographic order.
+     *
+     * @param node  the node id
+     * @param path  the characters leading to the node
+     * @param words the list receiving the words
+     */
+    private void collectWords(int node, StringBuilder path, List<String> words) {
+        if (isWord(node)) {
+            words.add(path.toString());
+        }
+        int first = firstChild(node);
+        int count = childCount(node);
+        for (int child = first; child < first + count; child++) {
+            path.append(labels.get(child));
+            collectWords(child, path, words);
+            path.setLength(path.length() - 1);
+        }
+    }
+
+    /**
+     * Suggests words similar to the given input word using the same criteria as {@link Trie#suggestWords(String, int)}
+     * and prints the k most important ones, most important first.
+     *
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     */
+    public void suggestWords(String inputWord, int k) {
+        suggestWords(inputWord, k, MatchOptions.DEFAULT);
+    }
+
+    /**
+     * Suggests words that start with the given input word or match it under the given fuzzy matching options,
+     * and prints the k most important ones, most important first.
+     *
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     * @param options   the edit operations and distances that make a fuzzy match
+     */
+    public void suggestWords(String inputWord, int k, MatchOptions options) {
+        List<Suggestion> suggestions = suggest(inputWord, k, options);
+        for (Suggestion suggestion : suggestions) {
+            System.out.println(suggestion.word());
+        }
+        if (suggestions.isEmpty()) {
+            System.out.println("Did not find any words!!!");
+        }
+    }
+
+    /**
+     * Finds the k most important suggestions for the given input word, using the same criteria as
+     * {@link Trie#suggestWords(String, int)}.
+     *
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     * @return the suggestions, most important first
+     */
+    public List<Suggestion> suggest(String inputWord, int k) {
+        return suggest(inputWord, k, MatchOptions.DEFAULT);
+    }
+
+    /**
+     * Finds the k most important words that start with the given input word or match it under the given fuzzy
+     * matching options.
+     *
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     * @param options   the edit operations and distances that make a fuzzy match
+     * @return the suggestions, most important first
+     */
+    public List<Suggestion> suggest(String inputWord, int k, MatchOptions options) {
+        return suggest(inputWord, k, options, importance);
+    }
+
+    /**
+     * Finds the k words that start with the given input word or match it under the given fuzzy matching options
+     * and rank highest by importance taken from the given source instead of this trie's own.
+     *
+     * @param inputWord      the word to find suggestions for
+     * @param k              the number of suggestions to provide
+     * @param options        the edit operations and distances that make a fuzzy match
+     * @param wordImportance the importance of every word, indexed by word id
+     * @return the suggestions, most important first
+     */
+    List<Suggestion> suggest(String inputWord, int k, MatchOptions options, IntBuffer wordImportance) {
+        MinHeap minHeap = new MinHeap(k + 1);
+        FuzzyAutomaton automaton = new FuzzyAutomaton(inputWord, options);
+        findSuggestions(0, new StringBuilder(), inputWord, inputWord.toLowerCase(), true, automaton, wordImportance,
+                minHeap, k);
+
+        Suggestion[] suggestions = new Suggestion[minHeap.size()];
+        for (int i = suggestions.length - 1; i >= 0; i--) {
+            int importance = minHeap.minImportance();
+            suggestions[i] = Suggestion.of(minHeap.poll(), importance, inputWord);
+        }
+        return List.of(suggestions);
+    }
+
+    /**
+     * Visits the words in the subtree of a node that can still be suggested and offers the suggested ones to the heap.
+     * A child is entered only while its path still starts like the input word or the automaton can still match.
+     * The path is compared with the lowercased input word, since labels are lowercase, and words that start with the
+     * input word keep the input word's spelling for that part, as {@link Trie#suggestWords(String, int)} prints them.
+     *
+     * @param node           the node id
+     * @param path           the characters leading to the node
+     * @param inputWord      the word suggestions are made for
+     * @param lowerInputWord the input word in lowercase
+     * @param onPrefix       whether the path and the input word agree on every character they share
+     * @param automaton      the automaton positioned after the characters of the path
+     * @param wordImportance the importance of every word, indexed by word id
+     * @param minHeap        the MinHeap keeping the k most important suggestions
+     * @param k              the number of suggestions to provide
+     */
+    private void findSuggestions(int node, StringBuilder path, String inputWord, String lowerInputWord,
+            boolean onPrefix, FuzzyAutomaton automaton, IntBuffer wordImportance, MinHeap minHeap, int k) {
+        int inputLength = lowerInputWord.length();
+        boolean prefixMatch = onPrefix && path.length() > inputLength;
+        if (isWord(node) && (prefixMatch || automaton.matches())) {
+            String word = prefixMatch ? inputWord + path.substring(inputLength) : path.toString();
+            if (!minHeap.contains(word)) {
+                minHeap.offer(word, wordImportance.get(wordId(node)));
+                if (minHeap.size() > k) {
+                    minHeap.poll();
+                }
+            }
+        }
+        int depth = automaton.depth();
+        int first = firstChild(node);
+        int count = childCount(node);
+        for (int child = first; child < first + count; child++) {
+            char c = labels.get(child);
+            path.append(c);
+            int length = path.length();
+            boolean childOnPrefix = onPrefix && (length > inputLength || lowerInputWord.charAt(length - 1) == c);
+            if (automaton.push(c) || childOnPrefix) {
+                findSuggestions(child, path, inputWord, lowerInputWord, childOnPrefix, automaton, wordImportance,
+                        minHeap, k);
+            }
+            automaton.popTo(depth);
+            path.setLength(length - 1);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package ID1069789.ID1070730;
+
+/**
+ * Follows a walk down a Trie one character at a time and tells whether the characters read so far form a fuzzy
+ * match of an input word, and whether any continuation still can.
+ * For every rule of the {@link MatchOptions} it keeps one row of the restricted edit distance table per character
+ * read: entry i of the row at depth d is the smallest number of allowed operations turning the first i characters
+ * of the input word into the first d characters read. Rows are stacked, so stepping back up the Trie is free,
+ * and entries are capped just above the rule's maximum distance.
+ * A branch is dead once every rule's row has no entry within its distance; for rules that allow transpositions
+ * the previous row is considered as well, since a swap reaches back two rows.
+ */
+final class FuzzyAutomaton {
+    private final char[] input;
+    private final int width;
+    private final int ruleCount;
+    private final boolean[] substitution;
+    private final boolean[] insertion;
+    private final boolean[] deletion;
+    private final boolean[] transposition;
+    private final int[] maxDistances;
+    private final int maxDepth;
+
+    private final int[][] rows;
+    private final int[][] rowMinimums;
+    private final char[] path;
+    private int depth;
+    private int deadFrom = Integer.MAX_VALUE;
+
+    /**
+     * Creates an automaton positioned at the root, before any character has been read.
+     *
+     * @param inputWord the word to match
+     * @param options   the rules a match must satisfy
+     */
+    FuzzyAutomaton(String inputWord, MatchOptions options) {
+        input = inputWord.toCharArray();
+        width = input.length + 1;
+        ruleCount = options.ruleCount();
+        substitution = new boolean[ruleCount];
+        insertion = new boolean[ruleCount];
+        deletion = new boolean[ruleCount];
+        transposition = new boolean[ruleCount];
+        maxDistances = new int[ruleCount];
+        int maxInsertions = 0;
+        for (int r = 0; r < ruleCount; r++) {
+            substitution[r] = options.allows(r, MatchOptions.Operation.SUBSTITUTION);
+            insertion[r] = options.allows(r, MatchOptions.Operation.INSERTION);
+            deletion[r] = options.allows(r, MatchOptions.Operation.DELETION);
+            transposition[r] = options.allows(r, MatchOptions.Operation.TRANSPOSITION);
+            maxDistances[r] = options.maxDistance(r);
+            if (insertion[r]) {
+                maxInsertions = Math.max(maxInsertions, maxDistances[r]);
+            }
+        }
+        maxDepth = input.length + maxInsertions;
+
+        rows = new int[ruleCount][(maxDepth + 1) * width];
+        rowMinimums = new int[ruleCount][maxDepth + 1];
+        path = new char[maxDepth];
+        for (int r = 0; r < ruleCount; r++) {
+            int cap = maxDistances[r] + 1;
+            for (int i = 0; i < width; i++) {
+                rows[r][i] = i == 0 ? 0 : deletion[r] ? Math.min(i, cap) : cap;
+            }
+            rowMinimums[r][0] = 0;
+        }
+    }
+
+    /**
+     * Returns the number of characters read so far.
+     *
+     * @return the current depth
+     */
+    int depth() {
+        return depth;
+    }
+
+    /**
+     * Returns the length beyond which no path can match.
+     *
+     * @return the greatest depth at which the automaton can be alive
+     */
+    int maxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Reads one more character.
+     *
+     * @param c the character
+     * @return {@code true} if some continuation of the characters read so far can still match
+     */
+    boolean push(char c) {
+        int next = depth + 1;
+        if (depth >= deadFrom || next > maxDepth) {
+            depth = next;
+            deadFrom = Math.min(deadFrom, next);
+            return false;
+        }
+        path[depth] = c;
+        boolean alive = false;
+        for (int r = 0; r < ruleCount; r++) {
+            int[] row = rows[r];
+            int cap = maxDistances[r] + 1;
+            int previous = depth * width;
+            int current = next * width;
+            int before = (depth - 1) * width;
+            int minimum = row[current] = insertion[r] ? Math.min(row[previous] + 1, cap) : cap;
+            for (int i = 1; i < width; i++) {
+                int cost = cap;
+                if (input[i - 1] == c) {
+                    cost = row[previous + i - 1];
+                } else if (substitution[r]) {
+                    cost = row[previous + i - 1] + 1;
+                }
+                if (insertion[r]) {
+                    cost = Math.min(cost, row[previous + i] + 1);
+                }
+                if (deletion[r]) {
+                    cost = Math.min(cost, row[current + i - 1] + 1);
+                }
+                if (transposition[r] && i > 1 && depth > 0 && input[i - 1] == path[depth - 1] && input[i - 2] == c) {
+                    cost = Math.min(cost, row[before + i - 2] + 1);
+                }
+                cost = Math.min(cost, cap);
+                row[current + i] = cost;
+                minimum = Math.min(minimum, cost);
+            }
+            rowMinimums[r][next] = minimum;
+            if (minimum <= maxDistances[r] || transposition[r] && rowMinimums[r][depth] < maxDistances[r]) {
+                alive = true;
+            }
+        }
+        depth = next;
+        if (!alive) {
+            deadFrom = next;
+        }
+        return alive;
+    }
+
+    /**
+     * Reads several more characters, stopping early once no continuation can match.
+     *
+     * @param chars the characters, or null for none
+     * @return {@code true} if some continuation of the characters read so far can still match
+     */
+    boolean push(char[] chars) {
+        if (chars != null) {
+            for (char c : chars) {
+                if (!push(c)) {
+                    return false;
+                }
+            }
+        }
+        return depth < deadFrom;
+    }
+
+    /**
+     * Steps back to an earlier depth, forgetting the characters read since.
+     *
+     * @param earlierDepth the depth to return to
+     */
+    void popTo(int earlierDepth) {
+        depth = earlierDepth;
+        if (deadFrom > earlierDepth) {
+            deadFrom = Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Checks whether the characters read so far match the input word under at least one rule.
+     *
+     * @return {@code true} if they are a fuzzy match
+     */
+    boolean matches() {
+        if (depth >= deadFrom || depth > maxDepth) {
+            return false;
+        }
+        int last = depth * width + width - 1;
+        for (int r = 0; r < ruleCount; r++) {
+            if (rows[r][last] <= maxDistances[r]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
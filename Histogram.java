@@ -0,0 +1,76 @@
+package ID1069789.ID1070730;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A distribution of non-negative values recorded from many threads at once.
+ * Values are counted in power-of-two buckets: bucket 0 holds the value 0 and bucket i holds the values from 2^(i-1)
+ * up to 2^i - 1. Every bucket, the count and the sum are {@link LongAdder}s, so concurrent recording spreads over
+ * striped cells instead of contending on one counter.
+ */
+final class Histogram {
+    static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates an empty histogram.
+     */
+    Histogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns the bucket a value is counted in.
+     *
+     * @param value the value, not negative
+     * @return the bucket index
+     */
+    static int bucketOf(long value) {
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value the value, not negative
+     */
+    void record(long value) {
+        buckets[bucketOf(value)].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Forgets every recorded value. Values recorded at the same time may be kept or lost.
+     */
+    void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * Takes a copy of the distribution recorded so far. Values recorded at the same time may be missing from some of
+     * the parts.
+     *
+     * @return the copy
+     */
+    MetricsSnapshot.Distribution snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return new MetricsSnapshot.Distribution(counts, count.sum(), sum.sum(), max.get());
+    }
+}
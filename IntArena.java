@@ -0,0 +1,105 @@
+package ID1069789.ID1070730;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * A growable array of ints kept outside the Java heap, addressed by int offsets.
+ * Memory is taken from direct buffers of {@value #CHUNK_INTS} ints each, allocated as the arena fills, so growing
+ * never copies what is already there and the garbage collector sees a handful of buffer objects instead of one
+ * object per record. Records are allocated by bumping an offset and never span two chunks; offset 0 is reserved so
+ * that it can stand for "none". Up to 2^31 ints (8 GiB) can be addressed.
+ * New memory reads as zero.
+ */
+final class IntArena {
+    private static final int CHUNK_SHIFT = 20;
+    static final int CHUNK_INTS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_INTS - 1;
+
+    private IntBuffer[] chunks = new IntBuffer[0];
+    private long top = 1;
+
+    /**
+     * Reserves a record of consecutive ints, all zero.
+     *
+     * @param ints the size of the record, at most {@value #CHUNK_INTS}
+     * @return the offset of the record
+     * @throws IllegalStateException if the arena cannot address any more ints
+     */
+    int allocate(int ints) {
+        int room = CHUNK_INTS - (int) (top & CHUNK_MASK);
+        if (ints > room) {
+            top += room;
+        }
+        long end = top + ints;
+        if (end > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Arena is full");
+        }
+        int needed = (int) ((end + CHUNK_MASK) >>> CHUNK_SHIFT);
+        if (needed > chunks.length) {
+            int length = chunks.length;
+            chunks = Arrays.copyOf(chunks, needed);
+            for (int c = length; c < needed; c++) {
+                chunks[c] = ByteBuffer.allocateDirect(CHUNK_INTS * Integer.BYTES)
+                        .order(ByteOrder.nativeOrder()).asIntBuffer();
+            }
+        }
+        int offset = (int) top;
+        top = end;
+        return offset;
+    }
+
+    /**
+     * Reads an int.
+     *
+     * @param offset the offset of the int
+     * @return the value
+     */
+    int get(int offset) {
+        return chunks[offset >>> CHUNK_SHIFT].get(offset & CHUNK_MASK);
+    }
+
+    /**
+     * Writes an int.
+     *
+     * @param offset the offset of the int
+     * @param value  the value
+     */
+    void set(int offset, int value) {
+        chunks[offset >>> CHUNK_SHIFT].put(offset & CHUNK_MASK, value);
+    }
+
+    /**
+     * Sets consecutive ints back to zero.
+     *
+     * @param offset the offset of the first int
+     * @param ints   the number of ints, all in one record
+     */
+    void clear(int offset, int ints) {
+        IntBuffer chunk = chunks[offset >>> CHUNK_SHIFT];
+        int start = offset & CHUNK_MASK;
+        for (int i = start; i < start + ints; i++) {
+            chunk.put(i, 0);
+        }
+    }
+
+    /**
+     * Returns the memory reserved outside the heap.
+     *
+     * @return the size of all chunks in bytes
+     */
+    long reservedBytes() {
+        return (long) chunks.length * CHUNK_INTS * Integer.BYTES;
+    }
+
+    /**
+     * Returns the memory taken by records, including the space skipped at the ends of chunks.
+     *
+     * @return the size in bytes
+     */
+    long usedBytes() {
+        return top * Integer.BYTES;
+    }
+}
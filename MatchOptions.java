@@ -0,0 +1,183 @@
+package ID1069789.ID1070730;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+
+/**
+ * Describes which dictionary words count as fuzzy matches of an input word when suggesting words.
+ * A word matches if it is within the distance of at least one rule, where each rule allows its own set of edit
+ * operations and its own maximum number of them. Words that merely start with the input word are suggested
+ * in any case and are not described here.
+ * Options are immutable and compare equal when they contain the same rules, so they can be used as keys.
+ * {@link #DEFAULT} reproduces the original suggestion criteria: at most two substituted characters,
+ * at most two inserted characters, or exactly one removed character.
+ */
+public final class MatchOptions {
+
+    /**
+     * The edit operations a rule may allow.
+     */
+    public enum Operation {
+        /** Replacing one character of the input word with another. */
+        SUBSTITUTION,
+        /** Adding a character to the input word. */
+        INSERTION,
+        /** Removing a character from the input word. */
+        DELETION,
+        /** Swapping two adjacent characters of the input word. */
+        TRANSPOSITION
+    }
+
+    /**
+     * The original suggestion criteria: up to two substitutions, up to two insertions, or one deletion,
+     * each on its own.
+     */
+    public static final MatchOptions DEFAULT = of(2, Operation.SUBSTITUTION)
+            .or(of(2, Operation.INSERTION))
+            .or(of(1, Operation.DELETION));
+
+    private final int[] operations;
+    private final int[] maxDistances;
+
+    /**
+     * Creates options from parallel rule arrays, sorting them and dropping duplicates.
+     *
+     * @param operations   the operations allowed by each rule, as bit sets over {@link Operation#ordinal()}
+     * @param maxDistances the maximum distance of each rule
+     */
+    private MatchOptions(int[] operations, int[] maxDistances) {
+        long[] rules = new long[operations.length];
+        for (int r = 0; r < rules.length; r++) {
+            rules[r] = (long) operations[r] << 32 | maxDistances[r];
+        }
+        rules = Arrays.stream(rules).sorted().distinct().toArray();
+        this.operations = new int[rules.length];
+        this.maxDistances = new int[rules.length];
+        for (int r = 0; r < rules.length; r++) {
+            this.operations[r] = (int) (rules[r] >>> 32);
+            this.maxDistances[r] = (int) rules[r];
+        }
+    }
+
+    /**
+     * Creates options with a single rule.
+     *
+     * @param maxDistance the maximum number of operations
+     * @param operations  the operations the rule allows; none means only the input word itself matches
+     * @return the options
+     * @throws IllegalArgumentException if the maximum distance is negative
+     */
+    public static MatchOptions of(int maxDistance, Operation... operations) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Maximum distance must not be negative: " + maxDistance);
+        }
+        int mask = 0;
+        for (Operation operation : operations) {
+            mask |= 1 << operation.ordinal();
+        }
+        return new MatchOptions(new int[] {mask}, new int[] {maxDistance});
+    }
+
+    /**
+     * Creates options that match words within a Levenshtein distance of the input word,
+     * counting substitutions, insertions and deletions.
+     *
+     * @param maxDistance the maximum distance
+     * @return the options
+     * @throws IllegalArgumentException if the maximum distance is negative
+     */
+    public static MatchOptions levenshtein(int maxDistance) {
+        return of(maxDistance, Operation.SUBSTITUTION, Operation.INSERTION, Operation.DELETION);
+    }
+
+    /**
+     * Creates options that match words within an edit distance of the input word that also counts swapping two
+     * adjacent characters as a single operation (the optimal string alignment distance).
+     *
+     * @param maxDistance the maximum distance
+     * @return the options
+     * @throws IllegalArgumentException if the maximum distance is negative
+     */
+    public static MatchOptions damerauLevenshtein(int maxDistance) {
+        return of(maxDistance, Operation.values());
+    }
+
+    /**
+     * Combines these options with others, matching words that match either.
+     *
+     * @param other the other options
+     * @return the combined options
+     */
+    public MatchOptions or(MatchOptions other) {
+        int[] combinedOperations = Arrays.copyOf(operations, operations.length + other.operations.length);
+        int[] combinedDistances = Arrays.copyOf(maxDistances, maxDistances.length + other.maxDistances.length);
+        System.arraycopy(other.operations, 0, combinedOperations, operations.length, other.operations.length);
+        System.arraycopy(other.maxDistances, 0, combinedDistances, maxDistances.length, other.maxDistances.length);
+        return new MatchOptions(combinedOperations, combinedDistances);
+    }
+
+    /**
+     * Returns the number of rules.
+     *
+     * @return the number of rules
+     */
+    int ruleCount() {
+        return operations.length;
+    }
+
+    /**
+     * Checks whether a rule allows an operation.
+     *
+     * @param rule      the rule index
+     * @param operation the operation
+     * @return {@code true} if the rule allows the operation
+     */
+    boolean allows(int rule, Operation operation) {
+        return (operations[rule] & 1 << operation.ordinal()) != 0;
+    }
+
+    /**
+     * Returns the maximum distance of a rule.
+     *
+     * @param rule the rule index
+     * @return the maximum number of operations
+     */
+    int maxDistance(int rule) {
+        return maxDistances[rule];
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof MatchOptions)) {
+            return false;
+        }
+        MatchOptions options = (MatchOptions) other;
+        return Arrays.equals(operations, options.operations) && Arrays.equals(maxDistances, options.maxDistances);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(operations) + Arrays.hashCode(maxDistances);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("MatchOptions[");
+        for (int r = 0; r < operations.length; r++) {
+            if (r > 0) {
+                text.append(" or ");
+            }
+            EnumSet<Operation> allowed = EnumSet.noneOf(Operation.class);
+            for (Operation operation : Operation.values()) {
+                if (allows(r, operation)) {
+                    allowed.add(operation);
+                }
+            }
+            text.append(allowed).append(" <= ").append(maxDistances[r]);
+        }
+        return text.append(']').toString();
+    }
+}
@@ -0,0 +1,346 @@
+package ID1069789.ID1070730;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counts what the hot paths of {@link Trie} and {@link RobinHoodHashing} do in a running process: probe lengths of
+ * hash table lookups, rehashes and their cost, nodes visited and candidates found in each phase of a suggestion
+ * search, heap offers and evictions, and the throughput of loading dictionaries and importance files.
+ * Recording is off by default and switched on with {@link #setEnabled(boolean)} or the system property
+ * {@value #PROPERTY}. While it is off every recording site costs one read of a flag. While it is on, searches count
+ * nodes and candidates into local variables and hand them over once per query, but every hash table lookup still
+ * records its probe length in a shared histogram, so each lookup pays for updating three striped counters (its
+ * bucket, the count and the sum) and one striped maximum.
+ * Counters are {@link LongAdder}s and distributions are {@link Histogram}s, so threads recording at the same time
+ * do not contend. The counters are global to the process, covering every Trie in it. They can be read with
+ * {@link #snapshot()} or over JMX after {@link #registerMBean()}.
+ */
+public final class Metrics {
+
+    /**
+     * The system property that switches recording on at startup when set to {@code true}.
+     */
+    public static final String PROPERTY = "ID1069789.ID1070730.metrics";
+
+    /**
+     * The name the MBean is registered under.
+     */
+    public static final String OBJECT_NAME = "ID1069789.ID1070730:type=Metrics";
+
+    /**
+     * The phases of a suggestion search.
+     */
+    public enum Phase {
+        /** Following the input word down from the root to the node where its completions start. */
+        LOCATE,
+        /** The best-first search for the most important words starting with the input word. */
+        PREFIX,
+        /** The traversal that finds words within the allowed edit distance of the input word. */
+        FUZZY
+    }
+
+    static volatile boolean enabled = Boolean.getBoolean(PROPERTY);
+
+    private static final Histogram probeLengths = new Histogram();
+    private static final LongAdder rehashes = new LongAdder();
+    private static final LongAdder rehashedEntries = new LongAdder();
+    private static final LongAdder rehashNanos = new LongAdder();
+
+    private static final LongAdder queries = new LongAdder();
+    private static final Map<Phase, Histogram> nodesVisited = new EnumMap<>(Phase.class);
+    private static final Map<Phase, LongAdder> candidates = new EnumMap<>(Phase.class);
+    private static final Map<Phase, LongAdder> phaseNanos = new EnumMap<>(Phase.class);
+    private static final LongAdder heapOffers = new LongAdder();
+    private static final LongAdder heapEvictions = new LongAdder();
+
+    private static final LongAdder dictionaryWords = new LongAdder();
+    private static final LongAdder dictionaryBytes = new LongAdder();
+    private static final LongAdder dictionaryNanos = new LongAdder();
+    private static final LongAdder importanceTokens = new LongAdder();
+    private static final LongAdder importanceBytes = new LongAdder();
+    private static final LongAdder importanceNanos = new LongAdder();
+
+    static {
+        for (Phase phase : Phase.values()) {
+            nodesVisited.put(phase, new Histogram());
+            candidates.put(phase, new LongAdder());
+            phaseNanos.put(phase, new LongAdder());
+        }
+    }
+
+    /**
+     * Not instantiable.
+     */
+    private Metrics() {
+    }
+
+    /**
+     * Checks whether recording is on.
+     *
+     * @return {@code true} if recording is on
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Switches recording on or off. Counts recorded so far are kept.
+     *
+     * @param enabled whether to record
+     */
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * Sets every counter back to zero. Events recorded at the same time may be kept or lost.
+     */
+    public static void reset() {
+        probeLengths.reset();
+        rehashes.reset();
+        rehashedEntries.reset();
+        rehashNanos.reset();
+        queries.reset();
+        for (Phase phase : Phase.values()) {
+            nodesVisited.get(phase).reset();
+            candidates.get(phase).reset();
+            phaseNanos.get(phase).reset();
+        }
+        heapOffers.reset();
+        heapEvictions.reset();
+        dictionaryWords.reset();
+        dictionaryBytes.reset();
+        dictionaryNanos.reset();
+        importanceTokens.reset();
+        importanceBytes.reset();
+        importanceNanos.reset();
+    }
+
+    /**
+     * Takes a copy of the counters.
+     *
+     * @return the copy
+     */
+    public static MetricsSnapshot snapshot() {
+        Map<Phase, MetricsSnapshot.Distribution> nodes = new EnumMap<>(Phase.class);
+        Map<Phase, Long> found = new EnumMap<>(Phase.class);
+        Map<Phase, Long> nanos = new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values()) {
+            nodes.put(phase, nodesVisited.get(phase).snapshot());
+            found.put(phase, candidates.get(phase).sum());
+            nanos.put(phase, phaseNanos.get(phase).sum());
+        }
+        return new MetricsSnapshot(probeLengths.snapshot(), rehashes.sum(), rehashedEntries.sum(), rehashNanos.sum(),
+                queries.sum(), nodes, found, nanos, heapOffers.sum(), heapEvictions.sum(),
+                dictionaryWords.sum(), dictionaryBytes.sum(), dictionaryNanos.sum(),
+                importanceTokens.sum(), importanceBytes.sum(), importanceNanos.sum());
+    }
+
+    /**
+     * Registers a {@link MetricsMXBean} with the platform MBean server under {@value #OBJECT_NAME}, unless one is
+     * registered already.
+     *
+     * @throws IllegalStateException if the MBean cannot be registered
+     */
+    public static void registerMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(new MBean(), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Registered by an earlier call.
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Records the number of slots a hash table lookup examined beyond the key's home slot.
+     *
+     * @param probeLength the probe length
+     */
+    static void recordLookup(int probeLength) {
+        probeLengths.record(probeLength);
+    }
+
+    /**
+     * Records that a hash table was rebuilt at a larger capacity.
+     *
+     * @param entries the number of entries moved
+     * @param nanos   the time the rebuild took
+     */
+    static void recordRehash(int entries, long nanos) {
+        rehashes.increment();
+        rehashedEntries.add(entries);
+        rehashNanos.add(nanos);
+    }
+
+    /**
+     * Records one phase of a suggestion search.
+     *
+     * @param phase the phase
+     * @param nodes the number of nodes the phase visited
+     * @param found the number of candidates the phase offered to the heap of suggestions
+     * @param nanos the time the phase took
+     */
+    static void recordPhase(Phase phase, int nodes, int found, long nanos) {
+        nodesVisited.get(phase).record(nodes);
+        candidates.get(phase).add(found);
+        phaseNanos.get(phase).add(nanos);
+    }
+
+    /**
+     * Records the end of a suggestion search.
+     *
+     * @param offers    the number of words offered to the heap of suggestions
+     * @param evictions the number of words the heap dropped to stay within k
+     */
+    static void recordQuery(int offers, int evictions) {
+        queries.increment();
+        heapOffers.add(offers);
+        heapEvictions.add(evictions);
+    }
+
+    /**
+     * Records that a dictionary file was loaded.
+     *
+     * @param words the number of words read
+     * @param bytes the size of the file
+     * @param nanos the time loading took
+     */
+    static void recordDictionary(long words, long bytes, long nanos) {
+        dictionaryWords.add(words);
+        dictionaryBytes.add(bytes);
+        dictionaryNanos.add(nanos);
+    }
+
+    /**
+     * Records that an importance file was processed.
+     *
+     * @param tokens the number of tokens read
+     * @param bytes  the size of the file
+     * @param nanos  the time processing took
+     */
+    static void recordImportanceFile(long tokens, long bytes, long nanos) {
+        importanceTokens.add(tokens);
+        importanceBytes.add(bytes);
+        importanceNanos.add(nanos);
+    }
+
+    /**
+     * The MBean that serves the counters over JMX, reading a fresh snapshot for every attribute.
+     */
+    private static final class MBean implements MetricsMXBean {
+
+        @Override
+        public boolean isEnabled() {
+            return Metrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            Metrics.setEnabled(enabled);
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+
+        @Override
+        public long getLookups() {
+            return probeLengths.snapshot().count();
+        }
+
+        @Override
+        public double getMeanProbeLength() {
+            return probeLengths.snapshot().mean();
+        }
+
+        @Override
+        public long getMaxProbeLength() {
+            return probeLengths.snapshot().max();
+        }
+
+        @Override
+        public long[] getProbeLengthBuckets() {
+            return probeLengths.snapshot().buckets();
+        }
+
+        @Override
+        public long getRehashes() {
+            return rehashes.sum();
+        }
+
+        @Override
+        public long getRehashedEntries() {
+            return rehashedEntries.sum();
+        }
+
+        @Override
+        public long getRehashNanos() {
+            return rehashNanos.sum();
+        }
+
+        @Override
+        public long getQueries() {
+            return queries.sum();
+        }
+
+        @Override
+        public Map<String, Double> getMeanNodesVisited() {
+            Map<String, Double> means = new LinkedHashMap<>();
+            snapshot().nodesVisited().forEach((phase, nodes) -> means.put(phase.name(), nodes.mean()));
+            return means;
+        }
+
+        @Override
+        public Map<String, Long> getCandidates() {
+            return byName(snapshot().candidates());
+        }
+
+        @Override
+        public Map<String, Long> getPhaseNanos() {
+            return byName(snapshot().phaseNanos());
+        }
+
+        @Override
+        public long getHeapOffers() {
+            return heapOffers.sum();
+        }
+
+        @Override
+        public long getHeapEvictions() {
+            return heapEvictions.sum();
+        }
+
+        @Override
+        public double getDictionaryWordsPerSecond() {
+            return snapshot().dictionaryWordsPerSecond();
+        }
+
+        @Override
+        public double getImportanceTokensPerSecond() {
+            return snapshot().importanceTokensPerSecond();
+        }
+
+        /**
+         * Keys per-phase counts by the names of the phases, as JMX clients cannot show enum keys.
+         *
+         * @param counts the counts per phase
+         * @return the counts per phase name
+         */
+        private static Map<String, Long> byName(Map<Phase, Long> counts) {
+            Map<String, Long> named = new LinkedHashMap<>();
+            counts.forEach((phase, count) -> named.put(phase.name(), count));
+            return named;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package ID1069789.ID1070730;
+
+import java.util.Map;
+
+/**
+ * The JMX view of {@link Metrics}, registered with {@link Metrics#registerMBean()}.
+ * Per-phase attributes are keyed by the names of {@link Metrics.Phase}.
+ */
+public interface MetricsMXBean {
+
+    /**
+     * Checks whether recording is on.
+     *
+     * @return {@code true} if recording is on
+     */
+    boolean isEnabled();
+
+    /**
+     * Switches recording on or off.
+     *
+     * @param enabled whether to record
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Sets every counter back to zero.
+     */
+    void reset();
+
+    /**
+     * Returns the number of hash table lookups.
+     *
+     * @return the number of lookups
+     */
+    long getLookups();
+
+    /**
+     * Returns the mean number of slots a lookup examined beyond its key's home slot.
+     *
+     * @return the mean probe length
+     */
+    double getMeanProbeLength();
+
+    /**
+     * Returns the longest probe of any lookup.
+     *
+     * @return the maximum probe length
+     */
+    long getMaxProbeLength();
+
+    /**
+     * Returns the number of lookups per power-of-two bucket of probe length.
+     *
+     * @return the bucket counts, as in {@link MetricsSnapshot.Distribution#buckets()}
+     */
+    long[] getProbeLengthBuckets();
+
+    /**
+     * Returns the number of hash table rebuilds.
+     *
+     * @return the number of rehashes
+     */
+    long getRehashes();
+
+    /**
+     * Returns the number of entries moved by rehashes.
+     *
+     * @return the number of entries
+     */
+    long getRehashedEntries();
+
+    /**
+     * Returns the time spent rehashing.
+     *
+     * @return the time in nanoseconds
+     */
+    long getRehashNanos();
+
+    /**
+     * Returns the number of suggestion searches.
+     *
+     * @return the number of searches
+     */
+    long getQueries();
+
+    /**
+     * Returns the mean number of nodes a search visited in each phase.
+     *
+     * @return the means, by phase name
+     */
+    Map<String, Double> getMeanNodesVisited();
+
+    /**
+     * Returns the number of candidate words each phase offered to the heaps of suggestions.
+     *
+     * @return the counts, by phase name
+     */
+    Map<String, Long> getCandidates();
+
+    /**
+     * Returns the time spent in each phase.
+     *
+     * @return the times in nanoseconds, by phase name
+     */
+    Map<String, Long> getPhaseNanos();
+
+    /**
+     * Returns the number of words offered to heaps of suggestions.
+     *
+     * @return the number of offers
+     */
+    long getHeapOffers();
+
+    /**
+     * Returns the number of words heaps of suggestions dropped to stay within k.
+     *
+     * @return the number of evictions
+     */
+    long getHeapEvictions();
+
+    /**
+     * Returns the rate at which dictionary files were loaded.
+     *
+     * @return the words per second
+     */
+    double getDictionaryWordsPerSecond();
+
+    /**
+     * Returns the rate at which importance files were processed.
+     *
+     * @return the tokens per second
+     */
+    double getImportanceTokensPerSecond();
+}
@@ -0,0 +1,366 @@
+package ID1069789.ID1070730;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A copy of the counters of {@link Metrics} taken at one moment. Times are in nanoseconds and sizes in bytes.
+ * Counters keep running while a snapshot is taken, so its parts may be a few events apart; two snapshots can be
+ * compared to see what happened in between.
+ */
+public final class MetricsSnapshot {
+    private final Distribution probeLengths;
+    private final long rehashes;
+    private final long rehashedEntries;
+    private final long rehashNanos;
+    private final long queries;
+    private final Map<Metrics.Phase, Distribution> nodesVisited;
+    private final Map<Metrics.Phase, Long> candidates;
+    private final Map<Metrics.Phase, Long> phaseNanos;
+    private final long heapOffers;
+    private final long heapEvictions;
+    private final long dictionaryWords;
+    private final long dictionaryBytes;
+    private final long dictionaryNanos;
+    private final long importanceTokens;
+    private final long importanceBytes;
+    private final long importanceNanos;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param probeLengths     the probe lengths of hash table lookups
+     * @param rehashes         the number of hash table rebuilds
+     * @param rehashedEntries  the number of entries moved by rebuilds
+     * @param rehashNanos      the time spent rebuilding
+     * @param queries          the number of suggestion searches
+     * @param nodesVisited     the nodes visited per search, by phase
+     * @param candidates       the candidates offered to the heap, by phase
+     * @param phaseNanos       the time spent, by phase
+     * @param heapOffers       the words offered to heaps of suggestions
+     * @param heapEvictions    the words heaps dropped to stay within k
+     * @param dictionaryWords  the words read from dictionary files
+     * @param dictionaryBytes  the size of the dictionary files
+     * @param dictionaryNanos  the time spent loading dictionary files
+     * @param importanceTokens the tokens read from importance files
+     * @param importanceBytes  the size of the importance files
+     * @param importanceNanos  the time spent processing importance files
+     */
+    MetricsSnapshot(Distribution probeLengths, long rehashes, long rehashedEntries, long rehashNanos, long queries,
+            Map<Metrics.Phase, Distribution> nodesVisited, Map<Metrics.Phase, Long> candidates,
+            Map<Metrics.Phase, Long> phaseNanos, long heapOffers, long heapEvictions,
+            long dictionaryWords, long dictionaryBytes, long dictionaryNanos,
+            long importanceTokens, long importanceBytes, long importanceNanos) {
+        this.probeLengths = probeLengths;
+        this.rehashes = rehashes;
+        this.rehashedEntries = rehashedEntries;
+        this.rehashNanos = rehashNanos;
+        this.queries = queries;
+        this.nodesVisited = Collections.unmodifiableMap(new EnumMap<>(nodesVisited));
+        this.candidates = Collections.unmodifiableMap(new EnumMap<>(candidates));
+        this.phaseNanos = Collections.unmodifiableMap(new EnumMap<>(phaseNanos));
+        this.heapOffers = heapOffers;
+        this.heapEvictions = heapEvictions;
+        this.dictionaryWords = dictionaryWords;
+        this.dictionaryBytes = dictionaryBytes;
+        this.dictionaryNanos = dictionaryNanos;
+        this.importanceTokens = importanceTokens;
+        this.importanceBytes = importanceBytes;
+        this.importanceNanos = importanceNanos;
+    }
+
+    /**
+     * Returns the number of slots hash table lookups examined beyond the home slot of their key.
+     * The count of the distribution is the number of lookups.
+     *
+     * @return the distribution of probe lengths
+     */
+    public Distribution probeLengths() {
+        return probeLengths;
+    }
+
+    /**
+     * Returns the number of times a hash table was rebuilt at a larger capacity.
+     *
+     * @return the number of rehashes
+     */
+    public long rehashes() {
+        return rehashes;
+    }
+
+    /**
+     * Returns the number of entries moved by rehashes.
+     *
+     * @return the number of entries
+     */
+    public long rehashedEntries() {
+        return rehashedEntries;
+    }
+
+    /**
+     * Returns the time spent rehashing.
+     *
+     * @return the time in nanoseconds
+     */
+    public long rehashNanos() {
+        return rehashNanos;
+    }
+
+    /**
+     * Returns the number of suggestion searches.
+     *
+     * @return the number of searches
+     */
+    public long queries() {
+        return queries;
+    }
+
+    /**
+     * Returns how many nodes each search visited in each phase. The locate phase does not count nodes.
+     *
+     * @return the distribution of nodes visited per search, by phase
+     */
+    public Map<Metrics.Phase, Distribution> nodesVisited() {
+        return nodesVisited;
+    }
+
+    /**
+     * Returns how many candidate words each phase offered to the heaps of suggestions.
+     *
+     * @return the number of candidates, by phase
+     */
+    public Map<Metrics.Phase, Long> candidates() {
+        return candidates;
+    }
+
+    /**
+     * Returns the time spent in each phase.
+     *
+     * @return the time in nanoseconds, by phase
+     */
+    public Map<Metrics.Phase, Long> phaseNanos() {
+        return phaseNanos;
+    }
+
+    /**
+     * Returns the number of words offered to heaps of suggestions.
+     *
+     * @return the number of offers
+     */
+    public long heapOffers() {
+        return heapOffers;
+    }
+
+    /**
+     * Returns the number of words heaps of suggestions dropped to stay within k.
+     *
+     * @return the number of evictions
+     */
+    public long heapEvictions() {
+        return heapEvictions;
+    }
+
+    /**
+     * Returns the number of words read from dictionary files.
+     *
+     * @return the number of words
+     */
+    public long dictionaryWords() {
+        return dictionaryWords;
+    }
+
+    /**
+     * Returns the size of the dictionary files loaded.
+     *
+     * @return the size in bytes
+     */
+    public long dictionaryBytes() {
+        return dictionaryBytes;
+    }
+
+    /**
+     * Returns the time spent loading dictionary files.
+     *
+     * @return the time in nanoseconds
+     */
+    public long dictionaryNanos() {
+        return dictionaryNanos;
+    }
+
+    /**
+     * Returns the rate at which dictionary files were loaded.
+     *
+     * @return the words per second, or 0 if none were loaded
+     */
+    public double dictionaryWordsPerSecond() {
+        return perSecond(dictionaryWords, dictionaryNanos);
+    }
+
+    /**
+     * Returns the number of tokens read from importance files.
+     *
+     * @return the number of tokens
+     */
+    public long importanceTokens() {
+        return importanceTokens;
+    }
+
+    /**
+     * Returns the size of the importance files processed.
+     *
+     * @return the size in bytes
+     */
+    public long importanceBytes() {
+        return importanceBytes;
+    }
+
+    /**
+     * Returns the time spent processing importance files.
+     *
+     * @return the time in nanoseconds
+     */
+    public long importanceNanos() {
+        return importanceNanos;
+    }
+
+    /**
+     * Returns the rate at which importance files were processed.
+     *
+     * @return the tokens per second, or 0 if none were processed
+     */
+    public double importanceTokensPerSecond() {
+        return perSecond(importanceTokens, importanceNanos);
+    }
+
+    /**
+     * Divides a count by a time.
+     *
+     * @param count the count
+     * @param nanos the time in nanoseconds
+     * @return the count per second, or 0 if no time passed
+     */
+    private static double perSecond(long count, long nanos) {
+        return nanos == 0 ? 0 : count * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append("lookups: ").append(probeLengths).append('\n');
+        text.append("rehashes: ").append(rehashes).append(", entries moved: ").append(rehashedEntries)
+                .append(", ms: ").append(rehashNanos / 1_000_000).append('\n');
+        text.append("queries: ").append(queries).append(", heap offers: ").append(heapOffers)
+                .append(", evictions: ").append(heapEvictions).append('\n');
+        for (Metrics.Phase phase : Metrics.Phase.values()) {
+            text.append(phase).append(": nodes ").append(nodesVisited.get(phase))
+                    .append(", candidates: ").append(candidates.get(phase))
+                    .append(", ms: ").append(phaseNanos.get(phase) / 1_000_000).append('\n');
+        }
+        text.append(String.format("dictionary: %d words, %d bytes, %.0f words/s%n",
+                dictionaryWords, dictionaryBytes, dictionaryWordsPerSecond()));
+        text.append(String.format("importance: %d tokens, %d bytes, %.0f tokens/s",
+                importanceTokens, importanceBytes, importanceTokensPerSecond()));
+        return text.toString();
+    }
+
+    /**
+     * A copy of a distribution of non-negative values, counted in power-of-two buckets: bucket 0 holds the value 0
+     * and bucket i holds the values from 2^(i-1) up to 2^i - 1.
+     */
+    public static final class Distribution {
+        private final long[] buckets;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        /**
+         * Creates a distribution.
+         *
+         * @param buckets the number of values in each bucket
+         * @param count   the number of values
+         * @param sum     the sum of the values
+         * @param max     the largest value, or 0 if there are none
+         */
+        Distribution(long[] buckets, long count, long sum, long max) {
+            this.buckets = buckets;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * Returns the number of values in each bucket.
+         *
+         * @return a copy of the bucket counts
+         */
+        public long[] buckets() {
+            return buckets.clone();
+        }
+
+        /**
+         * Returns the number of values.
+         *
+         * @return the count
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * Returns the sum of the values.
+         *
+         * @return the sum
+         */
+        public long sum() {
+            return sum;
+        }
+
+        /**
+         * Returns the largest value.
+         *
+         * @return the maximum, or 0 if there are no values
+         */
+        public long max() {
+            return max;
+        }
+
+        /**
+         * Returns the mean of the values.
+         *
+         * @return the mean, or 0 if there are no values
+         */
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Returns an upper bound on a quantile: the largest value of the bucket in which the quantile falls, but no
+         * more than the largest value recorded.
+         *
+         * @param quantile the quantile, between 0 and 1
+         * @return the bound, or 0 if there are no values
+         */
+        public long quantile(double quantile) {
+            long total = 0;
+            for (long bucket : buckets) {
+                total += bucket;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank && seen > 0) {
+                    return Math.min(max, i == 0 ? 0 : (1L << i) - 1);
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count %d, mean %.2f, p50 <= %d, p99 <= %d, max %d",
+                    count, mean(), quantile(0.5), quantile(0.99), max);
+        }
+    }
+}
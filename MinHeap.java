@@ -3,11 +3,17 @@ package ID1069789.ID1070730;
  * A custom implementation of a MinHeap (priority queue) for managing words based on their importance.
  * The heap stores words and ensures that the word with the smallest importance is at the top.
  * It supports standard heap operations such as adding elements, removing the top element, checking if an element is in the heap, and more.
+ * Each word is stored together with its importance in parallel arrays, so ordering the heap only compares ints,
+ * and the words in the heap are also kept in a small open-addressing hash set, so membership checks take constant time.
  */
 public class MinHeap {
-    private String[] heap; 
-    private int size; 
-    private int capacity; 
+    private String[] heap;
+    private int[] importances;
+    private String[] members;
+    private int mask;
+    private int size;
+    private int capacity;
+    private int offers;
 
     /**
      * Constructs a MinHeap with a specified capacity.
@@ -17,6 +23,9 @@ public class MinHeap {
     public MinHeap(int capacity) {
         this.capacity = capacity;
         this.heap = new String[capacity];
+        this.importances = new int[capacity];
+        this.members = new String[Integer.highestOneBit(Math.max(2 * capacity - 1, 1)) << 1];
+        this.mask = members.length - 1;
         this.size = 0;
     }
 
@@ -24,36 +33,40 @@ public class MinHeap {
      * Adds a word to the heap and ensures the heap property is maintained.
      * If the heap is full, it prints a message and does not add the word.
      *
-     * @param word the word to be added to the heap
-     * @param trie the Trie object used to retrieve the importance of words
+     * @param word       the word to be added to the heap
+     * @param importance the importance of the word
      */
-    public void offer(String word,Trie trie) {
+    public void offer(String word, int importance) {
         if (size == capacity) {
             System.out.println("Heap is full, cannot insert more elements.");
-            return; 
+            return;
         }
-     ;
         heap[size] = word;
+        importances[size] = importance;
+        addMember(word);
         size++;
-        heapifyUp(size - 1,trie);
+        offers++;
+        heapifyUp(size - 1);
     }
 
     /**
      * Removes and returns the word with the smallest importance (top of the heap).
      * If the heap is empty, it returns null.
      *
-     * @param trie the Trie object used to retrieve the importance of words
      * @return the word with the smallest importance, or null if the heap is empty
      */
-    public String poll(Trie trie) {
+    public String poll() {
         if (size == 0) {
-            return null; 
+            return null;
         }
 
-        String min = heap[0]; 
-        heap[0] = heap[size - 1];
+        String min = heap[0];
+        removeMember(min);
         size--;
-        heapifyDown(0,trie); 
+        heap[0] = heap[size];
+        importances[0] = importances[size];
+        heap[size] = null;
+        heapifyDown(0);
         return min;
     }
 
@@ -64,12 +77,21 @@ public class MinHeap {
      * @return {@code true} if the word is in the heap, {@code false} otherwise
      */
     public boolean contains(String word) {
-        for (int i = 0; i < size; i++) {
-            if (heap[i].equals(word)) {
+        for (int slot = slotOf(word); members[slot] != null; slot = (slot + 1) & mask) {
+            if (members[slot].equals(word)) {
                 return true;
             }
         }
-        return false; 
+        return false;
+    }
+
+    /**
+     * Returns the importance of the word at the top of the heap, that is the smallest importance it holds.
+     *
+     * @return the smallest importance in the heap, or {@link Integer#MIN_VALUE} if the heap is empty
+     */
+    public int minImportance() {
+        return size == 0 ? Integer.MIN_VALUE : importances[0];
     }
 
     /**
@@ -81,22 +103,30 @@ public class MinHeap {
         return size;
     }
 
+    /**
+     * Returns the number of words added to the heap since it was created.
+     *
+     * @return the number of words offered and accepted
+     */
+    public int offers() {
+        return offers;
+    }
+
     /**
      * Ensures the heap property is maintained by moving the element at the given index up the heap.
      *
      * @param index the index of the element to move up
-     * @param trie  the Trie object used to retrieve the importance of words
      */
 
-    private void heapifyUp(int index,Trie trie) {
+    private void heapifyUp(int index) {
         while (index > 0) {
             int parentIndex = (index - 1) / 2;
 
-            if (compare(heap[index], heap[parentIndex],trie) >= 0) {
-                break; 
+            if (importances[index] >= importances[parentIndex]) {
+                break;
             }
 
-        
+
             swap(index, parentIndex);
             index = parentIndex;
         }
@@ -106,52 +136,32 @@ public class MinHeap {
      * Ensures the heap property is maintained by moving the element at the given index down the heap.
      *
      * @param index the index of the element to move down
-     * @param trie  the Trie object used to retrieve the importance of words
      */
-    private void heapifyDown(int index,Trie trie) {
+    private void heapifyDown(int index) {
         int leftChild, rightChild, smallest;
         while (index < size) {
             leftChild = 2 * index + 1;
             rightChild = 2 * index + 2;
             smallest = index;
 
-            if (leftChild < size && compare(heap[leftChild], heap[smallest],trie) < 0) {
+            if (leftChild < size && importances[leftChild] < importances[smallest]) {
                 smallest = leftChild;
             }
 
-            if (rightChild < size && compare(heap[rightChild], heap[smallest],trie) < 0) {
+            if (rightChild < size && importances[rightChild] < importances[smallest]) {
                 smallest = rightChild;
             }
 
             if (smallest == index) {
-                break; 
+                break;
             }
 
-         
+
             swap(index, smallest);
-            index = smallest; 
+            index = smallest;
         }
     }
 
-    /**
-     * Compares two words based on their importance as retrieved from the Trie.
-     *
-     * @param a the first word to compare
-     * @param b the second word to compare
-     * @param trie the Trie object used to retrieve the importance of words
-     * @return a negative integer if the first word is less important, a positive integer if more important, 
-     *         or zero if they have the same importance
-     */
-    private int compare(String a, String b,Trie trie) {
-        TrieNode nodeA = trie.search(a);
-        TrieNode nodeB = trie.search(b);
-
-        int importanceA = (nodeA != null) ? nodeA.importance : 0;
-        int importanceB = (nodeB != null) ? nodeB.importance : 0;
-
-        return Integer.compare(importanceA, importanceB);
-    }
-
     /**
      * Swaps the elements at the two given indices in the heap.
      *
@@ -162,7 +172,57 @@ public class MinHeap {
         String temp = heap[index1];
         heap[index1] = heap[index2];
         heap[index2] = temp;
+        int tempImportance = importances[index1];
+        importances[index1] = importances[index2];
+        importances[index2] = tempImportance;
     }
+
+    /**
+     * Returns the home slot of a word in the membership set.
+     *
+     * @param word the word
+     * @return the slot where probing for the word starts
+     */
+    private int slotOf(String word) {
+        int hash = word.hashCode();
+        return (hash ^ hash >>> 16) & mask;
+    }
+
+    /**
+     * Adds a word to the membership set. The set has at least twice as many slots as the heap can hold words,
+     * so there is always a free slot.
+     *
+     * @param word the word to add
+     */
+    private void addMember(String word) {
+        int slot = slotOf(word);
+        while (members[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        members[slot] = word;
+    }
+
+    /**
+     * Removes a word from the membership set, shifting later words of the same probe run back into the freed slot
+     * so that no lookup stops early.
+     *
+     * @param word the word to remove
+     */
+    private void removeMember(String word) {
+        int hole = slotOf(word);
+        while (!members[hole].equals(word)) {
+            hole = (hole + 1) & mask;
+        }
+        for (int slot = (hole + 1) & mask; members[slot] != null; slot = (slot + 1) & mask) {
+            int home = slotOf(members[slot]);
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                members[hole] = members[slot];
+                hole = slot;
+            }
+        }
+        members[hole] = null;
+    }
+
     /**
      * Checks if the heap is empty.
      *
@@ -0,0 +1,311 @@
+package ID1069789.ID1070730;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves many tenants that share one dictionary but keep their own importance statistics.
+ * The words are stored once, in a read-only {@link FrozenTrie} that numbers them densely by the rank of their
+ * terminal node. Each {@link Tenant} only adds an int array indexed by those numbers, so every tenant costs four
+ * bytes per word instead of a whole Trie. The shared FrozenTrie may come straight from a memory-mapped snapshot.
+ * Suggestions for a tenant use the same criteria as {@link FrozenTrie#suggest(String, int, MatchOptions)}, ranked by
+ * that tenant's importance. There are no per-tenant subtree bounds, which would cost an int per node and tenant, so
+ * a query visits the same nodes whichever tenant it is for.
+ * Tenants can be added, removed and queried concurrently. Importance changes of a tenant are plain array writes, so
+ * a query that runs at the same time may or may not see them.
+ */
+public class MultiTenantTrie {
+    private final FrozenTrie words;
+    private final Map<String, Tenant> tenants = new ConcurrentHashMap<>();
+
+    /**
+     * The handle of one tenant, holding its importance of every word of the shared dictionary.
+     */
+    public static final class Tenant {
+        private final String name;
+        private final MultiTenantTrie owner;
+        final int[] importance;
+        final IntBuffer importanceView;
+
+        /**
+         * Creates a tenant whose words all have importance 0.
+         *
+         * @param name  the name of the tenant
+         * @param owner the MultiTenantTrie the tenant belongs to
+         */
+        Tenant(String name, MultiTenantTrie owner) {
+            this.name = name;
+            this.owner = owner;
+            this.importance = new int[owner.words.wordCount()];
+            this.importanceView = IntBuffer.wrap(importance);
+        }
+
+        /**
+         * Returns the name of the tenant.
+         *
+         * @return the name
+         */
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * Creates a MultiTenantTrie without tenants over the given words.
+     *
+     * @param words the dictionary shared by all tenants
+     */
+    public MultiTenantTrie(FrozenTrie words) {
+        this.words = words;
+    }
+
+    /**
+     * Loads a dictionary file as {@link Trie#loadDictionary(String)} does and creates a MultiTenantTrie without
+     * tenants over its words. The Trie used for loading is discarded once it has been frozen.
+     *
+     * @param dictionaryFile the file containing dictionary words
+     * @return the MultiTenantTrie
+     */
+    public static MultiTenantTrie fromDictionary(String dictionaryFile) {
+        Trie trie = new Trie(true);
+        trie.loadDictionary(dictionaryFile);
+        return new MultiTenantTrie(trie.freeze());
+    }
+
+    /**
+     * Adds a tenant whose words all have importance 0.
+     *
+     * @param name the name of the tenant
+     * @return the handle of the new tenant
+     * @throws IllegalArgumentException if a tenant with this name already exists
+     */
+    public Tenant addTenant(String name) {
+        Tenant tenant = new Tenant(name, this);
+        if (tenants.putIfAbsent(name, tenant) != null) {
+            throw new IllegalArgumentException("Tenant already exists: " + name);
+        }
+        return tenant;
+    }
+
+    /**
+     * Returns the handle of a tenant.
+     *
+     * @param name the name of the tenant
+     * @return the handle, or null if there is no tenant with this name
+     */
+    public Tenant tenant(String name) {
+        return tenants.get(name);
+    }
+
+    /**
+     * Removes a tenant, releasing its importance array once no handle to it is left.
+     *
+     * @param name the name of the tenant
+     * @return {@code true} if the tenant existed
+     */
+    public boolean removeTenant(String name) {
+        return tenants.remove(name) != null;
+    }
+
+    /**
+     * Returns the number of tenants.
+     *
+     * @return the number of tenants
+     */
+    public int tenantCount() {
+        return tenants.size();
+    }
+
+    /**
+     * Returns the number of words in the shared dictionary.
+     *
+     * @return the number of words
+     */
+    public int wordCount() {
+        return words.wordCount();
+    }
+
+    /**
+     * Returns the memory taken by the importance arrays of all tenants, not counting the shared dictionary.
+     *
+     * @return the size in bytes
+     */
+    public long tenantBytes() {
+        return (long) tenants.size() * words.wordCount() * Integer.BYTES;
+    }
+
+    /**
+     * Searches for a word in the shared dictionary.
+     *
+     * @param word the word to search
+     * @return the dense id of the word in [0, {@link #wordCount()}), or -1 if it is not in the dictionary
+     */
+    public int search(String word) {
+        return words.search(word);
+    }
+
+    /**
+     * Returns the importance of a word for a tenant.
+     *
+     * @param tenant the tenant
+     * @param word   the word to look up
+     * @return the importance of the word, or 0 if it is not in the dictionary
+     * @throws IllegalArgumentException if the tenant belongs to another MultiTenantTrie
+     */
+    public int importanceOf(Tenant tenant, String word) {
+        int[] importance = importance(tenant);
+        int id = words.search(word);
+        return id >= 0 ? importance[id] : 0;
+    }
+
+    /**
+     * Adds to the importance of a word for a tenant. Like a Trie, the importance saturates at
+     * {@link Integer#MAX_VALUE} or {@code -Integer.MAX_VALUE} instead of overflowing.
+     *
+     * @param tenant the tenant
+     * @param word   the word whose importance changes
+     * @param delta  the amount to add, which may be negative
+     * @return {@code true} if the word was found
+     * @throws IllegalArgumentException if the tenant belongs to another MultiTenantTrie
+     */
+    public boolean addImportance(Tenant tenant, String word, int delta) {
+        int[] importance = importance(tenant);
+        int id = words.search(word);
+        if (id < 0) {
+            return false;
+        }
+        importance[id] = Trie.saturate((long) importance[id] + delta);
+        return true;
+    }
+
+    /**
+     * Processes a file to count word importance for a tenant, cleaning tokens as
+     * {@link Trie#processImportanceFile(String)} does. Each occurrence of a dictionary word adds one to its
+     * importance for this tenant only, saturating at {@link Integer#MAX_VALUE}.
+     * The number of tokens, the size of the file and the time it took are recorded in {@link Metrics} while
+     * recording is on.
+     *
+     * @param tenant         the tenant
+     * @param importanceFile the file to process
+     * @throws IllegalArgumentException if the tenant belongs to another MultiTenantTrie
+     */
+    public void processImportanceFile(Tenant tenant, String importanceFile) {
+        int[] importance = importance(tenant);
+        boolean recording = Metrics.enabled;
+        long start = recording ? System.nanoTime() : 0L;
+        long count = 0;
+        long bytes = 0;
+        try (FileChannel channel = FileChannel.open(Paths.get(importanceFile), StandardOpenOption.READ)) {
+            bytes = channel.size();
+            WordTokenizer tokens = new WordTokenizer(channel, 0, bytes);
+            while (tokens.next()) {
+                count++;
+                if (tokens.cleanTrailing()) {
+                    tokens.toLowerCase();
+                    int id = words.search(tokens.token, tokens.length);
+                    if (id >= 0) {
+                        importance[id] = Trie.saturate(importance[id] + 1L);
+                    }
+                }
+            }
+        } catch (NoSuchFileException e) {
+            System.out.println("File not found: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Could not read file: " + e.getMessage());
+        }
+        if (recording) {
+            Metrics.recordImportanceFile(count, bytes, System.nanoTime() - start);
+        }
+        System.out.println("Importance file processed.\n");
+    }
+
+    /**
+     * Suggests words similar to the given input word using the same criteria as {@link Trie#suggestWords(String, int)}
+     * and prints the k most important ones for a tenant, most important first.
+     *
+     * @param tenant    the tenant
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     * @throws IllegalArgumentException if the tenant belongs to another MultiTenantTrie
+     */
+    public void suggestWords(Tenant tenant, String inputWord, int k) {
+        suggestWords(tenant, inputWord, k, MatchOptions.DEFAULT);
+    }
+
+    /**
+     * Suggests words that start with the given input word or match it under the given fuzzy matching options,
+     * and prints the k most important ones for a tenant, most important first.
+     *
+     * @param tenant    the tenant
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     * @param options   the edit operations and distances that make a fuzzy match
+     * @throws IllegalArgumentException if the tenant belongs to another MultiTenantTrie
+     */
+    public void suggestWords(Tenant tenant, String inputWord, int k, MatchOptions options) {
+        List<Suggestion> suggestions = suggest(tenant, inputWord, k, options);
+        for (Suggestion suggestion : suggestions) {
+            System.out.println(suggestion.word());
+        }
+        if (suggestions.isEmpty()) {
+            System.out.println("Did not find any words!!!");
+        }
+    }
+
+    /**
+     * Finds the k most important suggestions for a tenant for the given input word, using the same criteria as
+     * {@link Trie#suggestWords(String, int)}.
+     *
+     * @param tenant    the tenant
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     * @return the suggestions, most important first
+     * @throws IllegalArgumentException if the tenant belongs to another MultiTenantTrie
+     */
+    public List<Suggestion> suggest(Tenant tenant, String inputWord, int k) {
+        return suggest(tenant, inputWord, k, MatchOptions.DEFAULT);
+    }
+
+    /**
+     * Finds the k words that start with the given input word or match it under the given fuzzy matching options
+     * and are most important for a tenant.
+     *
+     * @param tenant    the tenant
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     * @param options   the edit operations and distances that make a fuzzy match
+     * @return the suggestions, most important first
+     * @throws IllegalArgumentException if the tenant belongs to another MultiTenantTrie
+     */
+    public List<Suggestion> suggest(Tenant tenant, String inputWord, int k, MatchOptions options) {
+        importance(tenant);
+        return words.suggest(inputWord, k, options, tenant.importanceView);
+    }
+
+    /**
+     * Returns the importance array of a tenant after checking that the tenant belongs here, since the array of
+     * another MultiTenantTrie is indexed by other word ids.
+     *
+     * @param tenant the tenant
+     * @return the importance of every word for the tenant, indexed by word id
+     * @throws IllegalArgumentException if the tenant belongs to another MultiTenantTrie
+     */
+    private int[] importance(Tenant tenant) {
+        if (tenant.owner != this) {
+            throw new IllegalArgumentException("Tenant belongs to another MultiTenantTrie: " + tenant.name);
+        }
+        return tenant.importance;
+    }
+}
@@ -0,0 +1,625 @@
+package ID1069789.ID1070730;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A Trie whose nodes and child tables live outside the Java heap, in an {@link IntArena}, and refer to each other by
+ * int offsets instead of references.
+ * A large dictionary then costs the garbage collector a few hundred direct buffers to trace instead of one
+ * {@link TrieNode}, key array and {@link RobinHoodHashing} table per node, which keeps both the heap and the mark
+ * phase small.
+ * <p>
+ * A node is four ints: its flags, its importance, the importance bound of its subtree and the offset of its child
+ * table, or 0 if it has no children. A child table is its capacity and size followed by one pair of ints per slot:
+ * the key together with its probe length plus one in the upper half, so that an empty slot is 0, and the offset of
+ * the child. Tables are filled with the same Robin Hood probing as {@link RobinHoodHashing}; a table that grows is
+ * put on a free list for its capacity and reused by the next table of that size.
+ * <p>
+ * Words are inserted character by character; this class has no compressed mode. It answers suggestion queries with
+ * the same criteria as {@link Trie#suggest(String, int, MatchOptions)}, though among words of equal importance it may
+ * pick different ones. It is not safe for concurrent modification.
+ */
+public class OffHeapTrie {
+    private static final int FLAGS = 0;
+    private static final int IMPORTANCE = 1;
+    private static final int MAX_IMPORTANCE = 2;
+    private static final int TABLE = 3;
+    private static final int NODE_INTS = 4;
+
+    private static final int CAPACITY = 0;
+    private static final int SIZE = 1;
+    private static final int SLOTS = 2;
+
+    private static final int WORD = 1;
+    private static final int INITIAL_CAPACITY = 2;
+    private static final int MAX_PROBE_LENGTH = Byte.MAX_VALUE;
+
+    private final IntArena arena = new IntArena();
+    private final float loadFactor;
+    private final int root;
+    private final int[] freeTables = new int[Integer.SIZE];
+    private int nodeCount;
+    private int wordCount;
+
+    /**
+     * Creates an empty OffHeapTrie whose child tables use the default load factor.
+     */
+    public OffHeapTrie() {
+        this(RobinHoodHashing.DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Creates an empty OffHeapTrie whose child tables grow once they are fuller than the given load factor.
+     *
+     * @param loadFactor the load factor of the child tables
+     * @throws IllegalArgumentException if the load factor is not strictly between 0 and 1
+     */
+    public OffHeapTrie(float loadFactor) {
+        this.loadFactor = RobinHoodHashing.checkLoadFactor(loadFactor);
+        this.root = newNode();
+    }
+
+    /**
+     * Allocates an empty node.
+     *
+     * @return the offset of the node
+     */
+    private int newNode() {
+        nodeCount++;
+        return arena.allocate(NODE_INTS);
+    }
+
+    /**
+     * Computes the home slot of a key in the same way as {@link RobinHoodHashing}.
+     *
+     * @param key      the character key
+     * @param capacity the capacity of the table, a power of two
+     * @return the home slot
+     */
+    private static int hash(int key, int capacity) {
+        return (key ^ (key >>> 7) ^ (key >>> 12)) & (capacity - 1);
+    }
+
+    /**
+     * Finds the child of a node for a key, stopping at the first slot that is closer to its home than the key would
+     * be. The length of the scan is recorded in {@link Metrics} while recording is on.
+     *
+     * @param node the offset of the node
+     * @param key  the key of the edge
+     * @return the offset of the child, or 0 if there is none
+     */
+    private int child(int node, char key) {
+        int table = arena.get(node + TABLE);
+        if (table == 0) {
+            return 0;
+        }
+        int capacity = arena.get(table + CAPACITY);
+        int mask = capacity - 1;
+        int index = hash(key, capacity);
+        int probeLength = 0;
+        while (true) {
+            int slot = table + SLOTS + 2 * index;
+            int entry = arena.get(slot);
+            if (entry == 0 || probeLength > (entry >>> 16) - 1) {
+                if (Metrics.enabled) {
+                    Metrics.recordLookup(probeLength);
+                }
+                return 0;
+            }
+            if ((char) entry == key) {
+                if (Metrics.enabled) {
+                    Metrics.recordLookup(probeLength);
+                }
+                return arena.get(slot + 1);
+            }
+            index = (index + 1) & mask;
+            probeLength++;
+        }
+    }
+
+    /**
+     * Returns the child of a node for a key, adding an empty one if there is none yet.
+     * The child table is created on the first child and doubles once it is fuller than the load factor.
+     *
+     * @param node the offset of the node
+     * @param key  the key of the edge
+     * @return the offset of the child
+     */
+    private int addChild(int node, char key) {
+        int existing = child(node, key);
+        if (existing != 0) {
+            return existing;
+        }
+        int child = newNode();
+        int table = arena.get(node + TABLE);
+        if (table == 0) {
+            table = allocateTable(INITIAL_CAPACITY);
+            arena.set(node + TABLE, table);
+        }
+        table = place(node, table, key, child);
+        int capacity = arena.get(table + CAPACITY);
+        if (arena.get(table + SIZE) > capacity * loadFactor) {
+            grow(node, table);
+        }
+        return child;
+    }
+
+    /**
+     * Places a key that is known to be absent into a child table, displacing richer slots along the way.
+     * If a probe sequence would no longer fit in a byte the table is doubled and the carried key is placed again.
+     *
+     * @param node  the offset of the node owning the table
+     * @param table the offset of the table
+     * @param key   the key to place
+     * @param child the offset of the child the key maps to
+     * @return the offset of the table now holding the key, which differs from {@code table} if it had to grow
+     */
+    private int place(int node, int table, int key, int child) {
+        int capacity = arena.get(table + CAPACITY);
+        int mask = capacity - 1;
+        int index = hash(key, capacity);
+        int probeLength = 0;
+
+        while (true) {
+            int slot = table + SLOTS + 2 * index;
+            int entry = arena.get(slot);
+            if (entry == 0) {
+                arena.set(slot, key | (probeLength + 1) << 16);
+                arena.set(slot + 1, child);
+                arena.set(table + SIZE, arena.get(table + SIZE) + 1);
+                return table;
+            }
+
+            int entryProbeLength = (entry >>> 16) - 1;
+            if (probeLength > entryProbeLength) {
+                int displaced = arena.get(slot + 1);
+                arena.set(slot, key | (probeLength + 1) << 16);
+                arena.set(slot + 1, child);
+                key = entry & 0xFFFF;
+                probeLength = entryProbeLength;
+                child = displaced;
+            }
+
+            probeLength++;
+            if (probeLength > MAX_PROBE_LENGTH) {
+                return place(node, grow(node, table), key, child);
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Moves the children of a node into a table of twice the capacity and frees the old table.
+     *
+     * @param node  the offset of the node owning the table
+     * @param table the offset of the table
+     * @return the offset of the new table
+     */
+    private int grow(int node, int table) {
+        int capacity = arena.get(table + CAPACITY);
+        int bigger = allocateTable(capacity << 1);
+        arena.set(node + TABLE, bigger);
+        for (int index = 0; index < capacity; index++) {
+            int slot = table + SLOTS + 2 * index;
+            int entry = arena.get(slot);
+            if (entry != 0) {
+                bigger = place(node, bigger, entry & 0xFFFF, arena.get(slot + 1));
+            }
+        }
+        freeTable(table, capacity);
+        return bigger;
+    }
+
+    /**
+     * Allocates an empty child table, reusing a freed one of the same capacity if there is any.
+     *
+     * @param capacity the number of slots, a power of two
+     * @return the offset of the table
+     */
+    private int allocateTable(int capacity) {
+        int ints = SLOTS + 2 * capacity;
+        int sizeClass = Integer.numberOfTrailingZeros(capacity);
+        int table = freeTables[sizeClass];
+        if (table != 0) {
+            freeTables[sizeClass] = arena.get(table + SIZE);
+            arena.clear(table, ints);
+        } else {
+            table = arena.allocate(ints);
+        }
+        arena.set(table + CAPACITY, capacity);
+        return table;
+    }
+
+    /**
+     * Puts a child table that is no longer used on the free list for its capacity, linked through its size.
+     *
+     * @param table    the offset of the table
+     * @param capacity the number of slots
+     */
+    private void freeTable(int table, int capacity) {
+        int sizeClass = Integer.numberOfTrailingZeros(capacity);
+        arena.set(table + SIZE, freeTables[sizeClass]);
+        freeTables[sizeClass] = table;
+    }
+
+    /**
+     * Inserts a word into the OffHeapTrie.
+     *
+     * @param word the word to insert
+     */
+    public void insert(String word) {
+        char[] lowerWord = word.toLowerCase().toCharArray();
+        insert(lowerWord, lowerWord.length);
+    }
+
+    /**
+     * Inserts the first characters of a lowercase buffer as a word. An empty word, left by a dictionary token
+     * without letters, is not inserted, as in {@link Trie}.
+     *
+     * @param word   the buffer holding the lowercase word
+     * @param length the number of characters to insert
+     */
+    void insert(char[] word, int length) {
+        if (length == 0) {
+            return;
+        }
+        int node = root;
+        for (int i = 0; i < length; i++) {
+            node = addChild(node, word[i]);
+        }
+        int flags = arena.get(node + FLAGS);
+        if ((flags & WORD) == 0) {
+            arena.set(node + FLAGS, flags | WORD);
+            wordCount++;
+        }
+    }
+
+    /**
+     * Follows the first characters of a lowercase buffer from the root.
+     *
+     * @param word   the buffer holding the lowercase characters
+     * @param length the number of characters to follow
+     * @return the offset of the node reached, or 0 if the path does not exist
+     */
+    private int walk(char[] word, int length) {
+        int node = root;
+        for (int i = 0; i < length && node != 0; i++) {
+            node = child(node, word[i]);
+        }
+        return node;
+    }
+
+    /**
+     * Searches for a word.
+     *
+     * @param word the word to search
+     * @return the offset of the word's node in the arena, or -1 if it is not in the OffHeapTrie
+     */
+    public int search(String word) {
+        char[] lowerWord = word.toLowerCase().toCharArray();
+        int node = walk(lowerWord, lowerWord.length);
+        return node != 0 && isWord(node) ? node : -1;
+    }
+
+    /**
+     * Checks whether a word ends at a node.
+     *
+     * @param node the offset of the node
+     * @return {@code true} if the node ends a word
+     */
+    private boolean isWord(int node) {
+        return (arena.get(node + FLAGS) & WORD) != 0;
+    }
+
+    /**
+     * Returns the importance of a word.
+     *
+     * @param word the word to look up
+     * @return the importance of the word, or 0 if it is not in the OffHeapTrie
+     */
+    public int importanceOf(String word) {
+        int node = search(word);
+        return node >= 0 ? arena.get(node + IMPORTANCE) : 0;
+    }
+
+    /**
+     * Returns the number of nodes, including the root.
+     *
+     * @return the number of nodes
+     */
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the number of words.
+     *
+     * @return the number of words
+     */
+    public int wordCount() {
+        return wordCount;
+    }
+
+    /**
+     * Returns the memory reserved outside the heap for nodes and child tables.
+     *
+     * @return the size in bytes
+     */
+    public long offHeapBytes() {
+        return arena.reservedBytes();
+    }
+
+    /**
+     * Returns the part of {@link #offHeapBytes()} taken by nodes and child tables, including freed tables waiting
+     * to be reused.
+     *
+     * @return the size in bytes
+     */
+    public long usedOffHeapBytes() {
+        return arena.usedBytes();
+    }
+
+    /**
+     * Loads a dictionary from the specified file into the OffHeapTrie, reading words as
+     * {@link Trie#loadDictionary(String)} does.
+     *
+     * @param dictionaryFile the file containing dictionary words
+     */
+    public void loadDictionary(String dictionaryFile) {
+        boolean recording = Metrics.enabled;
+        long start = recording ? System.nanoTime() : 0L;
+        long words = 0;
+        long bytes = 0;
+        try (FileChannel channel = FileChannel.open(Paths.get(dictionaryFile), StandardOpenOption.READ)) {
+            bytes = channel.size();
+            WordTokenizer tokens = new WordTokenizer(channel, 0, bytes);
+            while (tokens.next()) {
+                tokens.keepLetters();
+                tokens.toLowerCase();
+                insert(tokens.token, tokens.length);
+                words++;
+            }
+        } catch (NoSuchFileException e) {
+            System.out.println("File not found: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Could not read file: " + e.getMessage());
+        }
+        if (recording) {
+            Metrics.recordDictionary(words, bytes, System.nanoTime() - start);
+        }
+        System.out.println("Dictionary loaded into OffHeapTrie.\n");
+    }
+
+    /**
+     * Processes a file to count word importance, cleaning tokens as {@link Trie#processImportanceFile(String)}
+     * does and saturating counts as it does, and then brings the importance bounds up to date.
+     *
+     * @param importanceFile the file to process
+     */
+    public void processImportanceFile(String importanceFile) {
+        boolean recording = Metrics.enabled;
+        long start = recording ? System.nanoTime() : 0L;
+        long count = 0;
+        long bytes = 0;
+        try (FileChannel channel = FileChannel.open(Paths.get(importanceFile), StandardOpenOption.READ)) {
+            bytes = channel.size();
+            WordTokenizer tokens = new WordTokenizer(channel, 0, bytes);
+            while (tokens.next()) {
+                count++;
+                if (tokens.cleanTrailing()) {
+                    tokens.toLowerCase();
+                    int node = walk(tokens.token, tokens.length);
+                    if (node != 0) {
+                        arena.set(node + IMPORTANCE, Trie.saturate(arena.get(node + IMPORTANCE) + 1L));
+                    }
+                }
+            }
+            updateMaxImportance(root);
+        } catch (NoSuchFileException e) {
+            System.out.println("File not found: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Could not read file: " + e.getMessage());
+        }
+        if (recording) {
+            Metrics.recordImportanceFile(count, bytes, System.nanoTime() - start);
+        }
+        System.out.println("Importance file processed.\n");
+    }
+
+    /**
+     * Recomputes the importance bound of every node in a subtree.
+     *
+     * @param node the offset of the subtree's root
+     * @return the greatest importance in the subtree
+     */
+    private int updateMaxImportance(int node) {
+        int max = arena.get(node + IMPORTANCE);
+        int table = arena.get(node + TABLE);
+        if (table != 0) {
+            int capacity = arena.get(table + CAPACITY);
+            for (int index = 0; index < capacity; index++) {
+                int slot = table + SLOTS + 2 * index;
+                if (arena.get(slot) != 0) {
+                    max = Math.max(max, updateMaxImportance(arena.get(slot + 1)));
+                }
+            }
+        }
+        arena.set(node + MAX_IMPORTANCE, max);
+        return max;
+    }
+
+    /**
+     * Suggests words similar to the given input word using the same criteria as {@link Trie#suggestWords(String, int)}
+     * and prints the k most important ones, most important first.
+     *
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     */
+    public void suggestWords(String inputWord, int k) {
+        suggestWords(inputWord, k, MatchOptions.DEFAULT);
+    }
+
+    /**
+     * Suggests words that start with the given input word or match it under the given fuzzy matching options,
+     * and prints the k most important ones, most important first.
+     *
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     * @param options   the edit operations and distances that make a fuzzy match
+     */
+    public void suggestWords(String inputWord, int k, MatchOptions options) {
+        List<Suggestion> suggestions = suggest(inputWord, k, options);
+        for (Suggestion suggestion : suggestions) {
+            System.out.println(suggestion.word());
+        }
+        if (suggestions.isEmpty()) {
+            System.out.println("Did not find any words!!!");
+        }
+    }
+
+    /**
+     * Finds the k most important suggestions for the given input word, using the same criteria as
+     * {@link Trie#suggestWords(String, int)}.
+     *
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     * @return the suggestions, most important first
+     */
+    public List<Suggestion> suggest(String inputWord, int k) {
+        return suggest(inputWord, k, MatchOptions.DEFAULT);
+    }
+
+    /**
+     * Finds the k most important words that start with the given input word or match it under the given fuzzy
+     * matching options.
+     * Both kinds are collected in one depth-first walk that enters a child only while its path still starts like
+     * the input word or the automaton can still match, and skips subtrees whose importance bound cannot beat the
+     * suggestions found so far. As in {@link Trie}, words that complete the input word are spelled with the input
+     * word's own characters.
+     *
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     * @param options   the edit operations and distances that make a fuzzy match
+     * @return the suggestions, most important first
+     */
+    public List<Suggestion> suggest(String inputWord, int k, MatchOptions options) {
+        MinHeap minHeap = new MinHeap(k + 1);
+        boolean recording = Metrics.enabled;
+        long start = recording ? System.nanoTime() : 0L;
+        Search search = new Search(inputWord, new FuzzyAutomaton(inputWord, options), minHeap, k);
+        int visited = search.visit(root, 0, true);
+        if (recording) {
+            Metrics.recordPhase(Metrics.Phase.FUZZY, visited, minHeap.offers(), System.nanoTime() - start);
+            Metrics.recordQuery(minHeap.offers(), minHeap.offers() - minHeap.size());
+        }
+
+        Suggestion[] suggestions = new Suggestion[minHeap.size()];
+        for (int i = suggestions.length - 1; i >= 0; i--) {
+            int importance = minHeap.minImportance();
+            suggestions[i] = Suggestion.of(minHeap.poll(), importance, inputWord);
+        }
+        return List.of(suggestions);
+    }
+
+    /**
+     * The state of one suggestion query: the input word, the automaton and heap, and the characters of the current
+     * path in a buffer shared by the whole walk.
+     */
+    private final class Search {
+        final String inputWord;
+        final String lowerInputWord;
+        final FuzzyAutomaton automaton;
+        final MinHeap minHeap;
+        final int k;
+        char[] path = new char[16];
+
+        /**
+         * Creates the state of a query.
+         *
+         * @param inputWord the word to find suggestions for
+         * @param automaton the automaton matching the input word
+         * @param minHeap   the MinHeap keeping the k most important suggestions
+         * @param k         the number of suggestions to provide
+         */
+        Search(String inputWord, FuzzyAutomaton automaton, MinHeap minHeap, int k) {
+            this.inputWord = inputWord;
+            this.lowerInputWord = inputWord.toLowerCase();
+            this.automaton = automaton;
+            this.minHeap = minHeap;
+            this.k = k;
+        }
+
+        /**
+         * Visits the subtree of a node and offers the words in it that can still be suggested to the heap.
+         *
+         * @param node     the offset of the node
+         * @param depth    the number of characters leading to the node
+         * @param onPrefix whether the path and the input word agree on every character they share
+         * @return the number of nodes visited, including this one
+         */
+        int visit(int node, int depth, boolean onPrefix) {
+            boolean full = minHeap.size() >= k;
+            if (full && arena.get(node + MAX_IMPORTANCE) <= minHeap.minImportance()) {
+                return 1;
+            }
+            int visited = 1;
+            if (isWord(node)) {
+                int importance = arena.get(node + IMPORTANCE);
+                if (!(full && importance <= minHeap.minImportance())) {
+                    int inputLength = lowerInputWord.length();
+                    if (onPrefix && depth > inputLength) {
+                        offer(inputWord + String.valueOf(path, inputLength, depth - inputLength), importance);
+                    } else if (automaton.matches()) {
+                        offer(new String(path, 0, depth), importance);
+                    }
+                }
+            }
+
+            int table = arena.get(node + TABLE);
+            if (table == 0) {
+                return visited;
+            }
+            if (depth == path.length) {
+                path = Arrays.copyOf(path, 2 * depth);
+            }
+            int automatonDepth = automaton.depth();
+            int capacity = arena.get(table + CAPACITY);
+            for (int index = 0; index < capacity; index++) {
+                int slot = table + SLOTS + 2 * index;
+                int entry = arena.get(slot);
+                if (entry != 0) {
+                    char c = (char) entry;
+                    boolean childOnPrefix = onPrefix
+                            && (depth >= lowerInputWord.length() || lowerInputWord.charAt(depth) == c);
+                    if (automaton.push(c) || childOnPrefix) {
+                        path[depth] = c;
+                        visited += visit(arena.get(slot + 1), depth + 1, childOnPrefix);
+                    }
+                    automaton.popTo(automatonDepth);
+                }
+            }
+            return visited;
+        }
+
+        /**
+         * Adds a word to the heap unless it is already there, dropping the least important word beyond k.
+         *
+         * @param word       the word
+         * @param importance the importance of the word
+         */
+        private void offer(String word, int importance) {
+            if (!minHeap.contains(word)) {
+                minHeap.offer(word, importance);
+                if (minHeap.size() > k) {
+                    minHeap.poll();
+                }
+            }
+        }
+    }
+}
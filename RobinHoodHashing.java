@@ -2,106 +2,222 @@ package ID1069789.ID1070730;
 
 /**
  * A custom implementation of Robin Hood Hashing for efficient key-value storage.
- * This class provides methods to insert and search for elements, as well as handle rehashing when the table becomes full.
+ * This class provides methods to insert, search for and remove elements, as well as handle rehashing when the table becomes full.
  * The hashing technique ensures that keys with longer probe sequences (collisions) are favored over those with shorter sequences,
  * improving cache locality and performance in scenarios with a high number of collisions.
+ * The table is laid out as parallel arrays (keys, probe lengths and child nodes) instead of one object per slot,
+ * so a lookup touches primitive arrays only and follows a single reference once the key has been found.
+ * Capacities are powers of two, so the home slot and the wrap-around are computed with a bit mask,
+ * and the table doubles whenever the configured load factor is exceeded, allowing any number of distinct keys,
+ * and halves again when removals leave it mostly empty.
+ * The smallest and largest key are kept up to date, so a Trie node can tell whether its keys are dense enough for a
+ * direct-indexed array without scanning the table.
  */
 public class RobinHoodHashing {
-     Element[] table;  
+     char[] keys;
+     byte[] probeLengths;
+     TrieNode[] children;
      int capacity;      
      int size;          
      int maxProbeLength; 
+     char minKey = Character.MAX_VALUE;
+     char maxKey = Character.MIN_VALUE;
+     final float loadFactor;
 
      /**
-      * Constructs a Robin Hood Hashing instance with an initial capacity of 5.
+      * The load factor used when none is given.
+      */
+     public static final float DEFAULT_LOAD_FACTOR = 0.9f;
+
+     private static final int INITIAL_CAPACITY = 2;
+     private static final int MAX_PROBE_LENGTH = Byte.MAX_VALUE;
+
+     private static final char[] NO_KEYS = new char[0];
+     private static final byte[] NO_PROBE_LENGTHS = new byte[0];
+     private static final TrieNode[] NO_CHILDREN = new TrieNode[0];
+
+     /**
+      * Constructs an empty Robin Hood Hashing instance with the default load factor.
+      * The arrays are allocated with an initial capacity of 2 on the first insert.
       */
     public RobinHoodHashing() {
-        this.capacity = 5;
-        this.table = new Element[capacity];
+        this(DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs an empty Robin Hood Hashing instance that grows once more than the given fraction of its slots is used.
+     *
+     * @param loadFactor the maximum fraction of occupied slots, strictly between 0 and 1
+     * @throws IllegalArgumentException if the load factor is not strictly between 0 and 1
+     */
+    public RobinHoodHashing(float loadFactor) {
+        this.capacity = 0;
+        this.keys = NO_KEYS;
+        this.probeLengths = NO_PROBE_LENGTHS;
+        this.children = NO_CHILDREN;
         this.size = 0;
         this.maxProbeLength = 0;
+        this.loadFactor = checkLoadFactor(loadFactor);
     }
 
     /**
-     * Computes the hash value for a given character key.
+     * Constructs a Robin Hood Hashing instance whose arrays are allocated up front, just large enough to hold the
+     * given number of keys without exceeding the load factor, so filling it never rehashes.
+     *
+     * @param loadFactor   the maximum fraction of occupied slots, strictly between 0 and 1
+     * @param expectedSize the number of keys the table will hold
+     * @throws IllegalArgumentException if the load factor is not strictly between 0 and 1
+     */
+    RobinHoodHashing(float loadFactor, int expectedSize) {
+        this(loadFactor);
+        int newCapacity = INITIAL_CAPACITY;
+        while (expectedSize > newCapacity * loadFactor) {
+            newCapacity <<= 1;
+        }
+        allocate(newCapacity);
+    }
+
+    /**
+     * Validates a load factor.
+     *
+     * @param loadFactor the load factor to check
+     * @return the load factor
+     * @throws IllegalArgumentException if the load factor is not strictly between 0 and 1
+     */
+    static float checkLoadFactor(float loadFactor) {
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("Load factor must be between 0 and 1: " + loadFactor);
+        }
+        return loadFactor;
+    }
+
+    /**
+     * Computes the home slot for a given character key.
+     * The high bits of the character are folded into the low bits before masking, so script blocks that start on
+     * power-of-two boundaries do not pile onto the same slots, while a contiguous run such as 'a'..'z' still maps
+     * to distinct slots without collisions.
      *
      * @param key the character key to hash
      * @return the computed hash value for the key
      */
     private int hash(char key) {
-        return (int)key % capacity;
+        return (key ^ (key >>> 7) ^ (key >>> 12)) & (capacity - 1);
     }
 
     /**
      * Inserts a new character key into the hash table.
-     * If the key already exists, its probe length is reset to zero, and its associated TrieNode is returned.
-     * If the key does not exist, a new element is inserted and rehashing occurs if the load factor exceeds 0.9.
+     * If the key already exists, its associated TrieNode is returned.
+     * If the key does not exist, a new slot is filled and the table doubles if the load factor is exceeded.
      *
      * @param key the character key to insert
      * @return the TrieNode associated with the inserted key
      */
     public TrieNode insert(char key) {
-        int index = hash(key);
-        int probeLength = 0;
+        TrieNode existing = search(key);
 
-       
-        Element existingElement = findElement(key, index);
-        
-        if (existingElement != null) {
-            existingElement.probeLength = probeLength;  
-            return existingElement.trieNode;
+        if (existing != null) {
+            return existing;
         }
 
         TrieNode newTrieNode = new TrieNode();
-        Element newElement = new Element(key, probeLength, newTrieNode);
+        insert(key, newTrieNode);
+        return newTrieNode;
+    }
+
+    /**
+     * Inserts a key that is known to be absent together with an existing TrieNode,
+     * doubling the table if the load factor is exceeded.
+     *
+     * @param key      the character key to insert
+     * @param trieNode the TrieNode the key maps to
+     */
+    void insert(char key, TrieNode trieNode) {
+        if (capacity == 0) {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        place(key, trieNode);
+        if (size > capacity * loadFactor) {
+            rehash(capacity << 1);
+        }
+    }
+
+    /**
+     * Places a key that is known to be absent into the table, displacing richer slots along the way.
+     * If a probe sequence would no longer fit in a byte the table is doubled and the carried key is placed again.
+     *
+     * @param key      the character key to place
+     * @param trieNode the TrieNode the key maps to
+     */
+    private void place(char key, TrieNode trieNode) {
+        minKey = (char) Math.min(minKey, key);
+        maxKey = (char) Math.max(maxKey, key);
+        int mask = capacity - 1;
+        int index = hash(key);
+        int probeLength = 0;
 
         while (true) {
-            if (table[index] == null) {
-                table[index] = newElement;
+            if (children[index] == null) {
+                keys[index] = key;
+                probeLengths[index] = (byte) probeLength;
+                children[index] = trieNode;
                 size++;
-                maxProbeLength = Math.max(maxProbeLength, newElement.probeLength);
-                break;
+                maxProbeLength = Math.max(maxProbeLength, probeLength);
+                return;
             }
 
-           
-            if (newElement.probeLength > table[index].probeLength) {
-                Element temp = table[index];
-                table[index] = newElement;
-                newElement = temp; 
+            if (probeLength > probeLengths[index]) {
+                char tempKey = keys[index];
+                int tempProbeLength = probeLengths[index];
+                TrieNode tempNode = children[index];
+                keys[index] = key;
+                probeLengths[index] = (byte) probeLength;
+                children[index] = trieNode;
+                maxProbeLength = Math.max(maxProbeLength, probeLength);
+                key = tempKey;
+                probeLength = tempProbeLength;
+                trieNode = tempNode;
             }
 
-         
-            newElement.probeLength++;
-            index = (index + 1) % capacity;
-        }
-        if ((double) size / capacity > 0.9) {
-            rehash();
+            probeLength++;
+            if (probeLength > MAX_PROBE_LENGTH) {
+                rehash(capacity << 1);
+                place(key, trieNode);
+                return;
+            }
+            index = (index + 1) & mask;
         }
-
-        return newTrieNode;
     }
+
     /**
-     * Finds an element in the table based on its key and starting index.
+     * Finds the slot holding the given key, starting from its home index.
+     * The scan stops at the first slot that is closer to its own home than the key would be,
+     * since Robin Hood ordering guarantees the key cannot appear after it.
+     * The length of the scan is recorded in {@link Metrics} while recording is on.
      *
-     * @param key        the key to search for
-     * @param startIndex the index to start searching from
-     * @return the element if found, or null if not found
+     * @param key the key to search for
+     * @return the slot index if found, or -1 if not found
      */
-    private Element findElement(char key, int startIndex) {
-        int index = startIndex;
+    private int findIndex(char key) {
+        int mask = capacity - 1;
+        int index = hash(key);
         int probeLength = 0;
 
-        while (table[index] != null) {
-            if (table[index].key == key) {
-                return table[index];  
+        while (children[index] != null && probeLength <= probeLengths[index]) {
+            if (keys[index] == key) {
+                if (Metrics.enabled) {
+                    Metrics.recordLookup(probeLength);
+                }
+                return index;
             }
-
-          
-            index = (index + 1) % capacity;
+            index = (index + 1) & mask;
             probeLength++;
         }
-        
-        return null;  
+
+        if (Metrics.enabled) {
+            Metrics.recordLookup(probeLength);
+        }
+        return -1;
     }
 
 
@@ -112,84 +228,144 @@ public class RobinHoodHashing {
      * @return the TrieNode associated with the key, or null if not found
      */
     public  TrieNode search(char key) {
-        int index = hash(key);
-        int probeLength = 0;
+        if (size == 0) {
+            return null;
+        }
+        int index = findIndex(key);
+        return index >= 0 ? children[index] : null;
+    }
+
+    /**
+     * Returns the slot holding the given key.
+     *
+     * @param key the character key to look up
+     * @return the slot index, or -1 if the key is not present
+     */
+    int indexOf(char key) {
+        return size == 0 ? -1 : findIndex(key);
+    }
 
-        while (table[index] != null && probeLength <= maxProbeLength) {
-            if (table[index].key == key) {
-                return table[index].trieNode;
+    /**
+     * Removes the element with the given key using backward-shift deletion: every following slot of the same
+     * cluster that is away from its home moves back by one, so no tombstones are left and probe sequences only
+     * get shorter. Once fewer than a quarter of the slots its load factor allows are in use, the table shrinks by
+     * halves until that is no longer the case. The longest probe length is recomputed only when a slot of that
+     * length moved and it is not already 0, so emptying a table whose keys all sit at home never rescans it, and the
+     * key range only when the smallest or largest key was removed.
+     *
+     * @param key the character key to remove
+     * @return the TrieNode that was associated with the key, or null if the key was not present
+     */
+    public TrieNode remove(char key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        TrieNode removed = children[index];
+        boolean longest = probeLengths[index] == maxProbeLength;
+        int mask = capacity - 1;
+        int next = (index + 1) & mask;
+        while (children[next] != null && probeLengths[next] > 0) {
+            longest |= probeLengths[next] == maxProbeLength;
+            keys[index] = keys[next];
+            probeLengths[index] = (byte) (probeLengths[next] - 1);
+            children[index] = children[next];
+            index = next;
+            next = (next + 1) & mask;
+        }
+        keys[index] = 0;
+        probeLengths[index] = 0;
+        children[index] = null;
+        size--;
+
+        int newCapacity = capacity;
+        while (newCapacity > INITIAL_CAPACITY && size < newCapacity * loadFactor / 4) {
+            newCapacity >>= 1;
+        }
+        if (newCapacity < capacity) {
+            rehash(newCapacity);
+        } else {
+            if (longest && maxProbeLength > 0) {
+                maxProbeLength = 0;
+                for (int i = 0; i < capacity; i++) {
+                    if (children[i] != null) {
+                        maxProbeLength = Math.max(maxProbeLength, probeLengths[i]);
+                    }
+                }
+            }
+            if (key == minKey || key == maxKey) {
+                minKey = Character.MAX_VALUE;
+                maxKey = Character.MIN_VALUE;
+                for (int i = 0; i < capacity; i++) {
+                    if (children[i] != null) {
+                        minKey = (char) Math.min(minKey, keys[i]);
+                        maxKey = (char) Math.max(maxKey, keys[i]);
+                    }
+                }
             }
-            index = (index + 1) % capacity;
-            probeLength++;
         }
+        return removed;
+    }
 
-        return null; 
+    /**
+     * Creates a copy of this table whose slot arrays can be changed without affecting this one.
+     * The child nodes themselves are shared.
+     *
+     * @return the copy
+     */
+    RobinHoodHashing copy() {
+        RobinHoodHashing copy = new RobinHoodHashing(loadFactor);
+        if (capacity > 0) {
+            copy.keys = keys.clone();
+            copy.probeLengths = probeLengths.clone();
+            copy.children = children.clone();
+        }
+        copy.capacity = capacity;
+        copy.size = size;
+        copy.maxProbeLength = maxProbeLength;
+        copy.minKey = minKey;
+        copy.maxKey = maxKey;
+        return copy;
     }
 
     /**
-     * Inserts elements from an old table into the new table during rehashing.
+     * Replaces the slot arrays with empty arrays of the given capacity.
      *
-     * @param oldTable the old hash table
+     * @param newCapacity the new capacity, a power of two
      */
-   private void modifiedInsertForRehash(Element[] oldTable) {
-	   for (int i = 0; i < oldTable.length; i++) {
-	       
-	        if (oldTable[i] != null) {    
-	          
-	            int index = hash(oldTable[i].key);
-	            int probeLength = 0;
-
-	            Element newElement = new Element(oldTable[i].key, probeLength, oldTable[i].trieNode);
-
-	            while (true) {
-	                if (table[index] == null) {
-	                    table[index] = newElement;
-	                    size++;
-	                    maxProbeLength = Math.max(maxProbeLength, probeLength);
-	                    break;
-	                }
-
-	                if (probeLength > table[index].probeLength) {
-	                    Element temp = table[index];
-	                    table[index] = newElement;
-	                    newElement = temp;
-	                }
-
-	                probeLength++;
-	                index = (index + 1) % capacity;
-	                newElement.probeLength = probeLength;
-	            }
-	        }
-	    }
-   }
+    private void allocate(int newCapacity) {
+        keys = new char[newCapacity];
+        probeLengths = new byte[newCapacity];
+        children = new TrieNode[newCapacity];
+        capacity = newCapacity;
+        size = 0;
+        maxProbeLength = 0;
+        minKey = Character.MAX_VALUE;
+        maxKey = Character.MIN_VALUE;
+    }
    
    
    /**
     * Performs rehashing by expanding the hash table and re-inserting all elements from the old table into the new table.
-    * The capacity is increased by selecting the next prime number greater than the current capacity.
+    * The number of entries moved and the time it took are recorded in {@link Metrics} while recording is on.
+    *
+    * @param newCapacity the new capacity, a power of two
     */
-    private void rehash() {
-       
-    	   
-    	    int[] primeCapacities = {11, 19, 29};
-    	    int newCapacity = capacity;
-
-    	    for (int i = 0; i < primeCapacities.length; i++) {
-    	        if ( primeCapacities[i] > capacity) {
-    	            newCapacity =  primeCapacities[i];
-    	            break;
+    private void rehash(int newCapacity) {
+    	    boolean recording = Metrics.enabled;
+    	    long start = recording ? System.nanoTime() : 0L;
+    	    char[] oldKeys = keys;
+    	    TrieNode[] oldChildren = children;
+    	    allocate(newCapacity);
+
+    	    for (int i = 0; i < oldChildren.length; i++) {
+    	        if (oldChildren[i] != null) {
+    	            place(oldKeys[i], oldChildren[i]);
     	        }
     	    }
-
-    	  
-    	    Element[] oldTable = table;
-    	    table = new Element[newCapacity];
-    	    capacity = newCapacity;
-    	    size = 0;
-    	    maxProbeLength = 0;
-
-    	   
-    	    modifiedInsertForRehash(oldTable);
+    	    if (recording) {
+    	        Metrics.recordRehash(size, System.nanoTime() - start);
+    	    }
 
     	}
 
@@ -198,8 +374,8 @@ public class RobinHoodHashing {
    /* public void display() {
         System.out.println("Hash Table:");
         for (int i = 0; i < capacity; i++) {
-            if (table[i] != null) {
-                System.out.println("Index " + i + ": Key = " + table[i].key + ", ProbeLength = " + table[i].probeLength);
+            if (children[i] != null) {
+                System.out.println("Index " + i + ": Key = " + keys[i] + ", ProbeLength = " + probeLengths[i]);
             } else {
                 System.out.println("Index " + i + ": Empty");
             }
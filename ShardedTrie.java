@@ -0,0 +1,485 @@
+package ID1069789.ID1070730;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * A set of independent {@link Trie} shards that split the words between them, so loading and queries can use
+ * several cores.
+ * A word belongs to the shard chosen by its first two characters. Words that share those characters share a
+ * subtree, and only the root and first level of nodes are repeated across shards, so a fuzzy search over all shards
+ * visits about as many nodes as it would in one Trie.
+ * Dictionary and importance files are split into line-aligned byte ranges that are tokenized in parallel; each shard
+ * then inserts or counts its own words on its own thread. A suggestion query runs on every shard at once, since a
+ * fuzzy match may start with other characters than the input word, and the k best suggestions of all shards are
+ * merged into the overall k best. Suggestions of equal importance may come out in a different order than from a
+ * single Trie.
+ * Queries may run concurrently with each other, but the ShardedTrie must not be modified while they run.
+ * The worker threads belong to a pool owned by the ShardedTrie, released by {@link #close()}.
+ */
+public class ShardedTrie implements AutoCloseable {
+    private static final int RANGES_PER_THREAD = 4;
+
+    final Trie[] shards;
+    private final int threads;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs an empty ShardedTrie with one thread per processor.
+     *
+     * @param shards the number of shards
+     * @throws IllegalArgumentException if {@code shards} is less than 1
+     */
+    public ShardedTrie(int shards) {
+        this(shards, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs an empty ShardedTrie.
+     *
+     * @param shards  the number of shards
+     * @param threads the number of worker threads
+     * @throws IllegalArgumentException if {@code shards} or {@code threads} is less than 1
+     */
+    public ShardedTrie(int shards, int threads) {
+        this(shards, threads, RobinHoodHashing.DEFAULT_LOAD_FACTOR, false);
+    }
+
+    /**
+     * Constructs an empty ShardedTrie whose shards use the given child hash table load factor, optionally in
+     * path-compressed mode.
+     *
+     * @param shards     the number of shards
+     * @param threads    the number of worker threads
+     * @param loadFactor the load factor of every child hash table, strictly between 0 and 1
+     * @param compressed whether chains of single-child nodes are collapsed into labelled edges
+     * @throws IllegalArgumentException if {@code shards} or {@code threads} is less than 1, or the load factor is not
+     *                                  strictly between 0 and 1
+     */
+    public ShardedTrie(int shards, int threads, float loadFactor, boolean compressed) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1: " + shards);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threads);
+        }
+        this.shards = new Trie[shards];
+        for (int i = 0; i < shards; i++) {
+            this.shards[i] = new Trie(loadFactor, compressed);
+        }
+        this.threads = threads;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return the number of shards
+     */
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Chooses the shard of a word from its first two characters.
+     *
+     * @param word   the buffer holding the lowercase word
+     * @param length the number of characters of the word
+     * @return the index of the shard
+     */
+    int shardOf(char[] word, int length) {
+        return shardOf(length > 0 ? word[0] : 0, length > 1 ? word[1] : 0);
+    }
+
+    /**
+     * Chooses the shard of a word from its first two characters.
+     *
+     * @param word the lowercase word
+     * @return the index of the shard
+     */
+    int shardOf(String word) {
+        return shardOf(word.isEmpty() ? 0 : word.charAt(0), word.length() > 1 ? word.charAt(1) : 0);
+    }
+
+    /**
+     * Spreads pairs of leading characters over the shards. The pair is multiplied by an odd constant and the high
+     * bits are folded into the low ones, so runs of neighbouring characters land on different shards.
+     *
+     * @param first  the first character, or 0 for an empty word
+     * @param second the second character, or 0 for a shorter word
+     * @return the index of the shard
+     */
+    private int shardOf(int first, int second) {
+        int hash = (first << 16 | second) * 0x9E3779B9;
+        return ((hash ^ hash >>> 15) & Integer.MAX_VALUE) % shards.length;
+    }
+
+    /**
+     * Inserts a word into its shard.
+     *
+     * @param word the word to insert
+     */
+    public void insert(String word) {
+        shards[shardOf(word.toLowerCase())].insert(word);
+    }
+
+    /**
+     * Removes a word from its shard.
+     *
+     * @param word the word to remove
+     * @return {@code true} if the word was in the ShardedTrie
+     */
+    public boolean remove(String word) {
+        return shards[shardOf(word.toLowerCase())].remove(word);
+    }
+
+    /**
+     * Returns the importance of a word.
+     *
+     * @param word the word to look up
+     * @return the importance of the word, or 0 if it is not in the ShardedTrie
+     */
+    public int importanceOf(String word) {
+        return shards[shardOf(word.toLowerCase())].importanceOf(word);
+    }
+
+    /**
+     * Adds to the importance of a word, as {@link Trie#addImportance(String, int)} does.
+     *
+     * @param word  the word whose importance changes
+     * @param delta the amount to add, before weighting by the current epoch
+     * @return {@code true} if the word was found
+     */
+    public boolean addImportance(String word, int delta) {
+        return shards[shardOf(word.toLowerCase())].addImportance(word, delta);
+    }
+
+    /**
+     * Starts a new epoch in every shard, see {@link Trie#advanceEpoch()}.
+     */
+    public void advanceEpoch() {
+        for (Trie shard : shards) {
+            shard.advanceEpoch();
+        }
+    }
+
+    /**
+     * Counts the nodes of all shards, including their roots.
+     *
+     * @return the number of nodes
+     */
+    public int nodeCount() {
+        int count = 0;
+        for (Trie shard : shards) {
+            count += shard.nodeCount();
+        }
+        return count;
+    }
+
+    /**
+     * Loads a dictionary from the specified file.
+     * The file is tokenized in parallel byte ranges that sort their words by shard, then every shard inserts its
+     * words on its own thread. Words are cleaned as by {@link Trie#loadDictionary(String)}.
+     *
+     * @param dictionaryFile the file containing dictionary words
+     */
+    public void loadDictionary(String dictionaryFile) {
+        boolean recording = Metrics.enabled;
+        long start = recording ? System.nanoTime() : 0L;
+        long words = 0;
+        long bytes = 0;
+        try (FileChannel channel = FileChannel.open(Paths.get(dictionaryFile), StandardOpenOption.READ)) {
+            bytes = channel.size();
+            long[] bounds = WordTokenizer.lineAlignedRanges(channel, threads * RANGES_PER_THREAD);
+            List<Callable<List<List<char[]>>>> tasks = new ArrayList<>();
+            for (int r = 0; r + 1 < bounds.length; r++) {
+                long from = bounds[r];
+                long to = bounds[r + 1];
+                tasks.add(() -> splitWords(channel, from, to));
+            }
+            List<List<List<char[]>>> ranges = runAll(tasks);
+
+            List<Callable<Void>> inserts = new ArrayList<>();
+            for (int s = 0; s < shards.length; s++) {
+                int index = s;
+                inserts.add(() -> {
+                    Trie shard = shards[index];
+                    for (List<List<char[]>> range : ranges) {
+                        for (char[] word : range.get(index)) {
+                            shard.insert(word, word.length);
+                        }
+                    }
+                    shard.changes.allChanged();
+                    return null;
+                });
+                for (List<List<char[]>> range : ranges) {
+                    words += range.get(index).size();
+                }
+            }
+            runAll(inserts);
+        } catch (NoSuchFileException e) {
+            System.out.println("File not found: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Could not read file: " + e.getMessage());
+        } catch (ExecutionException e) {
+            System.out.println("Could not read file: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Interrupted while loading file: " + dictionaryFile);
+        }
+        if (recording) {
+            Metrics.recordDictionary(words, bytes, System.nanoTime() - start);
+        }
+        System.out.println("Dictionary loaded into Trie.\n");
+    }
+
+    /**
+     * Reads the dictionary words of a byte range and sorts them by shard.
+     *
+     * @param channel the dictionary file
+     * @param start   the first byte of the range, at the start of a line
+     * @param end     the byte just past the range, at the start of a line or the end of the file
+     * @return the cleaned lowercase words of each shard, in file order
+     * @throws IOException if the file cannot be read
+     */
+    private List<List<char[]>> splitWords(FileChannel channel, long start, long end) throws IOException {
+        List<List<char[]>> words = new ArrayList<>(shards.length);
+        for (int s = 0; s < shards.length; s++) {
+            words.add(new ArrayList<>());
+        }
+        WordTokenizer tokens = new WordTokenizer(channel, start, end);
+        while (tokens.next()) {
+            tokens.keepLetters();
+            tokens.toLowerCase();
+            if (tokens.length > 0) {
+                words.get(shardOf(tokens.token, tokens.length)).add(Arrays.copyOf(tokens.token, tokens.length));
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Processes a file to count word importance.
+     * The file is tokenized in parallel byte ranges that look each token up in its shard and count occurrences per
+     * shard, then every shard adds its counts on its own thread. The resulting importances are the same as those of
+     * {@link Trie#processImportanceFile(String)}.
+     *
+     * @param importanceFile the file to process
+     */
+    public void processImportanceFile(String importanceFile) {
+        boolean recording = Metrics.enabled;
+        long start = recording ? System.nanoTime() : 0L;
+        long tokenCount = 0;
+        long bytes = 0;
+        try (FileChannel channel = FileChannel.open(Paths.get(importanceFile), StandardOpenOption.READ)) {
+            bytes = channel.size();
+            long[] bounds = WordTokenizer.lineAlignedRanges(channel, threads * RANGES_PER_THREAD);
+            List<Callable<RangeCounts>> tasks = new ArrayList<>();
+            for (int r = 0; r + 1 < bounds.length; r++) {
+                long from = bounds[r];
+                long to = bounds[r + 1];
+                tasks.add(() -> countImportance(channel, from, to));
+            }
+            List<RangeCounts> ranges = runAll(tasks);
+
+            List<Callable<Void>> updates = new ArrayList<>();
+            for (int s = 0; s < shards.length; s++) {
+                int index = s;
+                updates.add(() -> {
+                    List<Map<TrieNode, int[]>> counts = new ArrayList<>(ranges.size());
+                    for (RangeCounts range : ranges) {
+                        counts.add(range.counts.get(index));
+                    }
+                    shards[index].addCounts(counts);
+                    shards[index].changes.allChanged();
+                    return null;
+                });
+            }
+            for (RangeCounts range : ranges) {
+                tokenCount += range.tokens;
+            }
+            runAll(updates);
+        } catch (NoSuchFileException e) {
+            System.out.println("File not found: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Could not read file: " + e.getMessage());
+        } catch (ExecutionException e) {
+            System.out.println("Could not read file: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Interrupted while processing file: " + importanceFile);
+        }
+        if (recording) {
+            Metrics.recordImportanceFile(tokenCount, bytes, System.nanoTime() - start);
+        }
+        System.out.println("Importance file processed.\n");
+    }
+
+    /**
+     * Counts the occurrences of dictionary words in a byte range of an importance file without touching the shards.
+     *
+     * @param channel the importance file
+     * @param start   the first byte of the range, at the start of a line
+     * @param end     the byte just past the range, at the start of a line or the end of the file
+     * @return the number of tokens in the range and the occurrences found for each terminal node of each shard
+     * @throws IOException if the file cannot be read
+     */
+    private RangeCounts countImportance(FileChannel channel, long start, long end) throws IOException {
+        RangeCounts range = new RangeCounts(shards.length);
+        WordTokenizer tokens = new WordTokenizer(channel, start, end);
+        while (tokens.next()) {
+            range.tokens++;
+            if (tokens.cleanTrailing()) {
+                tokens.toLowerCase();
+                int index = shardOf(tokens.token, tokens.length);
+                TrieNode node = shards[index].search(tokens.token, tokens.length);
+                if (node != null) {
+                    int[] count = range.counts.get(index).get(node);
+                    if (count == null) {
+                        range.counts.get(index).put(node, new int[] {1});
+                    } else {
+                        count[0]++;
+                    }
+                }
+            }
+        }
+        return range;
+    }
+
+    /**
+     * Finds and prints the k most important suggestions for the given input word, as
+     * {@link Trie#suggestWords(String, int)} does.
+     *
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     */
+    public void suggestWords(String inputWord, int k) {
+        suggestWords(inputWord, k, MatchOptions.DEFAULT);
+    }
+
+    /**
+     * Finds and prints the k most important suggestions for the given input word under the given fuzzy matching
+     * options.
+     *
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     * @param options   the edit operations and distances that make a fuzzy match
+     */
+    public void suggestWords(String inputWord, int k, MatchOptions options) {
+        List<Suggestion> suggestions = suggest(inputWord, k, options);
+        for (Suggestion suggestion : suggestions) {
+            System.out.println(suggestion.word());
+        }
+        if (suggestions.isEmpty()) {
+            System.out.println("Did not find any words!!!");
+        }
+    }
+
+    /**
+     * Finds the k most important suggestions for the given input word, using the same criteria as
+     * {@link Trie#suggest(String, int)}.
+     *
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     * @return the suggestions, most important first
+     */
+    public List<Suggestion> suggest(String inputWord, int k) {
+        return suggest(inputWord, k, MatchOptions.DEFAULT);
+    }
+
+    /**
+     * Finds the k most important suggestions for the given input word under the given fuzzy matching options.
+     * Every shard finds its own k best on a worker thread, and the results are merged.
+     *
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     * @param options   the edit operations and distances that make a fuzzy match
+     * @return the suggestions, most important first
+     * @throws IllegalStateException if a shard fails or the calling thread is interrupted
+     */
+    public List<Suggestion> suggest(String inputWord, int k, MatchOptions options) {
+        List<Callable<List<Suggestion>>> tasks = new ArrayList<>(shards.length);
+        for (Trie shard : shards) {
+            tasks.add(() -> shard.suggest(inputWord, k, options));
+        }
+        List<Suggestion> merged = new ArrayList<>();
+        try {
+            for (List<Suggestion> suggestions : runAll(tasks)) {
+                merged.addAll(suggestions);
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not suggest words: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while suggesting words", e);
+        }
+        merged.sort(Comparator.comparingInt(Suggestion::importance).reversed());
+        return List.copyOf(merged.subList(0, Math.min(k, merged.size())));
+    }
+
+    /**
+     * Runs tasks on the worker pool and waits for all of them. A single task runs on the calling thread.
+     *
+     * @param tasks the tasks
+     * @param <T>   the type of the results
+     * @return the results, in the order of the tasks
+     * @throws ExecutionException   if a task failed
+     * @throws InterruptedException if the calling thread was interrupted while waiting
+     */
+    private <T> List<T> runAll(List<Callable<T>> tasks) throws ExecutionException, InterruptedException {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (tasks.size() == 1) {
+            try {
+                results.add(tasks.get(0).call());
+            } catch (Exception e) {
+                throw new ExecutionException(e);
+            }
+            return results;
+        }
+        for (Future<T> future : pool.invokeAll(tasks)) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    /**
+     * Shuts the worker pool down. Tasks already running finish; the ShardedTrie must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * The occurrences counted in one byte range of an importance file, kept apart per shard.
+     */
+    private static final class RangeCounts {
+        final List<Map<TrieNode, int[]>> counts;
+        long tokens;
+
+        /**
+         * Creates empty counts.
+         *
+         * @param shards the number of shards
+         */
+        RangeCounts(int shards) {
+            counts = new ArrayList<>(shards);
+            for (int s = 0; s < shards; s++) {
+                counts.add(new HashMap<>());
+            }
+        }
+    }
+}
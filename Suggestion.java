@@ -0,0 +1,107 @@
+package ID1069789.ID1070730;
+
+/**
+ * A word suggested for an input word, together with its importance and the way it matches the input word.
+ * Suggestions are immutable and compare equal when all three parts are equal.
+ */
+public final class Suggestion {
+
+    /**
+     * How a suggested word relates to the input word, following the criteria of {@link Trie#suggestWords(String, int)}.
+     */
+    public enum MatchType {
+        /** The word starts with the input word and is longer than it. */
+        PREFIX,
+        /** The word has the same length as the input word and differs from it in a few characters. */
+        SUBSTITUTION,
+        /** The word is a little longer or shorter than the input word. */
+        LENGTH_DIFFERENCE
+    }
+
+    private final String word;
+    private final int importance;
+    private final MatchType matchType;
+
+    /**
+     * Creates a suggestion.
+     *
+     * @param word       the suggested word
+     * @param importance the importance of the word
+     * @param matchType  how the word matches the input word
+     */
+    public Suggestion(String word, int importance, MatchType matchType) {
+        this.word = word;
+        this.importance = importance;
+        this.matchType = matchType;
+    }
+
+    /**
+     * Creates a suggestion, working out how the word matches the input word from the two words.
+     *
+     * @param word       the suggested word
+     * @param importance the importance of the word
+     * @param inputWord  the word the suggestion was made for
+     * @return the suggestion
+     */
+    static Suggestion of(String word, int importance, String inputWord) {
+        int length = inputWord.length();
+        MatchType matchType;
+        if (word.length() > length && word.regionMatches(true, 0, inputWord, 0, length)) {
+            matchType = MatchType.PREFIX;
+        } else if (word.length() == length) {
+            matchType = MatchType.SUBSTITUTION;
+        } else {
+            matchType = MatchType.LENGTH_DIFFERENCE;
+        }
+        return new Suggestion(word, importance, matchType);
+    }
+
+    /**
+     * Returns the suggested word.
+     *
+     * @return the word
+     */
+    public String word() {
+        return word;
+    }
+
+    /**
+     * Returns the importance of the suggested word.
+     *
+     * @return the importance
+     */
+    public int importance() {
+        return importance;
+    }
+
+    /**
+     * Returns how the suggested word matches the input word.
+     *
+     * @return the match type
+     */
+    public MatchType matchType() {
+        return matchType;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Suggestion)) {
+            return false;
+        }
+        Suggestion suggestion = (Suggestion) other;
+        return importance == suggestion.importance && word.equals(suggestion.word) && matchType == suggestion.matchType;
+    }
+
+    @Override
+    public int hashCode() {
+        return (31 * word.hashCode() + importance) * 31 + matchType.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return word + " (" + importance + ", " + matchType + ")";
+    }
+}
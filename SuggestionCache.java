@@ -0,0 +1,452 @@
+package ID1069789.ID1070730;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of suggestion results in front of a {@link Trie}, for traffic that asks for the same suggestions
+ * over and over. Results are keyed by input word, k and {@link MatchOptions}, and can be read from several threads.
+ * <p>
+ * Two eviction policies are available:
+ * - {@link Policy#LRU} evicts the result used least recently.
+ * - {@link Policy#TINY_LFU} follows W-TinyLFU: new results enter a small LRU window, and a result leaving the window
+ * replaces the least recently used result of the main area only if a frequency sketch has seen it asked for more
+ * often. The main area is a segmented LRU, where results asked for again are protected from results asked for once,
+ * so a burst of one-off queries cannot flush the popular ones.
+ * <p>
+ * Every result remembers the change of the Trie it reflects (see {@link ChangeLog}). On a hit, the changes made since
+ * are checked: a changed word makes the result stale only if it is a candidate for that query, that is if it starts
+ * with the input word or matches it under the options. Loading a dictionary or processing an importance file makes
+ * every result stale. Stale results are computed again and counted as invalidations.
+ * <p>
+ * The cache holds a lock only while looking up and updating its tables; suggestions are computed outside it, so
+ * concurrent misses are computed in parallel.
+ */
+public class SuggestionCache {
+
+    /**
+     * The eviction policies of the cache.
+     */
+    public enum Policy {
+        /** Evict the least recently used result. */
+        LRU,
+        /** Admit new results by frequency, in the style of W-TinyLFU. */
+        TINY_LFU
+    }
+
+    private final Trie trie;
+    private final Policy policy;
+    private final int capacity;
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final LinkedHashMap<Key, Entry> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Key, Entry> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Key, Entry> protectedArea = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Creates a cache in front of a Trie.
+     *
+     * @param trie     the Trie to ask for suggestions
+     * @param capacity the maximum number of results to keep
+     * @param policy   how to choose the result to evict
+     * @throws IllegalArgumentException if {@code capacity} is less than 1
+     */
+    public SuggestionCache(Trie trie, int capacity, Policy policy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+        }
+        this.trie = trie;
+        this.policy = policy;
+        this.capacity = capacity;
+        if (policy == Policy.TINY_LFU) {
+            windowCapacity = Math.max(1, capacity / 100);
+            protectedCapacity = (capacity - windowCapacity) * 4 / 5;
+            sketch = new FrequencySketch(capacity);
+        } else {
+            windowCapacity = capacity;
+            protectedCapacity = 0;
+            sketch = null;
+        }
+    }
+
+    /**
+     * Returns the suggestions of {@link Trie#suggest(String, int)}, from the cache if they are still current.
+     *
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     * @return the suggestions, most important first
+     */
+    public List<Suggestion> suggest(String inputWord, int k) {
+        return suggest(inputWord, k, MatchOptions.DEFAULT);
+    }
+
+    /**
+     * Returns the suggestions of {@link Trie#suggest(String, int, MatchOptions)}, from the cache if they are still
+     * current.
+     *
+     * @param inputWord the word to find suggestions for
+     * @param k         the number of suggestions to provide
+     * @param options   the edit operations and distances that make a fuzzy match
+     * @return the suggestions, most important first
+     */
+    public List<Suggestion> suggest(String inputWord, int k, MatchOptions options) {
+        Key key = new Key(inputWord, k, options);
+        Entry entry;
+        synchronized (this) {
+            if (sketch != null) {
+                sketch.increment(key);
+            }
+            entry = find(key);
+        }
+        if (entry != null) {
+            if (isCurrent(key, entry)) {
+                hits.increment();
+                return entry.suggestions;
+            }
+            invalidations.increment();
+            synchronized (this) {
+                remove(key, entry);
+            }
+        }
+
+        misses.increment();
+        long sequence = trie.changes.sequence();
+        List<Suggestion> suggestions = trie.suggest(inputWord, k, options);
+        Entry computed = new Entry(suggestions, sequence);
+        synchronized (this) {
+            if (find(key) == null) {
+                add(key, computed);
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Checks whether a cached result still reflects the Trie, and if so records that it is current up to now.
+     *
+     * @param key   the query of the result
+     * @param entry the cached result
+     * @return {@code true} if no change since the result was computed concerns it
+     */
+    private boolean isCurrent(Key key, Entry entry) {
+        long since = entry.sequence;
+        long now = trie.changes.sequence();
+        if (since == now) {
+            return true;
+        }
+        if (trie.changes.changedSince(since, now, key::isCandidate)) {
+            return false;
+        }
+        entry.sequence = now;
+        return true;
+    }
+
+    /**
+     * Looks up a result in every area and records the access. A result found in the probation area is promoted to
+     * the protected area. Callers hold the lock.
+     *
+     * @param key the query
+     * @return the cached result, or null
+     */
+    private Entry find(Key key) {
+        Entry entry = window.get(key);
+        if (entry != null || policy == Policy.LRU) {
+            return entry;
+        }
+        entry = protectedArea.get(key);
+        if (entry != null) {
+            return entry;
+        }
+        entry = probation.remove(key);
+        if (entry != null) {
+            protectedArea.put(key, entry);
+            if (protectedArea.size() > protectedCapacity) {
+                Iterator<Map.Entry<Key, Entry>> eldest = protectedArea.entrySet().iterator();
+                Map.Entry<Key, Entry> demoted = eldest.next();
+                eldest.remove();
+                probation.put(demoted.getKey(), demoted.getValue());
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Removes a result if it is still the one cached for its query. Callers hold the lock.
+     *
+     * @param key   the query
+     * @param entry the result to remove
+     */
+    private void remove(Key key, Entry entry) {
+        window.remove(key, entry);
+        probation.remove(key, entry);
+        protectedArea.remove(key, entry);
+    }
+
+    /**
+     * Adds a new result to the window and evicts as the policy requires. Callers hold the lock.
+     *
+     * @param key   the query
+     * @param entry the result
+     */
+    private void add(Key key, Entry entry) {
+        window.put(key, entry);
+        if (window.size() <= windowCapacity) {
+            return;
+        }
+        Iterator<Map.Entry<Key, Entry>> eldest = window.entrySet().iterator();
+        Map.Entry<Key, Entry> candidate = eldest.next();
+        eldest.remove();
+        if (policy == Policy.LRU) {
+            evictions.increment();
+            return;
+        }
+
+        int mainCapacity = capacity - windowCapacity;
+        if (probation.size() + protectedArea.size() < mainCapacity) {
+            probation.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+        LinkedHashMap<Key, Entry> victims = probation.isEmpty() ? protectedArea : probation;
+        if (victims.isEmpty()) {
+            evictions.increment();
+            return;
+        }
+        Iterator<Map.Entry<Key, Entry>> lru = victims.entrySet().iterator();
+        Map.Entry<Key, Entry> victim = lru.next();
+        if (sketch.frequency(candidate.getKey()) > sketch.frequency(victim.getKey())) {
+            lru.remove();
+            probation.put(candidate.getKey(), candidate.getValue());
+        }
+        evictions.increment();
+    }
+
+    /**
+     * Removes every cached result. The metrics are kept.
+     */
+    public synchronized void clear() {
+        window.clear();
+        probation.clear();
+        protectedArea.clear();
+    }
+
+    /**
+     * Returns the number of cached results.
+     *
+     * @return the number of results
+     */
+    public synchronized int size() {
+        return window.size() + probation.size() + protectedArea.size();
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return the number of hits
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that had to compute their result, including those whose cached result was stale.
+     *
+     * @return the number of misses
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of results dropped to stay within the capacity, including new results the
+     * {@link Policy#TINY_LFU} policy did not admit.
+     *
+     * @return the number of evictions
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the number of cached results found to be stale because the Trie changed.
+     *
+     * @return the number of invalidations
+     */
+    public long invalidationCount() {
+        return invalidations.sum();
+    }
+
+    /**
+     * Returns the share of lookups answered from the cache.
+     *
+     * @return the hit rate between 0 and 1, or 0 before the first lookup
+     */
+    public double hitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * The query a result answers.
+     */
+    private static final class Key {
+        final String inputWord;
+        final int k;
+        final MatchOptions options;
+
+        /**
+         * Creates a key.
+         *
+         * @param inputWord the word suggestions are made for
+         * @param k         the number of suggestions
+         * @param options   the fuzzy matching options
+         */
+        Key(String inputWord, int k, MatchOptions options) {
+            this.inputWord = inputWord;
+            this.k = k;
+            this.options = options;
+        }
+
+        /**
+         * Checks whether a word could be suggested for this query, so that a change to it may change the result.
+         *
+         * @param word the lowercase word
+         * @return {@code true} if the word starts with the input word or matches it under the options
+         */
+        boolean isCandidate(String word) {
+            String prefix = inputWord.toLowerCase();
+            if (word.length() > prefix.length() && word.startsWith(prefix)) {
+                return true;
+            }
+            FuzzyAutomaton automaton = new FuzzyAutomaton(inputWord, options);
+            for (int i = 0; i < word.length(); i++) {
+                if (!automaton.push(word.charAt(i))) {
+                    return false;
+                }
+            }
+            return automaton.matches();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return k == key.k && inputWord.equals(key.inputWord) && options.equals(key.options);
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * inputWord.hashCode() + k) * 31 + options.hashCode();
+        }
+    }
+
+    /**
+     * A cached result and the sequence number of the last change it is known to reflect.
+     */
+    private static final class Entry {
+        final List<Suggestion> suggestions;
+        volatile long sequence;
+
+        /**
+         * Creates an entry.
+         *
+         * @param suggestions the result
+         * @param sequence    the sequence number read before the result was computed
+         */
+        Entry(List<Suggestion> suggestions, long sequence) {
+            this.suggestions = suggestions;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Estimates how often each query has been asked for recently with a count-min sketch of four rows of small
+     * counters. All counters are halved once the sketch has seen ten increments per cached result, so old
+     * popularity fades.
+     */
+    private static final class FrequencySketch {
+        private static final int[] SEEDS = {0x97cb3127, 0xb1b5a9f5, 0x9e3779b9, 0xc2b2ae35};
+        private static final int MAX_COUNT = 15;
+
+        private final byte[][] rows;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        /**
+         * Creates a sketch sized for a cache.
+         *
+         * @param capacity the capacity of the cache
+         */
+        FrequencySketch(int capacity) {
+            int width = Integer.highestOneBit(Math.max(2 * capacity - 1, 16)) << 1;
+            rows = new byte[SEEDS.length][width];
+            mask = width - 1;
+            sampleSize = 10 * capacity;
+        }
+
+        /**
+         * Counts one more request for a key.
+         *
+         * @param key the key
+         */
+        void increment(Object key) {
+            int hash = key.hashCode();
+            for (int row = 0; row < rows.length; row++) {
+                int index = indexOf(hash, row);
+                if (rows[row][index] < MAX_COUNT) {
+                    rows[row][index]++;
+                }
+            }
+            if (++additions >= sampleSize) {
+                for (byte[] counters : rows) {
+                    for (int i = 0; i < counters.length; i++) {
+                        counters[i] >>= 1;
+                    }
+                }
+                additions /= 2;
+            }
+        }
+
+        /**
+         * Estimates how often a key has been requested.
+         *
+         * @param key the key
+         * @return the estimated count, never below the true count since the last halving
+         */
+        int frequency(Object key) {
+            int hash = key.hashCode();
+            int frequency = MAX_COUNT;
+            for (int row = 0; row < rows.length; row++) {
+                frequency = Math.min(frequency, rows[row][indexOf(hash, row)]);
+            }
+            return frequency;
+        }
+
+        /**
+         * Returns the counter a hash maps to in one row.
+         *
+         * @param hash the hash of the key
+         * @param row  the row
+         * @return the index of the counter
+         */
+        private int indexOf(int hash, int row) {
+            int mixed = hash * SEEDS[row];
+            return (mixed ^ mixed >>> 16) & mask;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package ID1069789.ID1070730;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Produces the suggestions of {@link Trie#suggestWords(String, int, MatchOptions)} one at a time, most important
+ * first, doing only as much work as the suggestions taken so far require.
+ * The Trie is searched best first: a priority queue holds unexplored subtrees ranked by
+ * {@link TrieNode#maxImportance} and words ranked by their importance, so a word is returned only once no remaining
+ * subtree can hold a more important one. A subtree is queued only while its path still starts like the input word
+ * or the fuzzy automaton can still match below it.
+ * Entries point to the entry of their parent instead of carrying their own path. The automaton follows the entry
+ * being expanded, stepping back only to the path that entry shares with the previous one.
+ * The iterator walks the root it was created with, so a {@link ConcurrentTrie} keeps serving it a consistent
+ * snapshot while words are inserted or removed.
+ */
+final class SuggestionIterator implements Iterator<Suggestion> {
+    private final String inputWord;
+    private final char[] lowerInput;
+    private final FuzzyAutomaton automaton;
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+    private char[] path = new char[16];
+    private char[] target = new char[16];
+    private Suggestion next;
+
+    /**
+     * Creates an iterator over the suggestions below a root.
+     *
+     * @param root      the root of the Trie to search
+     * @param inputWord the word to find suggestions for
+     * @param options   the edit operations and distances that make a fuzzy match
+     */
+    SuggestionIterator(TrieNode root, String inputWord, MatchOptions options) {
+        this.inputWord = inputWord;
+        this.lowerInput = inputWord.toLowerCase().toCharArray();
+        this.automaton = new FuzzyAutomaton(inputWord, options);
+        queue.add(new Entry(root, null, '\0', 0, true, root.maxImportance, false));
+    }
+
+    /**
+     * Checks whether there is another suggestion, searching for it if necessary.
+     *
+     * @return {@code true} if another suggestion exists
+     */
+    @Override
+    public boolean hasNext() {
+        while (next == null && !queue.isEmpty()) {
+            Entry entry = queue.poll();
+            if (entry.word) {
+                next = suggestionOf(entry);
+            } else {
+                expand(entry);
+            }
+        }
+        return next != null;
+    }
+
+    /**
+     * Returns the next most important suggestion.
+     *
+     * @return the suggestion
+     * @throws NoSuchElementException if there are no more suggestions
+     */
+    @Override
+    public Suggestion next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Suggestion suggestion = next;
+        next = null;
+        return suggestion;
+    }
+
+    /**
+     * Moves the automaton to the node of a subtree entry, queues the node's word if it is a suggestion,
+     * and queues every child that can still lead to one.
+     *
+     * @param entry the subtree entry
+     */
+    private void expand(Entry entry) {
+        moveTo(entry);
+        TrieNode node = entry.node;
+        int depth = entry.depth;
+        if (node.wordLength > 0 && (entry.onPrefix && depth > lowerInput.length || automaton.matches())) {
+            queue.add(new Entry(node, entry.parent, entry.key, depth, entry.onPrefix, node.importance, true));
+        }
+
+        char[] keys = node.keys;
+        TrieNode[] children = node.children;
+        for (int i = 0; i < children.length; i++) {
+            TrieNode child = children[i];
+            if (child != null) {
+                boolean childOnPrefix = entry.onPrefix && agreesWithInput(keys[i], child.label, depth);
+                if (automaton.push(keys[i]) && automaton.push(child.label) || childOnPrefix) {
+                    int childDepth = depth + 1 + (child.label == null ? 0 : child.label.length);
+                    queue.add(new Entry(child, entry, keys[i], childDepth, childOnPrefix, child.maxImportance, false));
+                }
+                automaton.popTo(depth);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the characters of an edge agree with the input word wherever the two overlap.
+     *
+     * @param key   the first character of the edge
+     * @param label the remaining characters of the edge, or null
+     * @param depth the number of characters before the edge
+     * @return {@code true} if no character of the edge contradicts the input word
+     */
+    private boolean agreesWithInput(char key, char[] label, int depth) {
+        if (depth < lowerInput.length && lowerInput[depth] != key) {
+            return false;
+        }
+        if (label != null) {
+            for (int j = 0; j < label.length && depth + 1 + j < lowerInput.length; j++) {
+                if (lowerInput[depth + 1 + j] != label[j]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Positions the automaton and the path buffer at the node of an entry, keeping the characters the entry's path
+     * shares with the current one.
+     *
+     * @param entry the entry to move to
+     */
+    private void moveTo(Entry entry) {
+        int depth = entry.depth;
+        if (target.length < depth) {
+            target = new char[Math.max(depth, 2 * target.length)];
+            path = Arrays.copyOf(path, target.length);
+        }
+        spell(entry, target);
+        int common = 0;
+        int current = automaton.depth();
+        while (common < current && common < depth && path[common] == target[common]) {
+            common++;
+        }
+        automaton.popTo(common);
+        for (int i = common; i < depth; i++) {
+            path[i] = target[i];
+            automaton.push(target[i]);
+        }
+    }
+
+    /**
+     * Writes the characters leading to an entry's node into a buffer by following the parent entries.
+     *
+     * @param entry  the entry
+     * @param buffer the buffer, at least as long as the entry's depth
+     */
+    private static void spell(Entry entry, char[] buffer) {
+        for (Entry e = entry; e.parent != null; e = e.parent) {
+            char[] label = e.node.label;
+            int end = e.depth;
+            if (label != null) {
+                end -= label.length;
+                System.arraycopy(label, 0, buffer, end, label.length);
+            }
+            buffer[end - 1] = e.key;
+        }
+    }
+
+    /**
+     * Turns a word entry into a suggestion. Words that start with the input word keep the input word's spelling for
+     * that part, as {@link Trie#suggestWords(String, int)} prints them.
+     *
+     * @param entry the word entry
+     * @return the suggestion
+     */
+    private Suggestion suggestionOf(Entry entry) {
+        char[] chars = new char[entry.depth];
+        spell(entry, chars);
+        int length = lowerInput.length;
+        String word = entry.onPrefix && entry.depth > length
+                ? inputWord + String.valueOf(chars, length, chars.length - length)
+                : new String(chars);
+        return Suggestion.of(word, entry.bound, inputWord);
+    }
+
+    /**
+     * An entry of the search: either a subtree that has not been explored yet or a word that will be suggested.
+     * Among equal ranks words come first, so suggestions are returned as early as possible.
+     */
+    private static final class Entry implements Comparable<Entry> {
+        final TrieNode node;
+        final Entry parent;
+        final char key;
+        final int depth;
+        final boolean onPrefix;
+        final int bound;
+        final boolean word;
+
+        /**
+         * Creates a search entry.
+         *
+         * @param node     the node of the subtree or word
+         * @param parent   the entry of the parent node, or null for the root
+         * @param key      the key of the edge from the parent node
+         * @param depth    the number of characters leading to the node
+         * @param onPrefix whether those characters agree with the input word wherever the two overlap
+         * @param bound    the importance of the word, or the bound on importance in the subtree
+         * @param word     whether this entry is a word rather than a subtree
+         */
+        Entry(TrieNode node, Entry parent, char key, int depth, boolean onPrefix, int bound, boolean word) {
+            this.node = node;
+            this.parent = parent;
+            this.key = key;
+            this.depth = depth;
+            this.onPrefix = onPrefix;
+            this.bound = bound;
+            this.word = word;
+        }
+
+        /**
+         * Orders entries by decreasing rank, words before subtrees of the same rank.
+         *
+         * @param other the entry to compare with
+         * @return a negative number if this entry should be taken first
+         */
+        @Override
+        public int compareTo(Entry other) {
+            if (bound != other.bound) {
+                return Integer.compare(other.bound, bound);
+            }
+            return Boolean.compare(other.word, word);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ID1069789.ID1070730;
+
+import java.util.Arrays;
+
+/**
+ * The shape of the Robin Hood Hashing tables in a Trie at one moment, as returned by {@link Trie#tableStatistics()}.
+ * Unlike the lookup counts of {@link Metrics}, these are exact and cost nothing until they are asked for: they are
+ * read from the probe lengths stored in the tables.
+ */
+public final class TableStatistics {
+    private final int tables;
+    private final long entries;
+    private final long slots;
+    private final long[] probeLengths;
+    private final long[] maxProbeLengths;
+
+    /**
+     * Creates the statistics.
+     *
+     * @param tables          the number of tables
+     * @param entries         the number of entries in all tables
+     * @param slots           the number of slots in all tables
+     * @param probeLengths    the number of entries stored at each probe length
+     * @param maxProbeLengths the number of tables with each longest probe length
+     */
+    TableStatistics(int tables, long entries, long slots, long[] probeLengths, long[] maxProbeLengths) {
+        this.tables = tables;
+        this.entries = entries;
+        this.slots = slots;
+        this.probeLengths = probeLengths;
+        this.maxProbeLengths = maxProbeLengths;
+    }
+
+    /**
+     * Returns the number of nodes whose children are kept in a hash table.
+     *
+     * @return the number of tables
+     */
+    public int tables() {
+        return tables;
+    }
+
+    /**
+     * Returns the number of entries in all tables.
+     *
+     * @return the number of entries
+     */
+    public long entries() {
+        return entries;
+    }
+
+    /**
+     * Returns the fraction of slots in use over all tables.
+     *
+     * @return the load, or 0 if there are no tables
+     */
+    public double load() {
+        return slots == 0 ? 0 : (double) entries / slots;
+    }
+
+    /**
+     * Returns how many entries sit at each distance from their home slot.
+     *
+     * @return a copy of the counts, indexed by probe length
+     */
+    public long[] probeLengths() {
+        return probeLengths.clone();
+    }
+
+    /**
+     * Returns how many tables have each longest probe length.
+     *
+     * @return a copy of the counts, indexed by the longest probe length of a table
+     */
+    public long[] maxProbeLengths() {
+        return maxProbeLengths.clone();
+    }
+
+    /**
+     * Returns the mean distance of the entries from their home slot.
+     *
+     * @return the mean probe length, or 0 if there are no entries
+     */
+    public double meanProbeLength() {
+        long sum = 0;
+        for (int length = 0; length < probeLengths.length; length++) {
+            sum += length * probeLengths[length];
+        }
+        return entries == 0 ? 0 : (double) sum / entries;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d tables, %d entries, load %.2f, mean probe length %.2f, probe lengths %s, "
+                        + "longest probe per table %s",
+                tables, entries, load(), meanProbeLength(), Arrays.toString(probeLengths),
+                Arrays.toString(maxProbeLengths));
+    }
+}
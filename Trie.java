@@ -1,23 +1,103 @@
 package ID1069789.ID1070730;
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Scanner;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /* * Represents a Trie data structure for efficient word storage and retrieval.
  * The Trie supports operations for inserting words, searching for words, 
  * processing importance scores, and suggesting similar words based on input criteria.
  * The Trie utilizes Robin Hood Hashing for efficient child node management.
  * It also provides mechanisms to load dictionaries and process importance from files.
+ * In compressed mode chains of single-child nodes are collapsed into one edge whose extra characters are kept
+ * as the label of the node below it (a radix or Patricia trie); all queries return the same results in both modes.
  */
 
 public class Trie {
-	  TrieNode root;
+	  /**
+	   * The number of file ranges per worker in {@link #processImportanceFile(String, int)}, so that a slow range
+	   * does not leave the other workers idle.
+	   */
+	  private static final int RANGES_PER_THREAD = 4;
+
+	  /**
+	   * The number of distinct input words per task in {@link #suggestWordsBatch(List, int, MatchOptions, int)}.
+	   */
+	  private static final int BATCH_GROUP_SIZE = 64;
+
+	  /**
+	   * The number of epochs after which importance is rescaled, see {@link #advanceEpoch()}.
+	   */
+	  private static final int RESCALE_EPOCHS = 8;
+
+	  /**
+	   * Returned by the importance walk when the word is not in the trie.
+	   */
+	  private static final int NOT_FOUND = Integer.MIN_VALUE;
+
+	  volatile TrieNode root;
+	  final float loadFactor;
+	  final boolean compressed;
+	  final ChangeLog changes = new ChangeLog();
+	  volatile int epoch;
+	  volatile int scaleEpoch;
 
 	  /**
 	     * Constructs an empty Trie.
 	     */
 	    public Trie() {
+	        this(RobinHoodHashing.DEFAULT_LOAD_FACTOR, false);
+	    }
+
+	    /**
+	     * Constructs an empty Trie, optionally in path-compressed mode.
+	     *
+	     * @param compressed whether chains of single-child nodes are collapsed into labelled edges
+	     */
+	    public Trie(boolean compressed) {
+	        this(RobinHoodHashing.DEFAULT_LOAD_FACTOR, compressed);
+	    }
+
+	    /**
+	     * Constructs an empty Trie whose child hash tables, used by nodes with many children,
+	     * grow once they are fuller than the given load factor.
+	     * Lower load factors trade memory for shorter probe sequences on nodes with many children.
+	     *
+	     * @param loadFactor the load factor of every child hash table, strictly between 0 and 1
+	     */
+	    public Trie(float loadFactor) {
+	        this(loadFactor, false);
+	    }
+
+	    /**
+	     * Constructs an empty Trie with the given child hash table load factor, optionally in path-compressed mode.
+	     *
+	     * @param loadFactor the load factor of every child hash table, strictly between 0 and 1
+	     * @param compressed whether chains of single-child nodes are collapsed into labelled edges
+	     */
+	    public Trie(float loadFactor, boolean compressed) {
+	        this.loadFactor = RobinHoodHashing.checkLoadFactor(loadFactor);
+	        this.compressed = compressed;
 	        root = new TrieNode();
 	    }
 	    
@@ -33,225 +113,394 @@ public class Trie {
 	     * @param k         the number of suggestions to provide
 	     */
 	    public void suggestWords(String inputWord, int k) {
+	        suggestWords(inputWord, k, MatchOptions.DEFAULT);
+	    }
+
+	    /**
+	     * Suggests a list of words similar to the given input word: words with the same prefix,
+	     * and words that match the input word under the given fuzzy matching options.
+	     *
+	     * @param inputWord the word to find suggestions for
+	     * @param k         the number of suggestions to provide
+	     * @param options   the edit operations and distances that make a fuzzy match
+	     */
+	    public void suggestWords(String inputWord, int k, MatchOptions options) {
+	        List<Suggestion> suggestions = suggest(inputWord, k, options);
+	        for (Suggestion suggestion : suggestions) {
+	            System.out.println(suggestion.word());
+	        }
+	        if (suggestions.isEmpty()) {
+	            System.out.println("Did not find any words!!!");
+	        }
+	    }
+
+	    /**
+	     * Finds the k most important suggestions for the given input word, using the same criteria as {@link #suggestWords(String, int)}.
+	     *
+	     * @param inputWord the word to find suggestions for
+	     * @param k         the number of suggestions to provide
+	     * @return the suggestions, most important first
+	     */
+	    public List<Suggestion> suggest(String inputWord, int k) {
+	        return suggest(inputWord, k, MatchOptions.DEFAULT);
+	    }
+
+	    /**
+	     * Finds the k most important words that start with the given input word or match it under the given fuzzy
+	     * matching options.
+	     * While {@link Metrics} is recording, the nodes visited, candidates found and time spent in each phase of the
+	     * search are counted locally and recorded once the search is done.
+	     * The root is read once, so every phase searches the same version of a {@link ConcurrentTrie}.
+	     *
+	     * @param inputWord the word to find suggestions for
+	     * @param k         the number of suggestions to provide
+	     * @param options   the edit operations and distances that make a fuzzy match
+	     * @return the suggestions, most important first
+	     */
+	    public List<Suggestion> suggest(String inputWord, int k, MatchOptions options) {
+	        return suggest(root, inputWord, k, options);
+	    }
+
+	    /**
+	     * Finds the k most important words below the given root that start with the given input word or match it
+	     * under the given fuzzy matching options.
+	     *
+	     * @param start     the root node to search below
+	     * @param inputWord the word to find suggestions for
+	     * @param k         the number of suggestions to provide
+	     * @param options   the edit operations and distances that make a fuzzy match
+	     * @return the suggestions, most important first
+	     */
+	    private List<Suggestion> suggest(TrieNode start, String inputWord, int k, MatchOptions options) {
 	    MinHeap minHeap = new MinHeap(k+1);
+	        boolean recording = Metrics.enabled;
+	        long startTime = recording ? System.nanoTime() : 0L;
 
-	        TrieNode node = search(inputWord);
+	        String prefixPath = locatePrefix(start, inputWord);
+	        long located = recording ? System.nanoTime() : 0L;
 
-	       
-	        if (node != null) {
-	          findWordsWithPrefix(node, inputWord,false, minHeap, k);
+	        int prefixNodes = 0;
+	        if (prefixPath != null) {
+	          char[] path = prefixPath.toLowerCase().toCharArray();
+	          prefixNodes = findWordsWithPrefix(search(start, path, path.length), prefixPath, prefixPath.length() > inputWord.length(), minHeap, k);
 	       }
+	        int prefixOffers = minHeap.offers();
+	        long prefixed = recording ? System.nanoTime() : 0L;
 
+	        FuzzyAutomaton automaton = new FuzzyAutomaton(inputWord, options);
+	        int fuzzyNodes = findFuzzyMatches(start, new char[automaton.maxDepth()], 0, automaton, minHeap, k);
+	        if (recording) {
+	            long end = System.nanoTime();
+	            Metrics.recordPhase(Metrics.Phase.LOCATE, 0, 0, located - startTime);
+	            Metrics.recordPhase(Metrics.Phase.PREFIX, prefixNodes, prefixOffers, prefixed - located);
+	            Metrics.recordPhase(Metrics.Phase.FUZZY, fuzzyNodes, minHeap.offers() - prefixOffers, end - prefixed);
+	            Metrics.recordQuery(minHeap.offers(), minHeap.offers() - minHeap.size());
+	        }
 	      
-	      findWordsWithCharacterDifferencesAtLeast2(root, inputWord, minHeap, k);
-
-	        
-	        findWordsWithDifferentLengths(root, "", inputWord, minHeap, k);
-	      
-	        String[] suggestions = new String[k];
-	        int i=k-1;
-	        while (!minHeap.isEmpty()) {
-	        	suggestions[i]=minHeap.poll(this);
-	        	i--;
-	        }
-	       boolean didFind=false;
-	      for(int s=0;s<suggestions.length;s++) 
-	    	  if(suggestions[s]!=null) { 
-	    		  didFind=true;
-	  
-	    	  System.out.println(suggestions[s]);
-	    	  }
-	      
-	      if(!didFind)
-	    	  System.out.println("Did not find any words!!!");
-	      
+	        Suggestion[] suggestions = new Suggestion[minHeap.size()];
+	        for (int i = suggestions.length - 1; i >= 0; i--) {
+	            int importance = minHeap.minImportance();
+	            suggestions[i] = Suggestion.of(minHeap.poll(), importance, inputWord);
+	        }
+	        return List.of(suggestions);
 	    }
 
-	    
-	    
 	    /**
-	     * Finds words with the same prefix as the given input word.
+	     * Returns the suggestions for the given input word lazily, most important first, using the same criteria as
+	     * {@link #suggestWords(String, int)}.
 	     *
-	     * @param node       the current TrieNode to explore
-	     * @param prefix     the prefix to match
-	     * @param userWord   whether to include the user's exact word
-	     * @param minHeap    the MinHeap to store suggestions
-	     * @param k          the number of suggestions to provide
+	     * @param inputWord the word to find suggestions for
+	     * @return a stream of every suggestion
 	     */
-	    private void findWordsWithPrefix(TrieNode node, String prefix,boolean userWord, MinHeap minHeap, int k) {
-	       
-	       if(userWord && node.wordLength > 0) 
-	            addToHeap(minHeap, prefix, k); 
-	        
+	    public Stream<Suggestion> suggestions(String inputWord) {
+	        return suggestions(inputWord, MatchOptions.DEFAULT);
+	    }
 
-	       
-	        for (int i = 0; i < node.children.capacity; i++) {
-	            Element element = node.children.table[i];
-	            if (element != null) {
-	                findWordsWithPrefix(element.trieNode, prefix + element.key,true, minHeap, k);
-	            }
-	        }
+	    /**
+	     * Returns the words that start with the given input word or match it under the given fuzzy matching options
+	     * lazily, most important first.
+	     * The Trie is searched only as far as the suggestions consumed so far require, so taking the first few
+	     * suggestions of a long stream is cheap and a stream can be paged through with skip and limit.
+	     * Importance is read as the search reaches each word, so while other threads add importance the stream may
+	     * return a word after one that has since become less important than it.
+	     *
+	     * @param inputWord the word to find suggestions for
+	     * @param options   the edit operations and distances that make a fuzzy match
+	     * @return a stream of every suggestion
+	     */
+	    public Stream<Suggestion> suggestions(String inputWord, MatchOptions options) {
+	        Iterator<Suggestion> iterator = new SuggestionIterator(root, inputWord, options);
+	        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+	                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
 	    }
 
-	    
 	    /**
-	     * Finds words with at most two character differences from the input word.
+	     * Finds the k most important suggestions for each of many input words, using the same criteria as {@link #suggestWords(String, int)}.
 	     *
-	     * @param node       the current TrieNode to explore
-	     * @param inputWord  the input word to compare
-	     * @param minHeap    the MinHeap to store suggestions
-	     * @param k          the number of suggestions to provide
+	     * @param inputWords the words to find suggestions for
+	     * @param k          the number of suggestions to provide for each word
+	     * @return the suggestions for each input word, in the order of the input words, most important first
 	     */
-	    private void findWordsWithCharacterDifferencesAtLeast2(TrieNode node, String inputWord,MinHeap minHeap, int k) {
-	        findWordsHelper(node, "", inputWord, minHeap, k);
+	    public List<List<Suggestion>> suggestWordsBatch(List<String> inputWords, int k) {
+	        return suggestWordsBatch(inputWords, k, MatchOptions.DEFAULT, 1);
 	    }
 
 	    /**
-	     * Recursively explores the Trie to find words with at most two character differences.
+	     * Finds the k most important suggestions for each of many input words.
+	     * Repeated input words are answered once. The distinct words are cut into groups that run on a
+	     * {@link ForkJoinPool} when more than one thread is requested, so a slow group does not leave the other
+	     * workers idle.
+	     * The results are the same as calling {@link #suggest(String, int, MatchOptions)} for each word.
+	     * The root is read once, so on a {@link ConcurrentTrie} every word is answered from the same version even
+	     * while it is being modified. A plain Trie must not be modified while the batch runs.
 	     *
-	     * @param node       the current TrieNode
-	     * @param prefix     the word prefix formed so far
-	     * @param inputWord  the input word to compare
-	     * @param minHeap    the MinHeap to store suggestions
-	     * @param k          the number of suggestions to provide
+	     * @param inputWords the words to find suggestions for
+	     * @param k          the number of suggestions to provide for each word
+	     * @param options    the edit operations and distances that make a fuzzy match
+	     * @param threads    the number of worker threads
+	     * @return the suggestions for each input word, in the order of the input words, most important first
+	     * @throws IllegalArgumentException if {@code threads} is less than 1
 	     */
-	    private void findWordsHelper(TrieNode node, String prefix, String inputWord, MinHeap minHeap, int k) {
-	       
-	        if (node.wordLength > 0) {
-	        
-	            if (prefix.length()  == inputWord.length() && countCharacterDifferences(prefix, inputWord) <= 2) {
-	                addToHeap(minHeap, prefix, k); 
+	    public List<List<Suggestion>> suggestWordsBatch(List<String> inputWords, int k, MatchOptions options, int threads) {
+	        if (threads < 1) {
+	            throw new IllegalArgumentException("Thread count must be at least 1: " + threads);
+	        }
+	        TrieNode start = root;
+	        String[] distinct = inputWords.stream().distinct().toArray(String[]::new);
+	        List<List<Suggestion>> distinctResults = new ArrayList<>(Collections.nCopies(distinct.length, null));
+	        if (threads == 1) {
+	            suggestGroup(start, distinct, 0, distinct.length, k, options, distinctResults);
+	        } else {
+	            List<Callable<Void>> tasks = new ArrayList<>();
+	            for (int from = 0; from < distinct.length; from += BATCH_GROUP_SIZE) {
+	                int first = from;
+	                int last = Math.min(from + BATCH_GROUP_SIZE, distinct.length);
+	                tasks.add(() -> {
+	                    suggestGroup(start, distinct, first, last, k, options, distinctResults);
+	                    return null;
+	                });
+	            }
+	            ForkJoinPool pool = new ForkJoinPool(threads);
+	            try {
+	                for (Future<Void> task : pool.invokeAll(tasks)) {
+	                    task.get();
+	                }
+	            } catch (ExecutionException e) {
+	                throw new IllegalStateException("Could not suggest words: " + e.getCause().getMessage(), e.getCause());
+	            } catch (InterruptedException e) {
+	                Thread.currentThread().interrupt();
+	                throw new IllegalStateException("Interrupted while suggesting words", e);
+	            } finally {
+	                pool.shutdown();
 	            }
 	        }
 
-	        
-	        for (int i = 0; i < node.children.table.length; i++) {
-	            Element element = node.children.table[i];
-	            if (element != null) {
-	               
-	                findWordsHelper(element.trieNode, prefix + element.key, inputWord, minHeap, k);
-	            }
+	        Map<String, List<Suggestion>> byWord = new HashMap<>();
+	        for (int i = 0; i < distinct.length; i++) {
+	            byWord.put(distinct[i], distinctResults.get(i));
 	        }
+	        List<List<Suggestion>> results = new ArrayList<>(inputWords.size());
+	        for (String inputWord : inputWords) {
+	            results.add(byWord.get(inputWord));
+	        }
+	        return results;
 	    }
 
 	    /**
-	     * Counts the number of differing characters between two words.
+	     * Finds the suggestions for a range of the distinct input words of a batch.
 	     *
-	     * @param word1 the first word
-	     * @param word2 the second word
-	     * @return the number of character differences
+	     * @param start      the root node to search below
+	     * @param inputWords the distinct input words of the batch
+	     * @param from       the index of the first word of the range
+	     * @param to         the index after the last word of the range
+	     * @param k          the number of suggestions to provide for each word
+	     * @param options    the edit operations and distances that make a fuzzy match
+	     * @param results    the list receiving the suggestions of each word at the word's index
 	     */
-	    private int countCharacterDifferences(String word1, String word2) {
-	        int differences = 0;
-
-	        for (int i = 0; i < word1.length(); i++) {
-	            if (word1.charAt(i) != word2.charAt(i)) {
-	                differences++;
-	            }
+	    private void suggestGroup(TrieNode start, String[] inputWords, int from, int to, int k, MatchOptions options,
+	            List<List<Suggestion>> results) {
+	        for (int i = from; i < to; i++) {
+	            results.set(i, suggest(start, inputWords[i], k, options));
 	        }
-
-	        return differences;
 	    }
 
+	    
+	    
 	    /**
-	     * Finds words in the Trie that differ in length from the input word by:
-	     * - Up to two additional characters (length difference of +1 or +2), where the input word is a subsequence of the candidate.
-	     * - Exactly one fewer character (length difference of -1), where the candidate can be formed by removing a single character from the input word.
+	     * Finds the k most important words with the same prefix as the given input word.
+	     * The subtree is searched best first: a priority queue holds unexplored subtrees ranked by
+	     * {@link TrieNode#maxImportance} and words ranked by their importance, so a word is taken only once no
+	     * remaining subtree can hold a more important one, and the search stops after k words.
+	     * Entries point to the entry of their parent instead of carrying their own path, so a word is spelled out
+	     * only when it is suggested.
 	     *
-	     * @param node       The current TrieNode being explored.
-	     * @param prefix     The prefix formed so far during the traversal of the Trie.
-	     * @param inputWord  The input word for which similar words are being searched.
-	     * @param minHeap    The MinHeap used to store and manage the top-k suggestions.
-	     * @param k          The maximum number of suggestions to store in the MinHeap.
+	     * @param node       the node reached by the prefix
+	     * @param prefix     the prefix to match
+	     * @param userWord   whether a word ending at this node is included
+	     * @param minHeap    the MinHeap to store suggestions
+	     * @param k          the number of suggestions to provide
+	     * @return the number of nodes whose children were explored
 	     */
-	    private void findWordsWithDifferentLengths(TrieNode node, String prefix, String inputWord, MinHeap minHeap, int k) {
-	        
-	    	if (node.wordLength > 0) {
-	            int lengthDifference = prefix.length() - inputWord.length();
-	            
-	            
-	            if ((lengthDifference == 1 || lengthDifference == 2) && isSubsequence(inputWord, prefix)) {
-	              
-	            	addToHeap(minHeap, prefix, k);
+	    private int findWordsWithPrefix(TrieNode node, String prefix,boolean userWord, MinHeap minHeap, int k) {
+	        PriorityQueue<Branch> queue = new PriorityQueue<>();
+	        queue.add(new Branch(node, null, '\0', node.maxImportance, false));
+	        int found = 0;
+	        int visited = 0;
+	        while (found < k && !queue.isEmpty()) {
+	            Branch branch = queue.poll();
+	            if (isFull(minHeap, k) && branch.bound <= minHeap.minImportance()) {
+	                return visited;
+	            }
+	            if (branch.word) {
+	                addToHeap(minHeap, branch.path(prefix), branch.bound, k);
+	                found++;
+	                continue;
 	            }
 
-	            
-	            if (lengthDifference == -1 && isMissingOneCharacter(inputWord, prefix)) {
-	                addToHeap(minHeap, prefix, k);
+	            TrieNode current = branch.node;
+	            visited++;
+	            if (current.wordLength > 0 && (userWord || current != node)) {
+	                queue.add(new Branch(current, branch.parent, branch.key, current.importance, true));
+	            }
+	            char[] keys = current.keys;
+	            TrieNode[] children = current.children;
+	            for (int i = 0; i < children.length; i++) {
+	                TrieNode child = children[i];
+	                if (child != null) {
+	                    queue.add(new Branch(child, branch, keys[i], child.maxImportance, false));
+	                }
 	            }
 	        }
+	        return visited;
+	    }
 
-	        for (int i = 0; i < node.children.table.length; i++) {
-	            Element element = node.children.table[i];
-	            if (element != null) {
-	                findWordsWithDifferentLengths(element.trieNode, prefix + element.key, inputWord, minHeap, k);
+	    /**
+	     * An entry of the best-first prefix search: either a subtree still to be explored, ranked by the bound on its
+	     * importance, or a word ready to be suggested, ranked by its own importance.
+	     * Among equal ranks words come first, so the search can stop as early as possible.
+	     */
+	    private static final class Branch implements Comparable<Branch> {
+	        final TrieNode node;
+	        final Branch parent;
+	        final char key;
+	        final int bound;
+	        final boolean word;
+
+	        /**
+	         * Creates a search entry.
+	         *
+	         * @param node   the node of the subtree or word
+	         * @param parent the entry of the parent node, or null for the node reached by the prefix
+	         * @param key    the key of the edge from the parent node
+	         * @param bound  the importance of the word, or the bound on importance in the subtree
+	         * @param word   whether this entry is a word rather than a subtree
+	         */
+	        Branch(TrieNode node, Branch parent, char key, int bound, boolean word) {
+	            this.node = node;
+	            this.parent = parent;
+	            this.key = key;
+	            this.bound = bound;
+	            this.word = word;
+	        }
+
+	        /**
+	         * Spells out the characters leading to this entry's node by following the parent entries.
+	         *
+	         * @param prefix the characters leading to the node the search started from
+	         * @return the path of the node
+	         */
+	        String path(String prefix) {
+	            int length = prefix.length();
+	            for (Branch branch = this; branch.parent != null; branch = branch.parent) {
+	                length += 1 + (branch.node.label == null ? 0 : branch.node.label.length);
+	            }
+	            char[] path = new char[length];
+	            prefix.getChars(0, prefix.length(), path, 0);
+	            int end = length;
+	            for (Branch branch = this; branch.parent != null; branch = branch.parent) {
+	                char[] label = branch.node.label;
+	                if (label != null) {
+	                    end -= label.length;
+	                    System.arraycopy(label, 0, path, end, label.length);
+	                }
+	                path[--end] = branch.key;
+	            }
+	            return new String(path);
+	        }
+
+	        /**
+	         * Orders entries by decreasing rank, words before subtrees of the same rank.
+	         *
+	         * @param other the entry to compare with
+	         * @return a negative number if this entry should be taken first
+	         */
+	        @Override
+	        public int compareTo(Branch other) {
+	            if (bound != other.bound) {
+	                return Integer.compare(other.bound, bound);
 	            }
+	            return Boolean.compare(other.word, word);
 	        }
 	    }
 
 	    /**
-	     * Checks if the input string is a subsequence of the candidate string.
-	     * A string is considered a subsequence of another if all characters of the input string
-	     * appear in the candidate string in the same order, but not necessarily consecutively.
-	     * For example:
-	     * - "abc" is a subsequence of "aebdc".
-	     * - "abc" is not a subsequence of "acb".
+	     * Checks whether the heap already holds k suggestions, so that a subtree whose importance bound does not exceed
+	     * the least important of them cannot improve the suggestions any more.
 	     *
-	     * @param input     The string to check as a subsequence.
-	     * @param candidate The string in which the subsequence is being checked.
-	     * @return {@code true} if the input string is a subsequence of the candidate string;
-	     *         {@code false} otherwise.
+	     * @param minHeap the MinHeap of suggestions
+	     * @param k       the number of suggestions to provide
+	     * @return {@code true} if the heap holds k suggestions
 	     */
-	    private boolean isSubsequence(String input, String candidate) {
-	        int i = 0, j = 0;
-	        while (i < input.length() && j < candidate.length()) {
-	            if (input.charAt(i) == candidate.charAt(j)) {
-	                i++;
-	            }
-	            j++;
-	        }
-	        return i == input.length();
+	    private static boolean isFull(MinHeap minHeap, int k) {
+	        return minHeap.size() >= k;
 	    }
 
 	    
-	    
-	    
 	    /**
-	     * Checks if the given prefix can be formed by removing exactly one character from the input word.
-	     * This method checks if the prefix is of length one less than the input word and if the input word
-	     * can be transformed into the prefix by removing exactly one character (and keeping the order of the remaining characters).
-	     * For example:
-	     * - "plan" and "pan" are valid because removing 'l' from "plan" gives "pan".
-	     * - "plan" and "pla" are valid because removing 'n' from "plan" gives "pla".
-	     * - "plan" and "pln" is not valid because multiple characters are missing.
+	     * Recursively explores the Trie to find words that are fuzzy matches of the input word.
+	     * The automaton reads the characters along the way, and a subtree is left as soon as no word in it can match.
+	     * Once k suggestions have been found, subtrees whose importance bound does not exceed the least important of
+	     * them are skipped as well, since they can at best tie with it.
+	     * The characters of the current path are kept in one buffer shared by the whole search, and a word is turned
+	     * into a String only when it enters the heap.
 	     *
-	     * @param inputWord the original word from which a character is removed
-	     * @param prefix    the prefix that may have one character removed from the input word
-	     * @return {@code true} if the prefix can be formed by removing exactly one character from the input word;
-	     *         {@code false} otherwise.
+	     * @param node       the current TrieNode
+	     * @param path       the buffer holding the characters leading to the node
+	     * @param depth      the number of characters leading to the node
+	     * @param automaton  the automaton positioned after those characters
+	     * @param minHeap    the MinHeap to store suggestions
+	     * @param k          the number of suggestions to provide
+	     * @return the number of nodes visited, including this one
 	     */
-	    private boolean isMissingOneCharacter(String inputWord, String prefix) {
-	        if (prefix.length() != inputWord.length() - 1) {
-	            return false; 
+	    private int findFuzzyMatches(TrieNode node, char[] path, int depth, FuzzyAutomaton automaton, MinHeap minHeap, int k) {
+	        if (isFull(minHeap, k) && node.maxImportance <= minHeap.minImportance()) {
+	            return 1;
+	        }
+	        int visited = 1;
+	        if (node.wordLength > 0 && automaton.matches()
+	                && !(isFull(minHeap, k) && node.importance <= minHeap.minImportance())) {
+	            addToHeap(minHeap, new String(path, 0, depth), node.importance, k);
 	        }
 
-	        int i = 0, j = 0;
-	        boolean skippedOne = false;
-
-	        while (i < inputWord.length() && j < prefix.length()) {
-	            if (inputWord.charAt(i) != prefix.charAt(j)) {
-	                if (skippedOne) {
-	                    return false; 
+	        char[] keys = node.keys;
+	        TrieNode[] children = node.children;
+	        for (int i = 0; i < children.length; i++) {
+	            TrieNode child = children[i];
+	            if (child != null) {
+	                if (automaton.push(keys[i]) && automaton.push(child.label)) {
+	                    path[depth] = keys[i];
+	                    int childDepth = depth + 1;
+	                    char[] label = child.label;
+	                    if (label != null) {
+	                        System.arraycopy(label, 0, path, childDepth, label.length);
+	                        childDepth += label.length;
+	                    }
+	                    visited += findFuzzyMatches(child, path, childDepth, automaton, minHeap, k);
 	                }
-	                skippedOne = true; 
-	                i++;
-	            } else {
-	                i++;
-	                j++;
+	                automaton.popTo(depth);
 	            }
 	        }
-
-	        return true;
+	        return visited;
 	    }
 
 	    /**
@@ -262,52 +511,57 @@ public class Trie {
 	     *
 	     * @param minHeap the MinHeap to store the top-k words based on their importance
 	     * @param word    the word to be added to the heap
+	     * @param importance the importance of the word
 	     * @param k       the maximum number of words to keep in the heap
 	     */
-	    private void addToHeap(MinHeap minHeap, String word, int k) {
+	    private static void addToHeap(MinHeap minHeap, String word, int importance, int k) {
 	       
 	        if (minHeap.contains(word)) { 
 	            return; 
 	        }
 
-	        TrieNode node = search(word);
-	        if (node != null) {
-	            minHeap.offer(word,this);
+	        minHeap.offer(word, importance);
 	               
-	            if (minHeap.size() > k) {
-	                 minHeap.poll(this);
-	               
-	            }
-	        } 
+	        if (minHeap.size() > k) {
+	             minHeap.poll();
+	        }
 	    }
 
 
 	    /**
 	     * Loads a dictionary from the specified file into the Trie.
+	     * The file is read as UTF-8 through a {@link WordTokenizer}, so no String is created per word.
+	     * The number of words, the size of the file and the time it took are recorded in {@link Metrics} while
+	     * recording is on.
 	     *
 	     * @param dictionaryFile the file containing dictionary words
 	     */
 	    public  void loadDictionary(String dictionaryFile){
-	    	 
-	    	File file = new File(dictionaryFile);
-	    	  
-	    	  try (Scanner scanner = new Scanner(file)) {
+	    	  boolean recording = Metrics.enabled;
+	    	  long start = recording ? System.nanoTime() : 0L;
+	    	  long words = 0;
+	    	  long bytes = 0;
+	    	  try (FileChannel channel = FileChannel.open(Paths.get(dictionaryFile), StandardOpenOption.READ)) {
+	    		  bytes = channel.size();
+	    		  WordTokenizer tokens = new WordTokenizer(channel, 0, bytes);
 	            
-	    		  while (scanner.hasNext()) {
-	                  String dirtyWord = scanner.next();
-	                  String cleanWord="";
-	                  
-	                  
-	                  for(int i=0;i<dirtyWord.length();i++) {
-	                	  if((Character.isLetter(dirtyWord.charAt(i))))
-	                           cleanWord+=dirtyWord.charAt(i); }
-	                 
-	                insert(cleanWord); 
+	    		  while (tokens.next()) {
+	                  tokens.keepLetters();
+	                  tokens.toLowerCase();
+	                  insert(tokens.token, tokens.length); 
+	                  words++;
 	    		  }
 	        }
-	    	  catch (FileNotFoundException e) {
+	    	  catch (NoSuchFileException e) {
 	              System.out.println("File not found: " + e.getMessage());
-	          }		
+	          }
+	    	  catch (IOException e) {
+	              System.out.println("Could not read file: " + e.getMessage());
+	          }
+	        changes.allChanged();
+	        if (recording) {
+	            Metrics.recordDictionary(words, bytes, System.nanoTime() - start);
+	        }
 	        System.out.println("Dictionary loaded into Trie.\n");
 	    }
 	    
@@ -315,33 +569,379 @@ public class Trie {
 	    /**
 	     * Processes a file to count word importance.
 	     * Each occurrence of a dictionary word in the file increases its importance.
+	     * Tokens are cleaned as by {@link #clean(String)} and looked up directly from the tokenizer's buffer,
+	     * so no String is created per token.
+	     * The number of tokens, the size of the file and the time it took are recorded in {@link Metrics} while
+	     * recording is on.
 	     *
 	     * @param importanceFile the file to process
 	     */
 	    public void processImportanceFile(String importanceFile) {
-	        File file = new File(importanceFile);
-
-	        try (Scanner scanner = new Scanner(file)) {
-	            while (scanner.hasNext()) {
-	                String dirtyWord = scanner.next();
-
-	                
-	                String cleanWord = clean(dirtyWord);
-                   
-	                if (cleanWord!="") { 
-	                
-	                    TrieNode node = search(cleanWord.toLowerCase());
+	        int weight = weight(1);
+	        boolean recording = Metrics.enabled;
+	        long start = recording ? System.nanoTime() : 0L;
+	        long count = 0;
+	        long bytes = 0;
+	        try (FileChannel channel = FileChannel.open(Paths.get(importanceFile), StandardOpenOption.READ)) {
+	            bytes = channel.size();
+	            WordTokenizer tokens = new WordTokenizer(channel, 0, bytes);
+	            while (tokens.next()) {
+	                count++;
+	                if (tokens.cleanTrailing()) { 
+	                    tokens.toLowerCase();
+	                    TrieNode node = search(tokens.token, tokens.length);
 	                    if (node != null) {
-	                        node.importance++; 
+	                        addImportance(node, weight);
 	                    }
 	                }
 	            }
-	        } catch (FileNotFoundException e) {
+	            updateMaxImportance(root);
+	        } catch (NoSuchFileException e) {
 	            System.out.println("File not found: " + e.getMessage());
+	        } catch (IOException e) {
+	            System.out.println("Could not read file: " + e.getMessage());
+	        }
+	        changes.allChanged();
+	        if (recording) {
+	            Metrics.recordImportanceFile(count, bytes, System.nanoTime() - start);
 	        }
 	        System.out.println("Importance file processed.\n");
 	    }
 
+	    /**
+	     * Processes a file to count word importance using several threads.
+	     * The file is split into newline-aligned byte ranges that are tokenized on a {@link ForkJoinPool}.
+	     * Each range counts occurrences in its own map keyed by terminal node, and the maps are added to the trie
+	     * at the end on the calling thread, so workers never write to shared nodes.
+	     * The resulting importances are the same as those of {@link #processImportanceFile(String)}, and the same
+	     * figures are recorded in {@link Metrics}.
+	     * The trie must not be modified while the file is processed.
+	     *
+	     * @param importanceFile the file to process
+	     * @param threads        the number of worker threads
+	     * @throws IllegalArgumentException if {@code threads} is less than 1
+	     */
+	    public void processImportanceFile(String importanceFile, int threads) {
+	        if (threads < 1) {
+	            throw new IllegalArgumentException("Thread count must be at least 1: " + threads);
+	        }
+	        boolean recording = Metrics.enabled;
+	        long start = recording ? System.nanoTime() : 0L;
+	        LongAdder tokenCount = new LongAdder();
+	        long bytes = 0;
+	        ForkJoinPool pool = new ForkJoinPool(threads);
+	        try (FileChannel channel = FileChannel.open(Paths.get(importanceFile), StandardOpenOption.READ)) {
+	            bytes = channel.size();
+	            long[] bounds = WordTokenizer.lineAlignedRanges(channel, threads * RANGES_PER_THREAD);
+	            List<Callable<Map<TrieNode, int[]>>> tasks = new ArrayList<>();
+	            for (int r = 0; r + 1 < bounds.length; r++) {
+	                long from = bounds[r];
+	                long to = bounds[r + 1];
+	                tasks.add(() -> countImportance(channel, from, to, tokenCount));
+	            }
+	            List<Map<TrieNode, int[]>> counts = new ArrayList<>();
+	            for (Future<Map<TrieNode, int[]>> rangeCounts : pool.invokeAll(tasks)) {
+	                counts.add(rangeCounts.get());
+	            }
+	            addCounts(counts);
+	        } catch (NoSuchFileException e) {
+	            System.out.println("File not found: " + e.getMessage());
+	        } catch (IOException e) {
+	            System.out.println("Could not read file: " + e.getMessage());
+	        } catch (ExecutionException e) {
+	            System.out.println("Could not read file: " + e.getCause().getMessage());
+	        } catch (InterruptedException e) {
+	            Thread.currentThread().interrupt();
+	            System.out.println("Interrupted while processing file: " + importanceFile);
+	        } finally {
+	            pool.shutdown();
+	        }
+	        changes.allChanged();
+	        if (recording) {
+	            Metrics.recordImportanceFile(tokenCount.sum(), bytes, System.nanoTime() - start);
+	        }
+	        System.out.println("Importance file processed.\n");
+	    }
+
+	    /**
+	     * Adds to the importance of a word as live traffic arrives, without processing a whole importance file.
+	     * The word is found and the importance bounds on its path are raised in a single walk, which allocates nothing
+	     * for a lowercase word. The delta may be negative; bounds are never lowered, so they stay upper bounds and
+	     * suggestions stay exact, they only prune a little less until the next importance file is processed.
+	     * The delta is weighted by the current epoch, see {@link #advanceEpoch()}.
+	     *
+	     * @param word  the word whose importance changes
+	     * @param delta the amount to add
+	     * @return {@code true} if the word was found
+	     */
+	    public boolean addImportance(String word, int delta) {
+	        return addWeightedImportance(word.toLowerCase(), weight(delta));
+	    }
+
+	    /**
+	     * Counts a batch of tokens from live traffic, each occurrence of a dictionary word adding one to its importance
+	     * as if it had been read from an importance file. Tokens are cleaned as by {@link #clean(String)}.
+	     *
+	     * @param tokens the tokens to count
+	     * @return the number of tokens that were dictionary words
+	     */
+	    public int addTokens(Iterable<String> tokens) {
+	        int found = 0;
+	        int weight = weight(1);
+	        for (String token : tokens) {
+	            int length = cleanLength(token);
+	            if (length > 0) {
+	                String lowerWord = (length == token.length() ? token : token.substring(0, length)).toLowerCase();
+	                if (addWeightedImportance(lowerWord, weight)) {
+	                    found++;
+	                }
+	            }
+	        }
+	        return found;
+	    }
+
+	    /**
+	     * Adds a weighted delta to the importance of a lowercase word and records the change.
+	     *
+	     * @param word  the lowercase word
+	     * @param delta the weighted amount to add
+	     * @return {@code true} if the word was found
+	     */
+	    private boolean addWeightedImportance(String word, int delta) {
+	        if (addImportance(root, word, 0, delta) == NOT_FOUND) {
+	            return false;
+	        }
+	        changes.wordChanged(word);
+	        return true;
+	    }
+
+	    /**
+	     * Walks down to a word, adds to its importance and raises the bounds of the nodes on its path on the way back.
+	     *
+	     * @param node  the current node
+	     * @param word  the lowercase word
+	     * @param index the number of characters of the word leading to the node
+	     * @param delta the weighted amount to add
+	     * @return the new importance of the word, or {@link #NOT_FOUND} if it is not in the trie
+	     */
+	    private int addImportance(TrieNode node, String word, int index, int delta) {
+	        int importance;
+	        if (index == word.length()) {
+	            if (node.wordLength == 0) {
+	                return NOT_FOUND;
+	            }
+	            importance = addImportance(node, delta);
+	        } else {
+	            TrieNode child = node.child(word.charAt(index++));
+	            if (child == null) {
+	                return NOT_FOUND;
+	            }
+	            char[] label = child.label;
+	            if (label != null) {
+	                if (word.length() - index < label.length) {
+	                    return NOT_FOUND;
+	                }
+	                for (char c : label) {
+	                    if (word.charAt(index++) != c) {
+	                        return NOT_FOUND;
+	                    }
+	                }
+	            }
+	            importance = addImportance(child, word, index, delta);
+	            if (importance == NOT_FOUND) {
+	                return NOT_FOUND;
+	            }
+	        }
+	        raiseMaxImportance(node, importance);
+	        return importance;
+	    }
+
+	    /**
+	     * Returns the length a token keeps under the rules of {@link #clean(String)}.
+	     *
+	     * @param token the token
+	     * @return the length without trailing non-letters, or 0 if the token is rejected
+	     */
+	    private static int cleanLength(String token) {
+	        int last = token.length() - 1;
+	        while (last >= 0 && !Character.isLetter(token.charAt(last))) {
+	            last--;
+	        }
+	        for (int i = 0; i < last; i++) {
+	            if (!Character.isLetter(token.charAt(i))) {
+	                return 0;
+	            }
+	        }
+	        return last + 1;
+	    }
+
+	    /**
+	     * Starts a new epoch, so that importance added from now on counts twice as much as importance added in the
+	     * previous epoch. This is exponential decay with a half-life of one epoch, applied forward: instead of
+	     * shrinking every stored importance, new importance is weighted by 2 to the power of the number of epochs
+	     * since the scale was last reset. Rankings then follow recent traffic, and the bounds used to prune
+	     * suggestions stay valid without touching the trie.
+	     * Every {@value #RESCALE_EPOCHS} epochs the weights are folded back in: every importance and bound is halved
+	     * once per epoch passed, and importance that has decayed below one occurrence disappears.
+	     * Importance values are therefore relative scores once epochs are used. Without calling this method they stay
+	     * plain occurrence counts.
+	     * Weighted deltas and the importance they add up to saturate at {@link Integer#MAX_VALUE} rather than overflow,
+	     * so a word whose score reaches the limit stays at the top until the next rescaling halves it.
+	     */
+	    public void advanceEpoch() {
+	        epoch++;
+	        if (epoch - scaleEpoch >= RESCALE_EPOCHS) {
+	            rescale();
+	        }
+	    }
+
+	    /**
+	     * Returns the current epoch.
+	     *
+	     * @return the number of times {@link #advanceEpoch()} has been called
+	     */
+	    public int epoch() {
+	        return epoch;
+	    }
+
+	    /**
+	     * Weights an importance delta by the number of epochs since the scale was last reset.
+	     *
+	     * @param delta the delta
+	     * @return the weighted delta, saturated to the range of {@link #saturate(long)}
+	     */
+	    private int weight(int delta) {
+	        return saturate((long) delta << (epoch - scaleEpoch));
+	    }
+
+	    /**
+	     * Clamps an importance computed in long arithmetic to the int range, leaving out {@link Integer#MIN_VALUE},
+	     * so weighted counts stop at the largest score instead of wrapping around to negative ones.
+	     *
+	     * @param importance the importance
+	     * @return the importance, between {@code -Integer.MAX_VALUE} and {@code Integer.MAX_VALUE}
+	     */
+	    static int saturate(long importance) {
+	        return (int) Math.max(-Integer.MAX_VALUE, Math.min(Integer.MAX_VALUE, importance));
+	    }
+
+	    /**
+	     * Divides every importance and bound by the current weight, so that weights start again from one.
+	     * Children are rescaled before their parents, so a bound never drops below the importance below it.
+	     */
+	    void rescale() {
+	        root = rescale(root, epoch - scaleEpoch);
+	        scaleEpoch = epoch;
+	        changes.allChanged();
+	    }
+
+	    /**
+	     * Shifts the importance and bounds of a subtree right by the given number of bits, in place.
+	     *
+	     * @param node  the root of the subtree
+	     * @param shift the number of bits
+	     * @return the rescaled subtree, which is the given node
+	     */
+	    TrieNode rescale(TrieNode node, int shift) {
+	        for (TrieNode child : node.children) {
+	            if (child != null) {
+	                rescale(child, shift);
+	            }
+	        }
+	        node.importance >>= shift;
+	        node.maxImportance >>= shift;
+	        return node;
+	    }
+
+	    /**
+	     * Adds to the importance of a node, saturating instead of overflowing.
+	     *
+	     * @param node  the node of the word
+	     * @param delta the amount to add
+	     * @return the new importance
+	     */
+	    int addImportance(TrieNode node, int delta) {
+	        return node.importance = saturate((long) node.importance + delta);
+	    }
+
+	    /**
+	     * Raises the importance bounds of a subtree to cover the current importance of its nodes.
+	     *
+	     * @param node the root of the subtree
+	     * @return the highest importance found in the subtree
+	     */
+	    private int updateMaxImportance(TrieNode node) {
+	        int max = node.importance;
+	        for (TrieNode child : node.children) {
+	            if (child != null) {
+	                max = Math.max(max, updateMaxImportance(child));
+	            }
+	        }
+	        raiseMaxImportance(node, max);
+	        return max;
+	    }
+
+	    /**
+	     * Raises the importance bound of a node if it is below the given value.
+	     *
+	     * @param node       the node to update
+	     * @param importance the importance the bound must cover
+	     */
+	    void raiseMaxImportance(TrieNode node, int importance) {
+	        if (node.maxImportance < importance) {
+	            node.maxImportance = importance;
+	        }
+	    }
+
+	    /**
+	     * Adds occurrence counts gathered from an importance file to the words they were counted for, weighted by the
+	     * current epoch, and raises the importance bounds to match.
+	     *
+	     * @param counts the number of occurrences found for each terminal node, in one map per part of the file
+	     */
+	    void addCounts(List<Map<TrieNode, int[]>> counts) {
+	        int weight = weight(1);
+	        for (Map<TrieNode, int[]> rangeCounts : counts) {
+	            for (Map.Entry<TrieNode, int[]> entry : rangeCounts.entrySet()) {
+	                addImportance(entry.getKey(), saturate((long) entry.getValue()[0] * weight));
+	            }
+	        }
+	        updateMaxImportance(root);
+	    }
+
+	    /**
+	     * Counts the occurrences of dictionary words in a byte range of an importance file without touching the trie.
+	     *
+	     * @param channel    the importance file
+	     * @param start      the first byte of the range, at the start of a line
+	     * @param end        the byte just past the range, at the start of a line or the end of the file
+	     * @param tokenCount the counter that receives the number of tokens in the range
+	     * @return the number of occurrences found for each terminal node
+	     * @throws IOException if the file cannot be read
+	     */
+	    private Map<TrieNode, int[]> countImportance(FileChannel channel, long start, long end, LongAdder tokenCount) throws IOException {
+	        Map<TrieNode, int[]> counts = new HashMap<>();
+	        WordTokenizer tokens = new WordTokenizer(channel, start, end);
+	        int tokensRead = 0;
+	        while (tokens.next()) {
+	            tokensRead++;
+	            if (tokens.cleanTrailing()) {
+	                tokens.toLowerCase();
+	                TrieNode node = search(tokens.token, tokens.length);
+	                if (node != null) {
+	                    int[] count = counts.get(node);
+	                    if (count == null) {
+	                        counts.put(node, new int[] {1});
+	                    } else {
+	                        count[0]++;
+	                    }
+	                }
+	            }
+	        }
+	        tokenCount.add(tokensRead);
+	        return counts;
+	    }
+
 	    /**
 	     * Cleans a given word by removing any non-letter characters from the beginning and end of the word,
 	     * and ensuring that only letters remain within the word (i.e., it doesn't contain invalid characters in the middle).
@@ -352,7 +952,7 @@ public class Trie {
 	     * @param word the word to clean
 	     * @return the cleaned word with only alphabetic characters, or an empty string if the word is invalid
 	     */
-	    private String clean(String word) {
+	    static String clean(String word) {
 	        int n = word.length();
 	        int end = n - 1;
 
@@ -374,27 +974,351 @@ public class Trie {
 
 	  
 	      
+
+	    /**
+	     * Finds the shortest path in the Trie that starts with the given prefix.
+	     * Without compression this is the prefix itself; in compressed mode the prefix may end inside an edge,
+	     * in which case the rest of that edge label is appended.
+	     *
+	     * @param start            the root node to search below
+	     * @param prefixUnmodified the prefix to look up
+	     * @return the path of the first node at or below the prefix, or null if no path starts with it
+	     */
+	    private String locatePrefix(TrieNode start, String prefixUnmodified) {
+	        char[] word = prefixUnmodified.toLowerCase().toCharArray();
+	        TrieNode node = start;
+	        int i = 0;
+	        while (i < word.length) {
+	            TrieNode child = node.child(word[i++]);
+	            if (child == null) {
+	                return null;
+	            }
+	            char[] label = child.label;
+	            if (label != null) {
+	                int common = Math.min(label.length, word.length - i);
+	                if (!Arrays.equals(label, 0, common, word, i, i + common)) {
+	                    return null;
+	                }
+	                if (common < label.length) {
+	                    return prefixUnmodified + String.valueOf(label, common, label.length - common);
+	                }
+	                i += common;
+	            }
+	            node = child;
+	        }
+	        return prefixUnmodified;
+	    }
+
+	    /**
+	     * Returns the importance of a word.
+	     *
+	     * @param word the word to look up
+	     * @return the importance of the word, or 0 if it is not in the Trie
+	     */
+	    public int importanceOf(String word) {
+	        TrieNode node = search(word);
+	        return node != null ? node.importance : 0;
+	    }
+
+	    /**
+	     * Creates a compact, read-only copy of this Trie for serving queries once loading has finished.
+	     * Later changes to this Trie are not reflected in the copy.
+	     *
+	     * @return the frozen copy
+	     */
+	    public FrozenTrie freeze() {
+	        return new FrozenTrie(root);
+	    }
+
+	    /**
+	     * Saves the words of this Trie, with their importance, to a versioned binary snapshot file.
+	     * The snapshot can be opened with {@link FrozenTrie#open(String)}, which maps it into memory and answers
+	     * queries from it directly instead of reloading the dictionary and importance files.
+	     *
+	     * @param snapshotFile the file to write, replaced if it exists
+	     * @throws IOException if the file cannot be written
+	     */
+	    public void saveSnapshot(String snapshotFile) throws IOException {
+	        freeze().save(snapshotFile);
+	    }
+
+	    /**
+	     * Counts the nodes of the Trie, including the root.
+	     *
+	     * @return the number of nodes
+	     */
+	    public int nodeCount() {
+	        return nodeCount(root);
+	    }
+
+	    /**
+	     * Counts the nodes of the subtree rooted at the given node.
+	     *
+	     * @param node the root of the subtree
+	     * @return the number of nodes in the subtree
+	     */
+	    private int nodeCount(TrieNode node) {
+	        int count = 1;
+	        for (TrieNode child : node.children) {
+	            if (child != null) {
+	                count += nodeCount(child);
+	            }
+	        }
+	        return count;
+	    }
+
+	    /**
+	     * Describes the Robin Hood Hashing tables of the nodes with many children: how full they are, how far their
+	     * entries sit from their home slots and the longest probe of each table.
+	     *
+	     * @return the statistics
+	     */
+	    public TableStatistics tableStatistics() {
+	        List<RobinHoodHashing> tables = new ArrayList<>();
+	        collectTables(root, tables);
+	        long[] probeLengths = new long[Byte.MAX_VALUE + 1];
+	        long[] maxProbeLengths = new long[Byte.MAX_VALUE + 1];
+	        long entries = 0;
+	        long slots = 0;
+	        int longest = 0;
+	        for (RobinHoodHashing table : tables) {
+	            for (int i = 0; i < table.capacity; i++) {
+	                if (table.children[i] != null) {
+	                    probeLengths[table.probeLengths[i]]++;
+	                }
+	            }
+	            maxProbeLengths[table.maxProbeLength]++;
+	            longest = Math.max(longest, table.maxProbeLength);
+	            entries += table.size;
+	            slots += table.capacity;
+	        }
+	        return new TableStatistics(tables.size(), entries, slots, Arrays.copyOf(probeLengths, longest + 1),
+	                Arrays.copyOf(maxProbeLengths, longest + 1));
+	    }
+
+	    /**
+	     * Collects the Robin Hood Hashing tables of the subtree rooted at the given node.
+	     *
+	     * @param node   the root of the subtree
+	     * @param tables the list receiving the tables
+	     */
+	    private static void collectTables(TrieNode node, List<RobinHoodHashing> tables) {
+	        if (node.table != null) {
+	            tables.add(node.table);
+	        }
+	        for (TrieNode child : node.children) {
+	            if (child != null) {
+	                collectTables(child, tables);
+	            }
+	        }
+	    }
+	      
 	    /**
 	     * Inserts a word into the Trie.
 	     *
 	     * @param wordUnmodified the word to insert
 	     */
 	    public void insert(String wordUnmodified) {
-	    	
-	        TrieNode node = root;
-	        String word =  wordUnmodified.toLowerCase();
+	        char[] word = wordUnmodified.toLowerCase().toCharArray();
+	        insert(word, word.length);
+	        changes.wordChanged(new String(word));
+	    }
+
+	    /**
+	     * Inserts the first characters of a lowercase buffer as a word.
+	     *
+	     * @param word   the buffer holding the lowercase word
+	     * @param length the number of characters of the word
+	     */
+	    void insert(char[] word, int length) {
+	        insert(root, word, length);
+	    }
+
+	    /**
+	     * Inserts the first characters of a lowercase buffer as a word below the given root node.
+	     *
+	     * @param start  the root node to insert below
+	     * @param word   the buffer holding the lowercase word
+	     * @param length the number of characters of the word
+	     */
+	    void insert(TrieNode start, char[] word, int length) {
+	        TrieNode node = start;
 	        
-	        for (int i = 0; i < word.length(); i++) {
-	        	
-	            char key = word.charAt(i);
-	            TrieNode child = node.children.search(key);
+	        if (!compressed) {
+	            for (int i = 0; i < length; i++) {
+	                node = node.addChild(word[i], loadFactor);
+	            }
+	            node.wordLength = length;
+	            return;
+	        }
+
+	        int i = 0;
+	        while (i < length) {
+	            char key = word[i++];
+	            TrieNode child = node.child(key);
 	            if (child == null) {
-	                child = node.children.insert(key);
+	                child = new TrieNode();
+	                if (i < length) {
+	                    child.label = Arrays.copyOfRange(word, i, length);
+	                }
+	                node.putChild(key, child, loadFactor);
+	                node = child;
+	                break;
+	            }
+
+	            char[] label = child.label;
+	            if (label != null) {
+	                int common = Math.min(label.length, length - i);
+	                int mismatch = Arrays.mismatch(label, 0, common, word, i, i + common);
+	                int matched = mismatch < 0 ? common : mismatch;
+	                i += matched;
+	                if (matched < label.length) {
+	                    child = splitEdge(node, key, child, matched);
+	                }
 	            }
 	            node = child;
 	        }
 	        
-	        node.wordLength = word.length(); 
+	        node.wordLength = length; 
+	    }
+
+	    /**
+	     * Splits a labelled edge so that a new node ends after the first characters of the label.
+	     *
+	     * @param parent  the node the edge starts from
+	     * @param key     the key of the edge
+	     * @param child   the node the edge leads to
+	     * @param matched the number of label characters that stay above the new node
+	     * @return the new node in the middle of the edge
+	     */
+	    private TrieNode splitEdge(TrieNode parent, char key, TrieNode child, int matched) {
+	        char[] label = child.label;
+	        TrieNode middle = new TrieNode();
+	        if (matched > 0) {
+	            middle.label = Arrays.copyOf(label, matched);
+	        }
+	        child.label = matched + 1 < label.length ? Arrays.copyOfRange(label, matched + 1, label.length) : null;
+	        middle.maxImportance = child.maxImportance;
+	        middle.putChild(label[matched], child, loadFactor);
+	        parent.replaceChild(key, middle);
+	        return middle;
+	    }
+
+	    /**
+	     * Removes a word from the Trie.
+	     * Branches that no longer lead to a word are cut off, child tables shrink as they empty, and in compressed
+	     * mode a node left with a single child is merged back into one labelled edge with it, so the Trie ends up as
+	     * if the word had never been inserted. The importance of the word is forgotten with it.
+	     *
+	     * @param wordUnmodified the word to remove
+	     * @return {@code true} if the word was in the Trie
+	     */
+	    public boolean remove(String wordUnmodified) {
+	        char[] word = wordUnmodified.toLowerCase().toCharArray();
+	        boolean removed = remove(word, word.length);
+	        if (removed) {
+	            changes.wordChanged(new String(word));
+	        }
+	        return removed;
+	    }
+
+	    /**
+	     * Removes the first characters of a lowercase buffer as a word.
+	     *
+	     * @param word   the buffer holding the lowercase word
+	     * @param length the number of characters of the word
+	     * @return {@code true} if the word was in the Trie
+	     */
+	    boolean remove(char[] word, int length) {
+	        TrieNode node = search(word, length);
+	        if (node == null || node.wordLength == 0) {
+	            return false;
+	        }
+	        remove(root, word, length);
+	        return true;
+	    }
+
+	    /**
+	     * Removes a word that is known to be present below the given root node, then prunes the nodes that no longer
+	     * lead to a word and lowers the importance bounds along its path.
+	     *
+	     * @param start  the root node to remove below
+	     * @param word   the buffer holding the lowercase word
+	     * @param length the number of characters of the word
+	     */
+	    void remove(TrieNode start, char[] word, int length) {
+	        TrieNode[] path = new TrieNode[length + 1];
+	        char[] keys = new char[length + 1];
+	        path[0] = start;
+	        int depth = 0;
+	        int i = 0;
+	        while (i < length) {
+	            char key = word[i++];
+	            TrieNode child = path[depth].child(key);
+	            if (child.label != null) {
+	                i += child.label.length;
+	            }
+	            depth++;
+	            path[depth] = child;
+	            keys[depth] = key;
+	        }
+
+	        TrieNode node = path[depth];
+	        node.wordLength = 0;
+	        node.importance = 0;
+	        while (depth > 0 && node.wordLength == 0 && node.childCount() == 0) {
+	            path[depth - 1].removeChild(keys[depth], loadFactor);
+	            depth--;
+	            node = path[depth];
+	        }
+	        if (compressed && depth > 0 && node.wordLength == 0 && node.childCount() == 1) {
+	            path[depth - 1].replaceChild(keys[depth], mergeEdge(node));
+	            depth--;
+	        }
+	        for (; depth >= 0; depth--) {
+	            lowerMaxImportance(path[depth]);
+	        }
+	    }
+
+	    /**
+	     * Joins the edge leading to a node that is not a word with the edge to its only child.
+	     * The child is copied rather than relabelled in place, since a {@link ConcurrentTrie} may still share it
+	     * with the published root.
+	     *
+	     * @param node the node to merge away
+	     * @return the node that takes its place, a copy of its child with the joined label
+	     */
+	    private static TrieNode mergeEdge(TrieNode node) {
+	        int index = 0;
+	        while (node.children[index] == null) {
+	            index++;
+	        }
+	        TrieNode child = node.children[index];
+	        char[] upper = node.label == null ? new char[0] : node.label;
+	        char[] lower = child.label == null ? new char[0] : child.label;
+	        char[] label = new char[upper.length + 1 + lower.length];
+	        System.arraycopy(upper, 0, label, 0, upper.length);
+	        label[upper.length] = node.keys[index];
+	        System.arraycopy(lower, 0, label, upper.length + 1, lower.length);
+	        TrieNode merged = child.copy();
+	        merged.label = label;
+	        return merged;
+	    }
+
+	    /**
+	     * Sets the importance bound of a node to the highest of its own importance and the bounds of its children,
+	     * which lowers it after a word below it was removed.
+	     *
+	     * @param node the node to update
+	     */
+	    private static void lowerMaxImportance(TrieNode node) {
+	        int max = node.importance;
+	        for (TrieNode child : node.children) {
+	            if (child != null) {
+	                max = Math.max(max, child.maxImportance);
+	            }
+	        }
+	        node.maxImportance = max;
 	    }
 
 	    /**
@@ -404,19 +1328,50 @@ public class Trie {
 	     * @return the TrieNode representing the word, or null if not found
 	     */
 	    public TrieNode search(String wordUnmodified) {
-	        TrieNode node = root;
-	        String word =  wordUnmodified.toLowerCase();
-	        for (int i = 0; i < word.length(); i++) {
-	            char key = word.charAt(i);
-	            TrieNode child = node.children.search(key);
+	        char[] word = wordUnmodified.toLowerCase().toCharArray();
+	        return search(word, word.length);
+	    }
+
+	    /**
+	     * Searches for the first characters of a lowercase buffer.
+	     * In compressed mode only paths that end on a node are found, not ones ending inside an edge label.
+	     *
+	     * @param word   the buffer holding the lowercase word
+	     * @param length the number of characters to look up
+	     * @return the TrieNode representing the characters, or null if not found
+	     */
+	    TrieNode search(char[] word, int length) {
+	        return search(root, word, length);
+	    }
+
+	    /**
+	     * Searches for the first characters of a lowercase buffer below the given root node.
+	     * In compressed mode only paths that end on a node are found, not ones ending inside an edge label.
+	     *
+	     * @param start  the root node to search below
+	     * @param word   the buffer holding the lowercase word
+	     * @param length the number of characters to look up
+	     * @return the TrieNode representing the characters, or null if not found
+	     */
+	    TrieNode search(TrieNode start, char[] word, int length) {
+	        TrieNode node = start;
+	        int i = 0;
+	        while (i < length) {
+	            TrieNode child = node.child(word[i++]);
 	            if (child == null) {
 	                return null; 
 	            }
+	            char[] label = child.label;
+	            if (label != null) {
+	                if (length - i < label.length || !Arrays.equals(label, 0, label.length, word, i, i + label.length)) {
+	                    return null;
+	                }
+	                i += label.length;
+	            }
 	            node = child;
 	        }
 	        return node;
 	    }
-	    
 	 
 	    private static long getMemoryUsage() {
 	        Runtime runtime = Runtime.getRuntime();
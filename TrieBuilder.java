@@ -0,0 +1,245 @@
+package ID1069789.ID1070730;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds a {@link Trie} from words given in ascending order in one pass, without searching or rehashing.
+ * Only the nodes along the most recent word are still open. When the next word leaves that path, the nodes below
+ * the point where they part can no longer gain children, so each is created with all its children at once, in the
+ * layout {@link TrieNode#setChildren} picks for their number, with any Robin Hood Hashing table sized for them up
+ * front. Children therefore arrive in key order and are appended, never looked up. In compressed mode a closed
+ * node that is not a word and has one child is merged into the edge above it at the same moment, so no edge is ever
+ * split.
+ * <p>
+ * Duplicates and words that are a prefix of the previous word are accepted, since their nodes are still open.
+ * Any other word that comes out of order is set aside and inserted one by one once the rest has been built, so a
+ * mostly sorted list still gives the right Trie. The result is the same as inserting the words into an empty Trie.
+ */
+public final class TrieBuilder {
+    private static final int INITIAL_DEPTH = 16;
+    private static final int INITIAL_CHILDREN = 4;
+
+    private final float loadFactor;
+    private final boolean compressed;
+    private int[] wordLengths = new int[INITIAL_DEPTH];
+    private char[][] pendingKeys = new char[INITIAL_DEPTH][];
+    private TrieNode[][] pendingChildren = new TrieNode[INITIAL_DEPTH][];
+    private int[] pendingCounts = new int[INITIAL_DEPTH];
+    private char[] previous = new char[INITIAL_DEPTH];
+    private int previousLength;
+    private final List<char[]> unsorted = new ArrayList<>();
+    private boolean built;
+
+    /**
+     * Creates a builder for a Trie with the default load factor and no path compression.
+     */
+    public TrieBuilder() {
+        this(RobinHoodHashing.DEFAULT_LOAD_FACTOR, false);
+    }
+
+    /**
+     * Creates a builder for a Trie with the default load factor, optionally in path-compressed mode.
+     *
+     * @param compressed whether chains of single-child nodes are collapsed into labelled edges
+     */
+    public TrieBuilder(boolean compressed) {
+        this(RobinHoodHashing.DEFAULT_LOAD_FACTOR, compressed);
+    }
+
+    /**
+     * Creates a builder for a Trie with the given child hash table load factor, optionally in path-compressed mode.
+     *
+     * @param loadFactor the load factor of every child hash table, strictly between 0 and 1
+     * @param compressed whether chains of single-child nodes are collapsed into labelled edges
+     * @throws IllegalArgumentException if the load factor is not strictly between 0 and 1
+     */
+    public TrieBuilder(float loadFactor, boolean compressed) {
+        this.loadFactor = RobinHoodHashing.checkLoadFactor(loadFactor);
+        this.compressed = compressed;
+    }
+
+    /**
+     * Adds the next word.
+     *
+     * @param word the word, which should not sort before the previous one once lowercased
+     * @return this builder
+     * @throws IllegalStateException if the Trie has already been built
+     */
+    public TrieBuilder add(String word) {
+        char[] lowerWord = word.toLowerCase().toCharArray();
+        add(lowerWord, lowerWord.length);
+        return this;
+    }
+
+    /**
+     * Adds the first characters of a lowercase buffer as the next word.
+     *
+     * @param word   the buffer holding the lowercase word
+     * @param length the number of characters of the word
+     * @throws IllegalStateException if the Trie has already been built
+     */
+    void add(char[] word, int length) {
+        if (built) {
+            throw new IllegalStateException("The Trie has already been built");
+        }
+        if (length == 0) {
+            return;
+        }
+        int common = Arrays.mismatch(word, 0, length, previous, 0, previousLength);
+        if (common < 0 || common == length) {
+            wordLengths[length] = length;
+            return;
+        }
+        if (common < previousLength && word[common] < previous[common]) {
+            unsorted.add(Arrays.copyOf(word, length));
+            return;
+        }
+
+        close(common);
+        if (length >= wordLengths.length) {
+            int depth = Math.max(2 * wordLengths.length, length + 1);
+            wordLengths = Arrays.copyOf(wordLengths, depth);
+            pendingKeys = Arrays.copyOf(pendingKeys, depth);
+            pendingChildren = Arrays.copyOf(pendingChildren, depth);
+            pendingCounts = Arrays.copyOf(pendingCounts, depth);
+            previous = Arrays.copyOf(previous, depth);
+        }
+        wordLengths[length] = length;
+        System.arraycopy(word, common, previous, common, length - common);
+        previousLength = length;
+    }
+
+    /**
+     * Adds the words of a dictionary file, reading and cleaning them the same way as
+     * {@link Trie#loadDictionary(String)}. The file should be sorted, for instance with {@code LC_ALL=C sort};
+     * words that are not in order still end up in the Trie, only more slowly.
+     * The number of words, the size of the file and the time it took are recorded in {@link Metrics} while
+     * recording is on.
+     *
+     * @param dictionaryFile the file containing dictionary words
+     * @return this builder
+     * @throws IllegalStateException if the Trie has already been built
+     */
+    public TrieBuilder addDictionary(String dictionaryFile) {
+        boolean recording = Metrics.enabled;
+        long start = recording ? System.nanoTime() : 0L;
+        long words = 0;
+        long bytes = 0;
+        try (FileChannel channel = FileChannel.open(Paths.get(dictionaryFile), StandardOpenOption.READ)) {
+            bytes = channel.size();
+            WordTokenizer tokens = new WordTokenizer(channel, 0, bytes);
+            while (tokens.next()) {
+                tokens.keepLetters();
+                tokens.toLowerCase();
+                add(tokens.token, tokens.length);
+                words++;
+            }
+        } catch (NoSuchFileException e) {
+            System.out.println("File not found: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Could not read file: " + e.getMessage());
+        }
+        if (recording) {
+            Metrics.recordDictionary(words, bytes, System.nanoTime() - start);
+        }
+        System.out.println("Dictionary loaded into TrieBuilder.\n");
+        return this;
+    }
+
+    /**
+     * Closes the remaining open nodes, inserts the words that came out of order and returns the Trie.
+     * The builder cannot be used any more afterwards.
+     *
+     * @return the Trie holding every added word
+     * @throws IllegalStateException if the Trie has already been built
+     */
+    public Trie build() {
+        if (built) {
+            throw new IllegalStateException("The Trie has already been built");
+        }
+        built = true;
+        close(0);
+        TrieNode root = new TrieNode();
+        root.setChildren(pendingKeys[0], pendingChildren[0], pendingCounts[0], loadFactor);
+        Trie trie = new Trie(loadFactor, compressed);
+        trie.root = root;
+        for (char[] word : unsorted) {
+            trie.insert(word, word.length);
+        }
+        return trie;
+    }
+
+    /**
+     * Appends a child to the open node at a depth.
+     *
+     * @param depth the depth of the parent node
+     * @param key   the key of the child, greater than the keys appended to the parent so far
+     * @param child the child node
+     */
+    private void append(int depth, char key, TrieNode child) {
+        int count = pendingCounts[depth];
+        if (pendingKeys[depth] == null) {
+            pendingKeys[depth] = new char[INITIAL_CHILDREN];
+            pendingChildren[depth] = new TrieNode[INITIAL_CHILDREN];
+        } else if (count == pendingKeys[depth].length) {
+            pendingKeys[depth] = Arrays.copyOf(pendingKeys[depth], 2 * count);
+            pendingChildren[depth] = Arrays.copyOf(pendingChildren[depth], 2 * count);
+        }
+        pendingKeys[depth][count] = key;
+        pendingChildren[depth][count] = child;
+        pendingCounts[depth] = count + 1;
+    }
+
+    /**
+     * Closes the open nodes of the previous word below a depth, deepest first, and appends each to its parent.
+     * A node is only created here, after its children, so that it refers to older objects rather than the other
+     * way round, which the garbage collector tracks more cheaply. In compressed mode a node that is not a word and
+     * has one child is not created at all: the child moves up in its place. Such a child was closed in the same
+     * pass, so the characters of its edge are still those of the previous word, and its label is copied from there
+     * once, when the chain of merges ends.
+     *
+     * @param depth the depth of the deepest node that stays open
+     */
+    private void close(int depth) {
+        TrieNode carried = null;
+        int carriedFrom = 0;
+        int carriedTo = 0;
+        for (int d = previousLength; d > depth; d--) {
+            int count = pendingCounts[d];
+            TrieNode[] children = pendingChildren[d];
+            TrieNode node;
+            if (compressed && count == 1 && wordLengths[d] == 0) {
+                node = children[0];
+                if (node != carried) {
+                    carried = node;
+                    carriedTo = d + 1;
+                }
+                carriedFrom = d;
+            } else {
+                if (carried != null) {
+                    carried.label = Arrays.copyOfRange(previous, carriedFrom, carriedTo);
+                    carried = null;
+                }
+                node = new TrieNode();
+                node.wordLength = wordLengths[d];
+                node.setChildren(pendingKeys[d], children, count, loadFactor);
+            }
+            if (count > 0) {
+                Arrays.fill(children, 0, count, null);
+            }
+            pendingCounts[d] = 0;
+            wordLengths[d] = 0;
+            append(d - 1, previous[d - 1], node);
+        }
+        if (carried != null) {
+            carried.label = Arrays.copyOfRange(previous, carriedFrom, carriedTo);
+        }
+    }
+}
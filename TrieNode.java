@@ -1,21 +1,407 @@
 	package ID1069789.ID1070730;
+
+	import java.util.Arrays;
+
 	/**
 	 * Represents a node in the Trie data structure.
 	 * Each node stores information about its children, word length, and importance.
-	 * It uses Robin Hood Hashing to efficiently store child nodes.
+	 * Children are kept in one of several layouts depending on how many there are, in the style of an adaptive radix tree:
+	 * - No children: the shared empty arrays, so leaves allocate nothing.
+	 * - Up to {@value #MAX_INLINE} children: exactly sized arrays sorted by key, held directly by the node.
+	 * - More children spread over a wide key range: a Robin Hood Hashing table.
+	 * - At least {@value #MIN_DIRECT} children packed into a narrow key range: a direct-indexed array starting at keys[0].
+	 *   It is widened with room to spare, by half its length beyond the new key, and stays direct while at least a
+	 *   quarter full, so filling or emptying it key by key copies it only a logarithmic number of times.
+	 * Removing children moves a node back down through the same layouts.
+	 * In every layout {@link #keys} and {@link #children} are parallel slot arrays and a null child marks an empty slot,
+	 * so traversals can walk them without knowing which layout is in use. {@link #size} counts the children in every
+	 * layout, so no layout has to be scanned to find out how full it is.
+	 * In a path-compressed Trie the edge leading to a node may carry more than one character: the key stored in the
+	 * parent is the first one and {@link #label} holds the rest.
+	 * {@link #maxImportance} is an upper bound on the importance of every node in the subtree rooted at a node,
+	 * so searches for the most important words can skip subtrees that cannot contain one.
 	 */
 	class TrieNode {
-	    RobinHoodHashing children;
+	    char[] keys;
+	    TrieNode[] children;
+	    RobinHoodHashing table;
+	    int size;
+	    char[] label;
 	    int wordLength;            
 	    int importance;
+	    int maxImportance;
+
+	    static final int MAX_INLINE = 4;
+	    static final int MIN_DIRECT = 16;
+
+	    private static final char[] NO_KEYS = new char[0];
+	    private static final TrieNode[] NO_CHILDREN = new TrieNode[0];
 	    
 	    /**
-	     * Constructs a TrieNode with an empty children hash table, word length set to 0,
-	     * and importance set to 0.
+	     * Constructs a TrieNode with no children, word length set to 0,
+	     * and importance and its subtree bound set to 0.
 	     */ 
 	    public TrieNode() {
-	        this.children = new RobinHoodHashing();
+	        this.keys = NO_KEYS;
+	        this.children = NO_CHILDREN;
 	        this.wordLength = 0;
 	        this.importance = 0;
 	    }
+
+	    /**
+	     * Creates a copy of this node whose children layout can be changed without affecting this node.
+	     * The child nodes themselves are shared, and so are arrays that are only ever replaced, never written to.
+	     *
+	     * @return the copy
+	     */
+	    TrieNode copy() {
+	        TrieNode copy = new TrieNode();
+	        if (table != null) {
+	            copy.table = table.copy();
+	            copy.keys = copy.table.keys;
+	            copy.children = copy.table.children;
+	        } else if (children.length > 0) {
+	            copy.keys = keys;
+	            copy.children = children.clone();
+	        }
+	        copy.size = size;
+	        copy.label = label;
+	        copy.wordLength = wordLength;
+	        copy.importance = importance;
+	        copy.maxImportance = maxImportance;
+	        return copy;
+	    }
+
+	    /**
+	     * Returns the number of children of this node.
+	     *
+	     * @return the number of children
+	     */
+	    int childCount() {
+	        return size;
+	    }
+
+	    /**
+	     * Finds the child reached through the given key.
+	     *
+	     * @param key the character labelling the edge
+	     * @return the child node, or null if there is none
+	     */
+	    TrieNode child(char key) {
+	        if (table != null) {
+	            return table.search(key);
+	        }
+	        TrieNode[] children = this.children;
+	        if (children.length <= MAX_INLINE) {
+	            char[] keys = this.keys;
+	            for (int i = 0; i < keys.length; i++) {
+	                if (keys[i] == key) {
+	                    return children[i];
+	                }
+	            }
+	            return null;
+	        }
+	        int index = key - keys[0];
+	        return index >= 0 && index < children.length ? children[index] : null;
+	    }
+
+	    /**
+	     * Returns the child reached through the given key, creating it first if it does not exist.
+	     * Adding a child may move the node to a different children layout.
+	     *
+	     * @param key        the character labelling the edge
+	     * @param loadFactor the load factor to use if a Robin Hood Hashing table has to be created
+	     * @return the existing or newly created child node
+	     */
+	    TrieNode addChild(char key, float loadFactor) {
+	        TrieNode child = child(key);
+	        if (child == null) {
+	            child = new TrieNode();
+	            putChild(key, child, loadFactor);
+	        }
+	        return child;
+	    }
+
+	    /**
+	     * Adds a child under a key that is not present yet, promoting or demoting the children layout as needed.
+	     *
+	     * @param key        the character labelling the edge
+	     * @param child      the child node
+	     * @param loadFactor the load factor to use if a Robin Hood Hashing table has to be created
+	     */
+	    void putChild(char key, TrieNode child, float loadFactor) {
+	        size++;
+	        if (table != null) {
+	            table.insert(key, child);
+	            if (table.size >= MIN_DIRECT && table.maxKey - table.minKey + 1 <= 2 * table.size) {
+	                toDirect(table.keys, table.children);
+	            } else {
+	                keys = table.keys;
+	                children = table.children;
+	            }
+	            return;
+	        }
+
+	        int length = children.length;
+	        if (length < MAX_INLINE) {
+	            int position = 0;
+	            while (position < length && keys[position] < key) {
+	                position++;
+	            }
+	            char[] newKeys = new char[length + 1];
+	            TrieNode[] newChildren = new TrieNode[length + 1];
+	            System.arraycopy(keys, 0, newKeys, 0, position);
+	            System.arraycopy(children, 0, newChildren, 0, position);
+	            newKeys[position] = key;
+	            newChildren[position] = child;
+	            System.arraycopy(keys, position, newKeys, position + 1, length - position);
+	            System.arraycopy(children, position, newChildren, position + 1, length - position);
+	            keys = newKeys;
+	            children = newChildren;
+	        } else if (length == MAX_INLINE) {
+	            toTable(child, key, loadFactor);
+	        } else {
+	            int first = keys[0];
+	            int last = first + length - 1;
+	            if (key < first || key > last) {
+	                int slack = length / 2;
+	                int newFirst = key < first ? Math.max(Character.MIN_VALUE, key - slack) : first;
+	                int newLast = key > last ? Math.min(Character.MAX_VALUE, key + slack) : last;
+	                if (newLast - newFirst + 1 > 4 * size) {
+	                    newFirst = Math.min(first, key);
+	                    newLast = Math.max(last, key);
+	                    if (newLast - newFirst + 1 > 4 * size) {
+	                        toTable(child, key, loadFactor);
+	                        return;
+	                    }
+	                }
+	                growDirect(newFirst, newLast);
+	            }
+	            children[key - keys[0]] = child;
+	        }
+	    }
+
+	    /**
+	     * Gives a node without children all of its children at once, choosing the layout they would end up in if they
+	     * had been added one by one: inline arrays for up to {@value #MAX_INLINE}, a direct-indexed array for at least
+	     * {@value #MIN_DIRECT} in a narrow key range, and otherwise a Robin Hood Hashing table sized for them up front.
+	     *
+	     * @param sortedKeys     the keys, in strictly ascending order
+	     * @param sortedChildren the child nodes, parallel to the keys
+	     * @param count          the number of children
+	     * @param loadFactor     the load factor to use if a Robin Hood Hashing table is created
+	     */
+	    void setChildren(char[] sortedKeys, TrieNode[] sortedChildren, int count, float loadFactor) {
+	        if (count == 0) {
+	            return;
+	        }
+	        size = count;
+	        if (count <= MAX_INLINE) {
+	            keys = Arrays.copyOf(sortedKeys, count);
+	            children = Arrays.copyOf(sortedChildren, count);
+	            return;
+	        }
+	        int first = sortedKeys[0];
+	        int last = sortedKeys[count - 1];
+	        if (count >= MIN_DIRECT && last - first + 1 <= 2 * count) {
+	            keys = new char[last - first + 1];
+	            children = new TrieNode[last - first + 1];
+	            for (int i = 0; i < keys.length; i++) {
+	                keys[i] = (char) (first + i);
+	            }
+	            for (int i = 0; i < count; i++) {
+	                children[sortedKeys[i] - first] = sortedChildren[i];
+	            }
+	            return;
+	        }
+	        table = new RobinHoodHashing(loadFactor, count);
+	        for (int i = 0; i < count; i++) {
+	            table.insert(sortedKeys[i], sortedChildren[i]);
+	        }
+	        keys = table.keys;
+	        children = table.children;
+	    }
+
+	    /**
+	     * Replaces the child stored under an existing key, keeping the children layout as it is.
+	     *
+	     * @param key   the key of the existing child
+	     * @param child the node that takes its place
+	     */
+	    void replaceChild(char key, TrieNode child) {
+	        if (table != null) {
+	            children[table.indexOf(key)] = child;
+	        } else if (children.length <= MAX_INLINE) {
+	            for (int i = 0; i < keys.length; i++) {
+	                if (keys[i] == key) {
+	                    children[i] = child;
+	                    return;
+	                }
+	            }
+	        } else {
+	            children[key - keys[0]] = child;
+	        }
+	    }
+
+	    /**
+	     * Removes the child stored under an existing key, demoting the children layout as it empties.
+	     * A table or direct-indexed array left with at most {@value #MAX_INLINE} children goes back to inline arrays,
+	     * a direct-indexed array less than a quarter full is trimmed to the range of its remaining keys and moves to a
+	     * table if that range is still less than half full, and a table shrinks by itself. New arrays are allocated rather than shifting keys in
+	     * place, since {@link #copy()} shares them.
+	     *
+	     * @param key        the key of the existing child
+	     * @param loadFactor the load factor to use if a Robin Hood Hashing table has to be created
+	     */
+	    void removeChild(char key, float loadFactor) {
+	        size--;
+	        if (table != null) {
+	            table.remove(key);
+	            if (table.size <= MAX_INLINE) {
+	                toInline(table.keys, table.children);
+	            } else {
+	                keys = table.keys;
+	                children = table.children;
+	            }
+	            return;
+	        }
+
+	        int length = children.length;
+	        if (length <= MAX_INLINE) {
+	            int position = 0;
+	            while (keys[position] != key) {
+	                position++;
+	            }
+	            TrieNode[] remaining = children.clone();
+	            remaining[position] = null;
+	            toInline(keys, remaining);
+	            return;
+	        }
+
+	        children[key - keys[0]] = null;
+	        if (size <= MAX_INLINE) {
+	            toInline(keys, children);
+	            return;
+	        }
+	        if (length > 4 * size) {
+	            toDirect(keys, children);
+	            if (children.length > 2 * size) {
+	                toTable(loadFactor);
+	            }
+	        }
+	    }
+
+	    /**
+	     * Moves the current children and one additional child into a Robin Hood Hashing table.
+	     *
+	     * @param child      the additional child node
+	     * @param key        the key of the additional child
+	     * @param loadFactor the load factor of the new table
+	     */
+	    private void toTable(TrieNode child, char key, float loadFactor) {
+	        toTable(loadFactor);
+	        table.insert(key, child);
+	        keys = table.keys;
+	        children = table.children;
+	    }
+
+	    /**
+	     * Moves the current children into a Robin Hood Hashing table.
+	     *
+	     * @param loadFactor the load factor of the new table
+	     */
+	    private void toTable(float loadFactor) {
+	        RobinHoodHashing newTable = new RobinHoodHashing(loadFactor);
+	        for (int i = 0; i < children.length; i++) {
+	            if (children[i] != null) {
+	                newTable.insert(keys[i], children[i]);
+	            }
+	        }
+	        table = newTable;
+	        keys = newTable.keys;
+	        children = newTable.children;
+	    }
+
+	    /**
+	     * Moves the given slots into exactly sized arrays sorted by key.
+	     *
+	     * @param slotKeys     the keys of the slots
+	     * @param slotChildren the child nodes of the slots, null for empty slots
+	     */
+	    private void toInline(char[] slotKeys, TrieNode[] slotChildren) {
+	        int count = 0;
+	        for (TrieNode child : slotChildren) {
+	            if (child != null) {
+	                count++;
+	            }
+	        }
+	        char[] newKeys = count == 0 ? NO_KEYS : new char[count];
+	        TrieNode[] newChildren = count == 0 ? NO_CHILDREN : new TrieNode[count];
+	        int length = 0;
+	        for (int i = 0; i < slotChildren.length; i++) {
+	            if (slotChildren[i] != null) {
+	                int position = length++;
+	                while (position > 0 && newKeys[position - 1] > slotKeys[i]) {
+	                    newKeys[position] = newKeys[position - 1];
+	                    newChildren[position] = newChildren[position - 1];
+	                    position--;
+	                }
+	                newKeys[position] = slotKeys[i];
+	                newChildren[position] = slotChildren[i];
+	            }
+	        }
+	        table = null;
+	        keys = newKeys;
+	        children = newChildren;
+	    }
+
+	    /**
+	     * Moves the given slots into a direct-indexed array covering exactly the range of their keys.
+	     *
+	     * @param slotKeys     the keys of the slots
+	     * @param slotChildren the child nodes of the slots, null for empty slots
+	     */
+	    private void toDirect(char[] slotKeys, TrieNode[] slotChildren) {
+	        int first = Character.MAX_VALUE;
+	        int last = Character.MIN_VALUE;
+	        int count = 0;
+	        for (int i = 0; i < slotChildren.length; i++) {
+	            if (slotChildren[i] != null) {
+	                first = Math.min(first, slotKeys[i]);
+	                last = Math.max(last, slotKeys[i]);
+	                count++;
+	            }
+	        }
+	        char[] newKeys = new char[last - first + 1];
+	        TrieNode[] newChildren = new TrieNode[last - first + 1];
+	        for (int i = 0; i < newKeys.length; i++) {
+	            newKeys[i] = (char) (first + i);
+	        }
+	        for (int i = 0; i < slotChildren.length; i++) {
+	            if (slotChildren[i] != null) {
+	                newChildren[slotKeys[i] - first] = slotChildren[i];
+	            }
+	        }
+	        table = null;
+	        size = count;
+	        keys = newKeys;
+	        children = newChildren;
+	    }
+
+	    /**
+	     * Widens the direct-indexed array so that it covers the given key range.
+	     *
+	     * @param first the smallest key to cover
+	     * @param last  the largest key to cover
+	     */
+	    private void growDirect(int first, int last) {
+	        char[] newKeys = new char[last - first + 1];
+	        TrieNode[] newChildren = new TrieNode[last - first + 1];
+	        for (int i = 0; i < newKeys.length; i++) {
+	            newKeys[i] = (char) (first + i);
+	        }
+	        System.arraycopy(children, 0, newChildren, keys[0] - first, children.length);
+	        keys = newKeys;
+	        children = newChildren;
+	    }
 	}
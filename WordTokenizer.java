@@ -0,0 +1,262 @@
+package ID1069789.ID1070730;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Splits a range of a UTF-8 file into whitespace-separated tokens, like {@link java.util.Scanner#next()},
+ * without creating a String per token.
+ * Bytes are read from a {@link FileChannel} and decoded in fixed-size chunks, and each token is copied into a
+ * reusable char buffer that callers read through {@link #token} and {@link #length} until the next call to
+ * {@link #next()}. The cleaning rules of {@link Trie} are applied to that buffer in place.
+ */
+final class WordTokenizer {
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private static final boolean LOCALE_SENSITIVE_LOWER_CASE = isLocaleSensitiveLowerCase();
+
+    private final FileChannel channel;
+    private final long end;
+    private long position;
+    private boolean endOfInput;
+    private boolean flushed;
+    private final ByteBuffer bytes = ByteBuffer.allocate(CHUNK_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    /**
+     * The characters of the current token; only the first {@link #length} are meaningful.
+     */
+    char[] token = new char[32];
+
+    /**
+     * The number of characters of the current token.
+     */
+    int length;
+
+    /**
+     * Creates a tokenizer over a byte range of a file. The range must start and end on token boundaries,
+     * for example at the start of a line.
+     *
+     * @param channel the file to read
+     * @param start   the offset of the first byte to read
+     * @param end     the offset just past the last byte to read
+     */
+    WordTokenizer(FileChannel channel, long start, long end) {
+        this.channel = channel;
+        this.position = start;
+        this.end = end;
+        chars.flip();
+    }
+
+    /**
+     * Splits a file into about {@code parts} byte ranges that each end just after a newline, so every range can be
+     * given to its own tokenizer. A newline byte never occurs inside a multi-byte UTF-8 sequence, so no token or
+     * character is cut in two. Ranges may be fewer than requested when the file is small or has long lines.
+     *
+     * @param channel the file to split
+     * @param parts   the number of ranges wanted
+     * @return the range boundaries: range {@code i} runs from {@code bounds[i]} to {@code bounds[i + 1]}
+     * @throws IOException if the file cannot be read
+     */
+    static long[] lineAlignedRanges(FileChannel channel, int parts) throws IOException {
+        long size = channel.size();
+        long[] bounds = new long[parts + 1];
+        int count = 0;
+        ByteBuffer scan = ByteBuffer.allocate(4096);
+        for (int i = 1; i < parts; i++) {
+            long at = Math.max(size / parts * i, bounds[count]);
+            long boundary = size;
+            while (at < size) {
+                scan.clear();
+                int read = channel.read(scan, at);
+                if (read < 0) {
+                    break;
+                }
+                int newline = -1;
+                for (int j = 0; j < read; j++) {
+                    if (scan.get(j) == '\n') {
+                        newline = j;
+                        break;
+                    }
+                }
+                if (newline >= 0) {
+                    boundary = at + newline + 1;
+                    break;
+                }
+                at += read;
+            }
+            if (boundary >= size) {
+                break;
+            }
+            if (boundary > bounds[count]) {
+                bounds[++count] = boundary;
+            }
+        }
+        bounds[++count] = size;
+        return Arrays.copyOf(bounds, count + 1);
+    }
+
+    /**
+     * Advances to the next token.
+     *
+     * @return {@code true} if a token was read, {@code false} at the end of the range
+     * @throws IOException if the file cannot be read
+     */
+    boolean next() throws IOException {
+        length = 0;
+        char[] buffer = chars.array();
+        while (true) {
+            int index = chars.position();
+            int limit = chars.limit();
+            while (index < limit) {
+                char c = buffer[index++];
+                if (Character.isWhitespace(c)) {
+                    if (length > 0) {
+                        chars.position(index);
+                        return true;
+                    }
+                } else {
+                    if (length == token.length) {
+                        token = Arrays.copyOf(token, length * 2);
+                    }
+                    token[length++] = c;
+                }
+            }
+            chars.position(index);
+            if (!fill()) {
+                return length > 0;
+            }
+        }
+    }
+
+    /**
+     * Reads and decodes the next chunk of the range.
+     *
+     * @return {@code true} if characters are available, {@code false} once the range is exhausted
+     * @throws IOException if the file cannot be read
+     */
+    private boolean fill() throws IOException {
+        if (flushed) {
+            return false;
+        }
+        chars.clear();
+        while (true) {
+            if (!endOfInput) {
+                int max = (int) Math.min(bytes.remaining(), end - position);
+                int read = -1;
+                if (max > 0) {
+                    bytes.limit(bytes.position() + max);
+                    read = channel.read(bytes, position);
+                    bytes.limit(bytes.capacity());
+                }
+                if (read < 0) {
+                    endOfInput = true;
+                } else {
+                    position += read;
+                }
+            }
+            bytes.flip();
+            decoder.decode(bytes, chars, endOfInput);
+            boolean drained = endOfInput && !bytes.hasRemaining();
+            if (drained && !flushed) {
+                decoder.flush(chars);
+                flushed = true;
+            }
+            bytes.compact();
+            if (chars.position() > 0 || drained) {
+                chars.flip();
+                return chars.hasRemaining();
+            }
+        }
+    }
+
+    /**
+     * Removes every character that is not a letter from the current token,
+     * as {@link Trie#loadDictionary(String)} does with dictionary words.
+     */
+    void keepLetters() {
+        int kept = 0;
+        for (int i = 0; i < length; i++) {
+            if (Character.isLetter(token[i])) {
+                token[kept++] = token[i];
+            }
+        }
+        length = kept;
+    }
+
+    /**
+     * Applies the rules of {@link Trie#clean(String)} to the current token: trailing non-letters are removed,
+     * and the token is rejected if any other non-letter remains.
+     *
+     * @return {@code true} if a non-empty token consisting only of letters remains
+     */
+    boolean cleanTrailing() {
+        int last = length - 1;
+        while (last >= 0 && !Character.isLetter(token[last])) {
+            last--;
+        }
+        for (int i = 0; i < last; i++) {
+            if (!Character.isLetter(token[i])) {
+                return false;
+            }
+        }
+        length = last + 1;
+        return length > 0;
+    }
+
+    /**
+     * Converts the current token to lower case with the same result as {@link String#toLowerCase()}.
+     * Characters are converted one at a time unless the token contains one of the few characters whose lower case
+     * depends on its neighbours or expands to several characters, or the default locale has its own casing rules;
+     * those tokens go through {@link String#toLowerCase()}.
+     */
+    void toLowerCase() {
+        if (!LOCALE_SENSITIVE_LOWER_CASE) {
+            boolean special = false;
+            for (int i = 0; i < length; i++) {
+                char c = token[i];
+                if (c >= 0x80 && (c == '\u0130' || c == '\u03A3' || Character.isSurrogate(c))) {
+                    special = true;
+                    break;
+                }
+            }
+            if (!special) {
+                for (int i = 0; i < length; i++) {
+                    char c = token[i];
+                    if (c >= 'A' && c <= 'Z') {
+                        token[i] = (char) (c + ('a' - 'A'));
+                    } else if (c >= 0x80) {
+                        token[i] = Character.toLowerCase(c);
+                    }
+                }
+                return;
+            }
+        }
+        String lowerCase = new String(token, 0, length).toLowerCase();
+        if (lowerCase.length() > token.length) {
+            token = new char[lowerCase.length()];
+        }
+        lowerCase.getChars(0, lowerCase.length(), token, 0);
+        length = lowerCase.length();
+    }
+
+    /**
+     * Checks whether the default locale lower-cases some characters differently from the root locale.
+     *
+     * @return {@code true} for Turkish, Azerbaijani and Lithuanian
+     */
+    private static boolean isLocaleSensitiveLowerCase() {
+        String language = Locale.getDefault().getLanguage();
+        return language.equals("tr") || language.equals("az") || language.equals("lt");
+    }
+}
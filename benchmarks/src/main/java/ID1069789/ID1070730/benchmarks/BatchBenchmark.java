@@ -0,0 +1,132 @@
+package ID1069789.ID1070730.benchmarks;
+
+import ID1069789.ID1070730.MatchOptions;
+import ID1069789.ID1070730.Suggestion;
+import ID1069789.ID1070730.Trie;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the throughput of answering many queries with one {@link Trie#suggest(String, int)} call each against
+ * {@link Trie#suggestWordsBatch(List, int, MatchOptions, int)} on several threads, in queries per second.
+ * Queries are drawn from a pool of prefixes of random dictionary words, at least two characters long; a pool smaller
+ * than the batch simulates skewed traffic where the same queries come back. The per-call variant does not use the
+ * thread count, so its results repeat for every value of {@code threads}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchBenchmark {
+
+    private static final int QUERIES = 4096;
+
+    @Param({"english"})
+    String shape;
+
+    @Param({"100000"})
+    int words;
+
+    @Param({"4096", "256"})
+    int distinct;
+
+    @Param({"10"})
+    int k;
+
+    @Param({"1", "4"})
+    int threads;
+
+    private List<String> queries;
+    private Trie trie;
+    private PrintStream out;
+
+    /**
+     * Loads the Trie and draws the batch of queries.
+     *
+     * @throws IOException if a generated file cannot be written or deleted
+     */
+    @Setup
+    public void setUp() throws IOException {
+        Corpus corpus = new Corpus(Corpus.shape(shape), 42);
+        List<String> list = corpus.words(words);
+        Path dictionaryFile = Corpus.writeDictionary(list);
+        Path importanceFile = corpus.writeImportanceText(list, 10 * words);
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        trie = new Trie();
+        trie.loadDictionary(dictionaryFile.toString());
+        trie.processImportanceFile(importanceFile.toString());
+        Files.delete(dictionaryFile);
+        Files.delete(importanceFile);
+
+        Random random = new Random(7);
+        String[] pool = new String[distinct];
+        for (int p = 0; p < distinct; p++) {
+            String word;
+            do {
+                word = list.get(random.nextInt(list.size()));
+            } while (word.length() < 2);
+            pool[p] = word.substring(0, 2 + random.nextInt(word.length() - 1));
+        }
+        queries = new ArrayList<>(QUERIES);
+        for (int q = 0; q < QUERIES; q++) {
+            queries.add(pool[random.nextInt(distinct)]);
+        }
+    }
+
+    /**
+     * Restores standard output.
+     */
+    @TearDown
+    public void tearDown() {
+        System.setOut(out);
+    }
+
+    /**
+     * Answers the batch with one suggest call per query.
+     *
+     * @return the number of suggestions, so the work is not eliminated
+     */
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int perCall() {
+        int suggestions = 0;
+        for (String query : queries) {
+            suggestions += trie.suggest(query, k).size();
+        }
+        return suggestions;
+    }
+
+    /**
+     * Answers the batch with one suggestWordsBatch call on the given number of threads.
+     *
+     * @return the suggestions
+     */
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public List<List<Suggestion>> batch() {
+        return trie.suggestWordsBatch(queries, k, MatchOptions.DEFAULT, threads);
+    }
+}
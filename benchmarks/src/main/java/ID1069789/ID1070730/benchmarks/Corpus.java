@@ -0,0 +1,194 @@
+package ID1069789.ID1070730.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates the dictionaries and importance texts the benchmarks run on, so they need no data files and give the same
+ * input on every run.
+ * Two shapes are available. A uniform corpus has words of 3 to 12 letters drawn uniformly from the alphabet, with every
+ * word equally likely in the text. An English-shaped corpus draws letters by their frequency in English and word
+ * lengths by their frequency in an English dictionary, derives a third of its words from earlier ones by adding common
+ * suffixes so that words share stems, and writes a text whose word frequencies follow Zipf's law, with capitalized
+ * words, punctuation and words missing from the dictionary mixed in.
+ */
+final class Corpus {
+
+    /**
+     * The shape of a generated corpus.
+     */
+    enum Shape {
+        /** Uniform letters, lengths and word frequencies. */
+        UNIFORM,
+        /** English-like letters, lengths, shared stems and Zipf-distributed word frequencies. */
+        ENGLISH
+    }
+
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+    private static final double[] LETTER_FREQUENCIES = {
+            8.2, 1.5, 2.8, 4.3, 12.7, 2.2, 2.0, 6.1, 7.0, 0.15, 0.77, 4.0, 2.4,
+            6.7, 7.5, 1.9, 0.095, 6.0, 6.3, 9.1, 2.8, 0.98, 2.4, 0.15, 2.0, 0.074};
+    private static final double[] LENGTH_FREQUENCIES = {
+            0, 0, 1, 4, 8, 11, 13, 14, 13, 11, 8, 6, 4, 3, 2, 1};
+    private static final String[] SUFFIXES = {"s", "ed", "ing", "er", "ly", "ness", "tion", "able"};
+    private static final String[] PUNCTUATION = {",", ".", ";", "!", "?"};
+    private static final int WORDS_PER_LINE = 12;
+
+    private final Shape shape;
+    private final Random random;
+    private final double[] letterTable;
+    private final double[] lengthTable;
+
+    /**
+     * Creates a corpus generator.
+     *
+     * @param shape the shape of the corpus
+     * @param seed  the seed of the random numbers, so the same seed gives the same corpus
+     */
+    Corpus(Shape shape, long seed) {
+        this.shape = shape;
+        this.random = new Random(seed);
+        this.letterTable = cumulative(LETTER_FREQUENCIES);
+        this.lengthTable = cumulative(LENGTH_FREQUENCIES);
+    }
+
+    /**
+     * Parses the name of a shape as used in benchmark parameters.
+     *
+     * @param name the name, in any case
+     * @return the shape
+     */
+    static Shape shape(String name) {
+        return Shape.valueOf(name.toUpperCase());
+    }
+
+    /**
+     * Generates distinct lowercase words.
+     *
+     * @param count the number of words
+     * @return the words, in the order they were generated
+     */
+    List<String> words(int count) {
+        Set<String> words = new LinkedHashSet<>(2 * count);
+        List<String> stems = new ArrayList<>(count);
+        while (words.size() < count) {
+            String word;
+            if (shape == Shape.ENGLISH && !stems.isEmpty() && random.nextInt(3) == 0) {
+                word = stems.get(random.nextInt(stems.size())) + SUFFIXES[random.nextInt(SUFFIXES.length)];
+            } else {
+                word = randomWord();
+            }
+            if (words.add(word)) {
+                stems.add(word);
+            }
+        }
+        return new ArrayList<>(words);
+    }
+
+    /**
+     * Generates a word that is usually not in a dictionary of the same shape.
+     *
+     * @return a random word
+     */
+    String randomWord() {
+        int length = shape == Shape.ENGLISH ? pick(lengthTable) : 3 + random.nextInt(10);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = LETTERS.charAt(shape == Shape.ENGLISH ? pick(letterTable) : random.nextInt(LETTERS.length()));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Writes words to a dictionary file, one per line.
+     *
+     * @param words the words
+     * @return the temporary file, which the caller deletes
+     * @throws IOException if the file cannot be written
+     */
+    static Path writeDictionary(List<String> words) throws IOException {
+        Path file = Files.createTempFile("dictionary", ".txt");
+        Files.write(file, words, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    /**
+     * Writes a text made of dictionary words to an importance file.
+     *
+     * @param words  the dictionary words
+     * @param tokens the number of words in the text
+     * @return the temporary file, which the caller deletes
+     * @throws IOException if the file cannot be written
+     */
+    Path writeImportanceText(List<String> words, int tokens) throws IOException {
+        double[] zipfTable = null;
+        if (shape == Shape.ENGLISH) {
+            double[] weights = new double[words.size()];
+            for (int rank = 0; rank < weights.length; rank++) {
+                weights[rank] = 1.0 / (rank + 1);
+            }
+            zipfTable = cumulative(weights);
+        }
+        Path file = Files.createTempFile("importance", ".txt");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int t = 0; t < tokens; t++) {
+                String token;
+                if (zipfTable == null) {
+                    token = words.get(random.nextInt(words.size()));
+                } else if (random.nextInt(5) == 0) {
+                    token = randomWord();
+                } else {
+                    token = words.get(pick(zipfTable));
+                    if (random.nextInt(10) == 0) {
+                        token = Character.toUpperCase(token.charAt(0)) + token.substring(1);
+                    }
+                    if (random.nextInt(8) == 0) {
+                        token += PUNCTUATION[random.nextInt(PUNCTUATION.length)];
+                    }
+                }
+                writer.write(token);
+                writer.write((t + 1) % WORDS_PER_LINE == 0 ? '\n' : ' ');
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Turns weights into a cumulative distribution ending at 1.
+     *
+     * @param weights the relative weights
+     * @return the cumulative distribution
+     */
+    private static double[] cumulative(double[] weights) {
+        double[] table = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            table[i] = sum;
+        }
+        for (int i = 0; i < table.length; i++) {
+            table[i] /= sum;
+        }
+        return table;
+    }
+
+    /**
+     * Draws an index from a cumulative distribution.
+     *
+     * @param table the cumulative distribution
+     * @return the index drawn
+     */
+    private int pick(double[] table) {
+        int index = Arrays.binarySearch(table, random.nextDouble());
+        return Math.min(index < 0 ? -index - 1 : index, table.length - 1);
+    }
+}
@@ -0,0 +1,175 @@
+package ID1069789.ID1070730.benchmarks;
+
+import ID1069789.ID1070730.Trie;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the throughput, in MB of importance file per second, of the Scanner path that
+ * {@link Trie#processImportanceFile(String)} used to take with the FileChannel tokenizer it uses now.
+ * The Scanner path is reproduced here: one String per token, cleaned, lower-cased and looked up with
+ * {@link Trie#search(String)}. It is measured once tokenizing alone and once with the lookups, so the two parts of
+ * the cost can be told apart. The {@code megabytes} counter in the results is the MB/s figure.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ImportanceFileBenchmark {
+
+    /**
+     * Counts the megabytes of importance file read, reported by JMH per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Throughput {
+        public double megabytes;
+
+        /**
+         * Starts every iteration from zero.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            megabytes = 0;
+        }
+    }
+
+    @Param({"uniform", "english"})
+    String shape;
+
+    @Param({"100000"})
+    int words;
+
+    private Path dictionaryFile;
+    private Path importanceFile;
+    private double fileMegabytes;
+    private Trie trie;
+    private PrintStream out;
+
+    /**
+     * Writes the dictionary and an importance text of ten words per dictionary word, and loads the Trie.
+     *
+     * @throws IOException if a file cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        Corpus corpus = new Corpus(Corpus.shape(shape), 42);
+        List<String> list = corpus.words(words);
+        dictionaryFile = Corpus.writeDictionary(list);
+        importanceFile = corpus.writeImportanceText(list, 10 * words);
+        fileMegabytes = Files.size(importanceFile) / 1e6;
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        trie = new Trie();
+        trie.loadDictionary(dictionaryFile.toString());
+    }
+
+    /**
+     * Restores standard output and deletes the generated files.
+     *
+     * @throws IOException if a file cannot be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(out);
+        Files.deleteIfExists(dictionaryFile);
+        Files.deleteIfExists(importanceFile);
+    }
+
+    /**
+     * Splits the importance file into tokens with a Scanner.
+     *
+     * @param throughput the megabytes counter
+     * @return the number of tokens, so the work is not eliminated
+     * @throws IOException if the file cannot be read
+     */
+    @Benchmark
+    public long scannerTokens(Throughput throughput) throws IOException {
+        long tokens = 0;
+        try (Scanner scanner = new Scanner(importanceFile, StandardCharsets.UTF_8)) {
+            while (scanner.hasNext()) {
+                tokens += scanner.next().length();
+            }
+        }
+        throughput.megabytes += fileMegabytes;
+        return tokens;
+    }
+
+    /**
+     * Looks up every cleaned token of the importance file read with a Scanner, as the importance pass used to.
+     *
+     * @param throughput the megabytes counter
+     * @return the number of dictionary words found, so the work is not eliminated
+     * @throws IOException if the file cannot be read
+     */
+    @Benchmark
+    public long scannerImportance(Throughput throughput) throws IOException {
+        long found = 0;
+        try (Scanner scanner = new Scanner(importanceFile, StandardCharsets.UTF_8)) {
+            while (scanner.hasNext()) {
+                String cleanWord = clean(scanner.next());
+                if (!cleanWord.isEmpty() && trie.search(cleanWord.toLowerCase()) != null) {
+                    found++;
+                }
+            }
+        }
+        throughput.megabytes += fileMegabytes;
+        return found;
+    }
+
+    /**
+     * Counts the importance file through the FileChannel tokenizer.
+     *
+     * @param throughput the megabytes counter
+     * @return the Trie
+     */
+    @Benchmark
+    public Trie channelImportance(Throughput throughput) {
+        trie.processImportanceFile(importanceFile.toString());
+        throughput.megabytes += fileMegabytes;
+        return trie;
+    }
+
+    /**
+     * Removes trailing non-letters from a token and rejects it if any other non-letter remains, as the Scanner path
+     * of {@link Trie#processImportanceFile(String)} did.
+     *
+     * @param word the token
+     * @return the cleaned token, or an empty string if it is rejected
+     */
+    private static String clean(String word) {
+        int end = word.length() - 1;
+        while (end >= 0 && !Character.isLetter(word.charAt(end))) {
+            end--;
+        }
+        for (int i = 0; i < end; i++) {
+            if (!Character.isLetter(word.charAt(i))) {
+                return "";
+            }
+        }
+        return word.substring(0, end + 1);
+    }
+}
@@ -0,0 +1,145 @@
+package ID1069789.ID1070730.benchmarks;
+
+import ID1069789.ID1070730.Trie;
+import ID1069789.ID1070730.TrieBuilder;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link Trie#loadDictionary(String)} and {@link Trie#processImportanceFile(String)} on generated files,
+ * and compares loading a sorted copy of the dictionary with building from it with {@link TrieBuilder}.
+ * The importance text holds ten words per dictionary word. Processing adds to the importances of one loaded Trie
+ * on every operation, as a long-running service would. The messages the Trie prints are discarded while the
+ * benchmark runs.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LoadBenchmark {
+
+    @Param({"uniform", "english"})
+    String shape;
+
+    @Param({"10000", "100000"})
+    int words;
+
+    @Param({"false", "true"})
+    boolean compressed;
+
+    private Path dictionaryFile;
+    private Path sortedDictionaryFile;
+    private Path importanceFile;
+    private Trie trie;
+    private PrintStream out;
+
+    /**
+     * Writes the dictionary, a sorted copy of it and the importance file, and loads the Trie that processes the importance file.
+     *
+     * @throws IOException if a file cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        Corpus corpus = new Corpus(Corpus.shape(shape), 42);
+        List<String> list = corpus.words(words);
+        dictionaryFile = Corpus.writeDictionary(list);
+        List<String> sorted = new ArrayList<>(list);
+        Collections.sort(sorted);
+        sortedDictionaryFile = Corpus.writeDictionary(sorted);
+        importanceFile = corpus.writeImportanceText(list, 10 * words);
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        trie = new Trie(compressed);
+        trie.loadDictionary(dictionaryFile.toString());
+    }
+
+    /**
+     * Restores standard output and deletes the generated files.
+     *
+     * @throws IOException if a file cannot be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(out);
+        Files.deleteIfExists(dictionaryFile);
+        Files.deleteIfExists(sortedDictionaryFile);
+        Files.deleteIfExists(importanceFile);
+    }
+
+    /**
+     * Loads the dictionary into a new Trie.
+     *
+     * @return the Trie, so its work is not eliminated
+     */
+    @Benchmark
+    public Trie loadDictionary() {
+        Trie fresh = new Trie(compressed);
+        fresh.loadDictionary(dictionaryFile.toString());
+        return fresh;
+    }
+
+    /**
+     * Loads the sorted dictionary into a new Trie one word at a time.
+     *
+     * @return the Trie, so its work is not eliminated
+     */
+    @Benchmark
+    public Trie loadSortedDictionary() {
+        Trie fresh = new Trie(compressed);
+        fresh.loadDictionary(sortedDictionaryFile.toString());
+        return fresh;
+    }
+
+    /**
+     * Builds a new Trie from the sorted dictionary in one pass.
+     *
+     * @return the Trie, so its work is not eliminated
+     */
+    @Benchmark
+    public Trie buildSortedDictionary() {
+        return new TrieBuilder(compressed).addDictionary(sortedDictionaryFile.toString()).build();
+    }
+
+    /**
+     * Counts the importance file on the calling thread.
+     *
+     * @return the Trie
+     */
+    @Benchmark
+    public Trie processImportanceFile() {
+        trie.processImportanceFile(importanceFile.toString());
+        return trie;
+    }
+
+    /**
+     * Counts the importance file with one thread per processor.
+     *
+     * @return the Trie
+     */
+    @Benchmark
+    public Trie processImportanceFileParallel() {
+        trie.processImportanceFile(importanceFile.toString(), Runtime.getRuntime().availableProcessors());
+        return trie;
+    }
+}
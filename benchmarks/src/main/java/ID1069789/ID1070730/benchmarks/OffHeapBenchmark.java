@@ -0,0 +1,152 @@
+package ID1069789.ID1070730.benchmarks;
+
+import ID1069789.ID1070730.OffHeapTrie;
+import ID1069789.ID1070730.Suggestion;
+import ID1069789.ID1070730.Trie;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the garbage collection cost of {@link Trie} with that of {@link OffHeapTrie} on the same generated files,
+ * meant to be run with {@code -prof gc}.
+ * Every storage runs in its own fork under the same heap settings. Loading reports in {@code gc.alloc.rate.norm} the
+ * heap each trie allocates while it is built, and in {@code gc.count} and {@code gc.time} what collecting it costs.
+ * Queries run against a trie that stays loaded, so their latency percentiles include the collections that a large
+ * live heap slows down.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Thread)
+public class OffHeapBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"english"})
+    String shape;
+
+    @Param({"1000000"})
+    int words;
+
+    @Param({"heap", "offheap"})
+    String storage;
+
+    @Param({"10"})
+    int k;
+
+    private Path dictionaryFile;
+    private Path importanceFile;
+    private Trie trie;
+    private OffHeapTrie offHeapTrie;
+    private String[] queries;
+    private PrintStream out;
+    private int next;
+
+    /**
+     * Writes the dictionary and importance files, loads the trie that is queried and picks the queries.
+     *
+     * @throws IOException if a file cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        Corpus corpus = new Corpus(Corpus.shape(shape), 42);
+        List<String> list = corpus.words(words);
+        dictionaryFile = Corpus.writeDictionary(list);
+        importanceFile = corpus.writeImportanceText(list, 10 * words);
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        if (storage.equals("offheap")) {
+            offHeapTrie = loadOffHeap();
+        } else {
+            trie = loadHeap();
+        }
+
+        Random random = new Random(7);
+        queries = new String[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            String word;
+            do {
+                word = list.get(random.nextInt(list.size()));
+            } while (word.length() < 2);
+            queries[q] = word.substring(0, 2 + random.nextInt(word.length() - 1));
+        }
+    }
+
+    /**
+     * Restores standard output and deletes the generated files.
+     *
+     * @throws IOException if a file cannot be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(out);
+        Files.deleteIfExists(dictionaryFile);
+        Files.deleteIfExists(importanceFile);
+    }
+
+    /**
+     * Loads the dictionary and importance file into a new Trie.
+     *
+     * @return the Trie
+     */
+    private Trie loadHeap() {
+        Trie fresh = new Trie();
+        fresh.loadDictionary(dictionaryFile.toString());
+        fresh.processImportanceFile(importanceFile.toString());
+        return fresh;
+    }
+
+    /**
+     * Loads the dictionary and importance file into a new OffHeapTrie.
+     *
+     * @return the OffHeapTrie
+     */
+    private OffHeapTrie loadOffHeap() {
+        OffHeapTrie fresh = new OffHeapTrie();
+        fresh.loadDictionary(dictionaryFile.toString());
+        fresh.processImportanceFile(importanceFile.toString());
+        return fresh;
+    }
+
+    /**
+     * Loads the dictionary and importance file into a new trie of the chosen storage.
+     *
+     * @return the trie, so the work is not eliminated
+     */
+    @Benchmark
+    public Object load() {
+        return storage.equals("offheap") ? loadOffHeap() : loadHeap();
+    }
+
+    /**
+     * Finds the k best suggestions for the next query in the loaded trie.
+     *
+     * @return the suggestions
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Suggestion> suggest() {
+        String query = queries[next];
+        next = (next + 1) & (QUERIES - 1);
+        return offHeapTrie != null ? offHeapTrie.suggest(query, k) : trie.suggest(query, k);
+    }
+}
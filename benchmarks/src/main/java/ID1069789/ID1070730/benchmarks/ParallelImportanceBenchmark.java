@@ -0,0 +1,94 @@
+package ID1069789.ID1070730.benchmarks;
+
+import ID1069789.ID1070730.Trie;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how {@link Trie#processImportanceFile(String, int)} scales with the number of threads.
+ * The {@code megabytes} counter in the results is the MB/s figure; dividing it by the figure for one thread gives the
+ * speedup.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ParallelImportanceBenchmark {
+
+    @Param({"english"})
+    String shape;
+
+    @Param({"100000"})
+    int words;
+
+    @Param({"1", "2", "4", "8"})
+    int threads;
+
+    private Path dictionaryFile;
+    private Path importanceFile;
+    private double fileMegabytes;
+    private Trie trie;
+    private PrintStream out;
+
+    /**
+     * Writes the dictionary and an importance text of ten words per dictionary word, and loads the Trie.
+     *
+     * @throws IOException if a file cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        Corpus corpus = new Corpus(Corpus.shape(shape), 42);
+        List<String> list = corpus.words(words);
+        dictionaryFile = Corpus.writeDictionary(list);
+        importanceFile = corpus.writeImportanceText(list, 10 * words);
+        fileMegabytes = Files.size(importanceFile) / 1e6;
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        trie = new Trie();
+        trie.loadDictionary(dictionaryFile.toString());
+    }
+
+    /**
+     * Restores standard output and deletes the generated files.
+     *
+     * @throws IOException if a file cannot be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(out);
+        Files.deleteIfExists(dictionaryFile);
+        Files.deleteIfExists(importanceFile);
+    }
+
+    /**
+     * Counts the importance file on the given number of threads.
+     *
+     * @param throughput the megabytes counter
+     * @return the Trie
+     */
+    @Benchmark
+    public Trie processImportanceFile(ImportanceFileBenchmark.Throughput throughput) {
+        trie.processImportanceFile(importanceFile.toString(), threads);
+        throughput.megabytes += fileMegabytes;
+        return trie;
+    }
+}
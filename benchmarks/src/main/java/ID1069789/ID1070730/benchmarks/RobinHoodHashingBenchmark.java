@@ -0,0 +1,106 @@
+package ID1069789.ID1070730.benchmarks;
+
+import ID1069789.ID1070730.RobinHoodHashing;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link RobinHoodHashing#insert(char)} and {@link RobinHoodHashing#search(char)} on tables of the sizes a
+ * Trie node sees: a few children deep in the Trie, an alphabet near the root and a wide Unicode fan-out.
+ * Inserting fills a new table from empty, so it includes every rehash on the way. Searches cycle through the keys in a
+ * random order, either all present or all absent.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RobinHoodHashingBenchmark {
+
+    @Param({"4", "26", "200"})
+    int size;
+
+    @Param({"0.9"})
+    float loadFactor;
+
+    private char[] keys;
+    private char[] missing;
+    private RobinHoodHashing table;
+    private int next;
+
+    /**
+     * Picks the keys in a random order and builds the table searched.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        char[] all = new char[2 * size];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = (char) ('a' + i);
+        }
+        for (int i = all.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            char swap = all[i];
+            all[i] = all[j];
+            all[j] = swap;
+        }
+        keys = new char[size];
+        missing = new char[size];
+        System.arraycopy(all, 0, keys, 0, size);
+        System.arraycopy(all, size, missing, 0, size);
+        table = new RobinHoodHashing(loadFactor);
+        for (char key : keys) {
+            table.insert(key);
+        }
+    }
+
+    /**
+     * Fills a new table with every key.
+     *
+     * @return the table, so its work is not eliminated
+     */
+    @Benchmark
+    public RobinHoodHashing insert() {
+        RobinHoodHashing fresh = new RobinHoodHashing(loadFactor);
+        for (char key : keys) {
+            fresh.insert(key);
+        }
+        return fresh;
+    }
+
+    /**
+     * Searches for a key that is in the table.
+     *
+     * @return the child found
+     */
+    @Benchmark
+    public Object searchHit() {
+        char key = keys[next];
+        next = next + 1 == size ? 0 : next + 1;
+        return table.search(key);
+    }
+
+    /**
+     * Searches for a key that is not in the table.
+     *
+     * @return null, the result of the search
+     */
+    @Benchmark
+    public Object searchMiss() {
+        char key = missing[next];
+        next = next + 1 == size ? 0 : next + 1;
+        return table.search(key);
+    }
+}
@@ -0,0 +1,133 @@
+package ID1069789.ID1070730.benchmarks;
+
+import ID1069789.ID1070730.ShardedTrie;
+import ID1069789.ID1070730.Suggestion;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how {@link ShardedTrie} scales with the number of shards: loading a dictionary, processing an importance
+ * file and answering suggestion queries, with one worker thread per processor.
+ * Comparing a single shard with several shows the gain of the parallel build and fan-out on the machine at hand.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ShardedTrieBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"english"})
+    String shape;
+
+    @Param({"100000"})
+    int words;
+
+    @Param({"1", "4", "16"})
+    int shards;
+
+    @Param({"10"})
+    int k;
+
+    private Path dictionaryFile;
+    private Path importanceFile;
+    private ShardedTrie trie;
+    private String[] queries;
+    private PrintStream out;
+    private int next;
+
+    /**
+     * Writes the dictionary and importance files, loads the ShardedTrie that is queried and picks the queries.
+     *
+     * @throws IOException if a file cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        Corpus corpus = new Corpus(Corpus.shape(shape), 42);
+        List<String> list = corpus.words(words);
+        dictionaryFile = Corpus.writeDictionary(list);
+        importanceFile = corpus.writeImportanceText(list, 10 * words);
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        trie = new ShardedTrie(shards);
+        trie.loadDictionary(dictionaryFile.toString());
+        trie.processImportanceFile(importanceFile.toString());
+
+        Random random = new Random(7);
+        queries = new String[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            String word = list.get(random.nextInt(list.size()));
+            queries[q] = word.substring(0, 1 + random.nextInt(word.length()));
+        }
+    }
+
+    /**
+     * Restores standard output, releases the worker threads and deletes the generated files.
+     *
+     * @throws IOException if a file cannot be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(out);
+        trie.close();
+        Files.deleteIfExists(dictionaryFile);
+        Files.deleteIfExists(importanceFile);
+    }
+
+    /**
+     * Loads the dictionary into a new ShardedTrie.
+     *
+     * @return the number of nodes, so the work is not eliminated
+     */
+    @Benchmark
+    public int loadDictionary() {
+        try (ShardedTrie fresh = new ShardedTrie(shards)) {
+            fresh.loadDictionary(dictionaryFile.toString());
+            return fresh.nodeCount();
+        }
+    }
+
+    /**
+     * Counts the importance file into the loaded ShardedTrie.
+     *
+     * @return the ShardedTrie
+     */
+    @Benchmark
+    public ShardedTrie processImportanceFile() {
+        trie.processImportanceFile(importanceFile.toString());
+        return trie;
+    }
+
+    /**
+     * Finds the k best suggestions for the next query.
+     *
+     * @return the suggestions
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Suggestion> suggest() {
+        String query = queries[next];
+        next = (next + 1) & (QUERIES - 1);
+        return trie.suggest(query, k);
+    }
+}
@@ -0,0 +1,118 @@
+package ID1069789.ID1070730.benchmarks;
+
+import ID1069789.ID1070730.Suggestion;
+import ID1069789.ID1070730.Trie;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link Trie#suggest(String, int)} and {@link Trie#suggestWords(String, int)} for several k and input
+ * lengths on a Trie loaded from a generated dictionary and importance text.
+ * Queries are the first characters of random dictionary words, cycled in a fixed order, so short inputs exercise the
+ * prefix search over large subtrees and long inputs the fuzzy search. The lines printed by suggestWords are discarded.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SuggestionBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"english"})
+    String shape;
+
+    @Param({"100000"})
+    int words;
+
+    @Param({"1", "10", "100"})
+    int k;
+
+    @Param({"1", "3", "6"})
+    int inputLength;
+
+    private String[] queries;
+    private Trie trie;
+    private PrintStream out;
+    private int next;
+
+    /**
+     * Loads the Trie and picks the queries.
+     *
+     * @throws IOException if a generated file cannot be written or deleted
+     */
+    @Setup
+    public void setUp() throws IOException {
+        Corpus corpus = new Corpus(Corpus.shape(shape), 42);
+        List<String> list = corpus.words(words);
+        Path dictionaryFile = Corpus.writeDictionary(list);
+        Path importanceFile = corpus.writeImportanceText(list, 10 * words);
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        trie = new Trie();
+        trie.loadDictionary(dictionaryFile.toString());
+        trie.processImportanceFile(importanceFile.toString());
+        Files.delete(dictionaryFile);
+        Files.delete(importanceFile);
+
+        Random random = new Random(7);
+        queries = new String[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            String word;
+            do {
+                word = list.get(random.nextInt(list.size()));
+            } while (word.length() < inputLength);
+            queries[q] = word.substring(0, inputLength);
+        }
+    }
+
+    /**
+     * Restores standard output.
+     */
+    @TearDown
+    public void tearDown() {
+        System.setOut(out);
+    }
+
+    /**
+     * Finds the k best suggestions for the next query.
+     *
+     * @return the suggestions
+     */
+    @Benchmark
+    public List<Suggestion> suggest() {
+        String query = queries[next];
+        next = (next + 1) & (QUERIES - 1);
+        return trie.suggest(query, k);
+    }
+
+    /**
+     * Finds and prints the k best suggestions for the next query.
+     */
+    @Benchmark
+    public void suggestWords() {
+        String query = queries[next];
+        next = (next + 1) & (QUERIES - 1);
+        trie.suggestWords(query, k);
+    }
+}
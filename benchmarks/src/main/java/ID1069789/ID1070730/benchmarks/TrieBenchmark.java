@@ -0,0 +1,112 @@
+package ID1069789.ID1070730.benchmarks;
+
+import ID1069789.ID1070730.Trie;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link Trie#insert(String)} and {@link Trie#search(String)} on generated dictionaries, in plain and
+ * compressed mode.
+ * Inserting builds a whole Trie from the dictionary, so one operation is one dictionary. Searches cycle through
+ * dictionary words and words of the same shape that are not in the dictionary, in a random order.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TrieBenchmark {
+
+    @Param({"uniform", "english"})
+    String shape;
+
+    @Param({"10000", "100000"})
+    int words;
+
+    @Param({"false", "true"})
+    boolean compressed;
+
+    private String[] dictionary;
+    private String[] hits;
+    private String[] misses;
+    private Trie trie;
+    private int next;
+
+    /**
+     * Generates the dictionary and the searched words, and builds the Trie searched.
+     */
+    @Setup
+    public void setUp() {
+        Corpus corpus = new Corpus(Corpus.shape(shape), 42);
+        List<String> list = corpus.words(words);
+        dictionary = list.toArray(new String[0]);
+        trie = new Trie(compressed);
+        for (String word : dictionary) {
+            trie.insert(word);
+        }
+
+        Collections.shuffle(list, new Random(7));
+        hits = list.toArray(new String[0]);
+        misses = new String[hits.length];
+        for (int i = 0; i < misses.length; i++) {
+            String word;
+            do {
+                word = corpus.randomWord();
+            } while (trie.search(word) != null);
+            misses[i] = word;
+        }
+    }
+
+    /**
+     * Builds a Trie from every dictionary word.
+     *
+     * @return the Trie, so its work is not eliminated
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Trie insert() {
+        Trie fresh = new Trie(compressed);
+        for (String word : dictionary) {
+            fresh.insert(word);
+        }
+        return fresh;
+    }
+
+    /**
+     * Searches for a word that is in the Trie.
+     *
+     * @return the node found
+     */
+    @Benchmark
+    public Object searchHit() {
+        String word = hits[next];
+        next = next + 1 == hits.length ? 0 : next + 1;
+        return trie.search(word);
+    }
+
+    /**
+     * Searches for a word that is not in the Trie.
+     *
+     * @return null, the result of the search
+     */
+    @Benchmark
+    public Object searchMiss() {
+        String word = misses[next];
+        next = next + 1 == misses.length ? 0 : next + 1;
+        return trie.search(word);
+    }
+}
@@ -0,0 +1,323 @@
+package ID1069789.ID1070730;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Randomized stress tests that query a {@link ConcurrentTrie} from several threads while other threads change it,
+ * and checks that a query keeps the snapshot it started on.
+ */
+class ConcurrentTrieTest {
+    private static final int READERS = 4;
+    private static final int WRITES = 100_000;
+    private static final int WORDS = 2_000;
+    private static final int HOT_WORDS = 16;
+    private static final int INSERTERS = 2;
+    private static final int UPDATERS = 2;
+    private static final int UPDATES = 50_000;
+
+    /**
+     * Creates random lowercase words. Short words share prefixes and, in compressed mode, edges that are split and
+     * merged again as words come and go, while most long words end in leaves that removals cut off.
+     *
+     * @param random the source of randomness
+     * @param count  the number of words
+     * @return the distinct words
+     */
+    private static List<String> randomWords(Random random, int count) {
+        Set<String> words = new HashSet<>();
+        while (words.size() < count) {
+            int length = 1 + random.nextInt(8);
+            StringBuilder word = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words.add(word.toString());
+        }
+        return new ArrayList<>(words);
+    }
+
+    /**
+     * Runs query threads against the Trie until the writer is done, checking that every query completes and only
+     * suggests words that were ever inserted.
+     *
+     * @param trie   the Trie under test
+     * @param words  every word that can be in the Trie
+     * @param inputs the input words to query
+     * @param writer the changes to make while the queries run
+     * @throws Exception if a thread fails
+     */
+    private static void queryWhileWriting(ConcurrentTrie trie, List<String> words, List<String> inputs,
+            Runnable writer) throws Exception {
+        Set<String> known = new HashSet<>(words);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(READERS + 1);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                long seed = r;
+                readers.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    int queries = 0;
+                    while (writing.get() || queries < 100) {
+                        String input = inputs.get(random.nextInt(inputs.size()));
+                        List<Suggestion> suggestions;
+                        // A lazy stream reads importance as it goes, so only the top-k paths rank one set of values
+                        boolean lazy = queries % 3 == 2;
+                        switch (queries++ % 3) {
+                            case 0:
+                                suggestions = trie.suggest(input, 5);
+                                break;
+                            case 1:
+                                suggestions = trie.suggestWordsBatch(inputs.subList(0, 8), 5, MatchOptions.DEFAULT, 1)
+                                        .get(0);
+                                break;
+                            default:
+                                suggestions = trie.suggestions(input).limit(5).collect(Collectors.toList());
+                                break;
+                        }
+                        int previous = Integer.MAX_VALUE;
+                        for (Suggestion suggestion : suggestions) {
+                            assertTrue(known.contains(suggestion.word()), suggestion.word());
+                            assertTrue(lazy || suggestion.importance() <= previous, suggestions::toString);
+                            previous = suggestion.importance();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            Future<?> writes = executor.submit(() -> {
+                try {
+                    writer.run();
+                } finally {
+                    writing.set(false);
+                }
+            });
+            writes.get(60, TimeUnit.SECONDS);
+            for (Future<?> reader : readers) {
+                reader.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs tasks on their own threads and waits until all of them have finished.
+     *
+     * @param tasks the tasks
+     */
+    private static void runAll(List<Runnable> tasks) {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Runnable task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Checks that the importance bound of every node covers its own importance and the bounds of its children.
+     *
+     * @param node the root of the subtree to check
+     */
+    private static void assertBoundsCover(TrieNode node) {
+        assertTrue(node.maxImportance >= node.importance);
+        for (TrieNode child : node.children) {
+            if (child != null) {
+                assertTrue(node.maxImportance >= child.maxImportance);
+                assertBoundsCover(child);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void concurrentInsertsAndImportanceUpdatesAreNeitherLostNorTorn(boolean compressed) throws Exception {
+        Random random = new Random(10);
+        List<String> words = randomWords(random, WORDS);
+        List<String> initial = words.subList(0, WORDS / 2);
+        List<String> inserted = words.subList(WORDS / 2, WORDS);
+        ConcurrentTrie trie = new ConcurrentTrie(compressed);
+        for (String word : initial) {
+            trie.insert(word);
+        }
+        AtomicIntegerArray expected = new AtomicIntegerArray(initial.size());
+        ConcurrentLinkedQueue<String> published = new ConcurrentLinkedQueue<>();
+        List<String> inputs = words.stream().map(word -> word.substring(0, Math.min(2, word.length())))
+                .distinct().collect(Collectors.toList());
+
+        queryWhileWriting(trie, words, inputs, () -> {
+            AtomicBoolean inserting = new AtomicBoolean(true);
+            List<Runnable> tasks = new ArrayList<>();
+            tasks.add(() -> {
+                List<Runnable> inserters = new ArrayList<>();
+                for (int t = 0; t < INSERTERS; t++) {
+                    int first = t;
+                    inserters.add(() -> {
+                        for (int i = first; i < inserted.size(); i += INSERTERS) {
+                            trie.insert(inserted.get(i));
+                            published.add(inserted.get(i));
+                        }
+                    });
+                }
+                runAll(inserters);
+                inserting.set(false);
+            });
+            for (int t = 0; t < UPDATERS; t++) {
+                long seed = 100 + t;
+                tasks.add(() -> {
+                    Random updates = new Random(seed);
+                    for (int i = 0; i < UPDATES; i++) {
+                        int index = updates.nextInt(initial.size());
+                        int delta = 1 + updates.nextInt(3);
+                        assertTrue(trie.addImportance(initial.get(index), delta));
+                        expected.addAndGet(index, delta);
+                    }
+                });
+            }
+            tasks.add(() -> {
+                int[] seen = new int[initial.size()];
+                do {
+                    for (String word : published) {
+                        TrieNode node = trie.search(word);
+                        assertTrue(node != null && node.wordLength > 0, word);
+                    }
+                    for (int i = 0; i < seen.length; i += 7) {
+                        int importance = trie.importanceOf(initial.get(i));
+                        assertTrue(importance >= seen[i], initial.get(i));
+                        seen[i] = importance;
+                    }
+                } while (inserting.get());
+            });
+            runAll(tasks);
+        });
+
+        for (String word : words) {
+            TrieNode node = trie.search(word);
+            assertTrue(node != null && node.wordLength > 0, word);
+        }
+        for (int i = 0; i < initial.size(); i++) {
+            assertEquals(expected.get(i), trie.importanceOf(initial.get(i)), initial.get(i));
+        }
+        assertBoundsCover(trie.root);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void rescalingDuringSuggestDoesNotChangeTheValuesItRanks(boolean compressed) {
+        AtomicBoolean rescaleOnSearch = new AtomicBoolean();
+        ConcurrentTrie trie = new ConcurrentTrie(compressed) {
+            @Override
+            TrieNode search(TrieNode start, char[] word, int length) {
+                if (rescaleOnSearch.getAndSet(false)) {
+                    int epoch = epoch();
+                    while (epoch() - epoch < 8 || scaleEpoch != epoch()) {
+                        advanceEpoch();
+                    }
+                }
+                return super.search(start, word, length);
+            }
+        };
+        for (String word : List.of("help", "hello", "helium", "held", "world")) {
+            trie.insert(word);
+        }
+        trie.addImportance("hello", 800);
+        trie.addImportance("help", 400);
+        trie.addImportance("helium", 200);
+
+        rescaleOnSearch.set(true);
+        List<Suggestion> suggestions = trie.suggest("hel", 3);
+
+        assertEquals(List.of(800, 400, 200),
+                suggestions.stream().map(Suggestion::importance).collect(Collectors.toList()));
+        assertEquals(800 >> 8, trie.importanceOf("hello"));
+        assertBoundsCover(trie.root);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void queriesSeeConsistentSnapshotsWhileWordsAreRemoved(boolean compressed) throws Exception {
+        Random random = new Random(23);
+        List<String> words = randomWords(random, WORDS);
+        ConcurrentTrie trie = new ConcurrentTrie(compressed);
+        for (String word : words) {
+            trie.insert(word);
+        }
+        Set<String> present = new HashSet<>(words);
+        List<String> hot = words.stream().filter(word -> word.length() == 8).limit(HOT_WORDS)
+                .collect(Collectors.toList());
+
+        queryWhileWriting(trie, words, hot, () -> {
+            Random writes = new Random(42);
+            for (int i = 0; i < WRITES; i++) {
+                String word = hot.get(writes.nextInt(hot.size()));
+                if (present.remove(word)) {
+                    assertTrue(trie.remove(word));
+                } else {
+                    trie.insert(word);
+                    present.add(word);
+                }
+            }
+        });
+
+        for (String word : words) {
+            TrieNode node = trie.search(word);
+            assertEquals(present.contains(word), node != null && node.wordLength > 0, word);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void removalDuringSuggestDoesNotChangeTheVersionItSearches(boolean compressed) {
+        AtomicReference<String> removeOnSearch = new AtomicReference<>();
+        ConcurrentTrie trie = new ConcurrentTrie(compressed) {
+            @Override
+            TrieNode search(TrieNode start, char[] word, int length) {
+                String removed = removeOnSearch.getAndSet(null);
+                if (removed != null) {
+                    remove(removed);
+                }
+                return super.search(start, word, length);
+            }
+        };
+        for (String word : List.of("help", "hello", "helium", "held", "world")) {
+            trie.insert(word);
+        }
+        trie.addImportance("hello", 5);
+
+        removeOnSearch.set("hello");
+        List<Suggestion> suggestions = trie.suggest("hello", 3);
+
+        assertEquals("hello", suggestions.get(0).word());
+        assertNull(removeOnSearch.get());
+        assertNull(trie.search("hello"));
+    }
+}
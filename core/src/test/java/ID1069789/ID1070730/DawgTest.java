@@ -0,0 +1,140 @@
+package ID1069789.ID1070730;
+
+import static ID1069789.ID1070730.SuggestionFixture.MIXED_CASE_INPUTS;
+import static ID1069789.ID1070730.SuggestionFixture.UPPERCASE_COMPLETIONS;
+import static ID1069789.ID1070730.SuggestionFixture.WORDS;
+import static ID1069789.ID1070730.SuggestionFixture.assertSameRanking;
+import static ID1069789.ID1070730.SuggestionFixture.importanceFile;
+import static ID1069789.ID1070730.SuggestionFixture.words;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that a {@link Dawg} shares common suffixes, numbers words by their lexicographic rank and answers queries as
+ * a {@link Trie} holding the same words.
+ */
+class DawgTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Creates distinct random words over a small alphabet, sorted.
+     *
+     * @param random the source of randomness
+     * @param count  the number of words to draw
+     * @return the distinct words in ascending order
+     */
+    private static List<String> sortedWords(Random random, int count) {
+        TreeSet<String> words = new TreeSet<>();
+        for (int i = 0; i < count; i++) {
+            char[] word = new char[1 + random.nextInt(8)];
+            for (int j = 0; j < word.length; j++) {
+                word[j] = (char) ('a' + random.nextInt(5));
+            }
+            words.add(new String(word));
+        }
+        return new ArrayList<>(words);
+    }
+
+    @Test
+    void sharedSuffixesAreStoredOnce() {
+        List<String> words = List.of("bing", "ding", "king", "ring", "sing", "wing");
+        Dawg dawg = new Dawg(words);
+        Trie trie = new Trie();
+        words.forEach(trie::insert);
+
+        assertEquals(5, dawg.stateCount(), "one state per character of \"?ing\" and the root");
+        assertEquals(25, trie.nodeCount());
+
+        List<String> suffixes = List.of("darkness", "darkning", "kindness", "kinding", "sadness", "sadding",
+                "walking", "walkness");
+        Dawg suffixed = new Dawg(new ArrayList<>(new TreeSet<>(suffixes)));
+        Trie suffixedTrie = new Trie();
+        suffixes.forEach(suffixedTrie::insert);
+        assertTrue(suffixed.stateCount() < suffixedTrie.nodeCount(),
+                suffixed.stateCount() + " states for " + suffixedTrie.nodeCount() + " nodes");
+    }
+
+    @Test
+    void searchReturnsTheLexicographicIndex() {
+        List<String> words = sortedWords(new Random(4), 3_000);
+        Dawg dawg = new Dawg(words);
+
+        assertEquals(words.size(), dawg.wordCount());
+        for (int i = 0; i < words.size(); i++) {
+            assertEquals(i, dawg.search(words.get(i)), words.get(i));
+            assertEquals(i, dawg.search(words.get(i).toUpperCase()), words.get(i));
+        }
+        for (String absent : List.of("", "f", "aaaaaaaaa", "abf")) {
+            assertEquals(-1, dawg.search(absent), absent);
+        }
+    }
+
+    @Test
+    void unsortedOrDuplicateWordsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new Dawg(List.of("b", "a")));
+        assertThrows(IllegalArgumentException.class, () -> new Dawg(List.of("a", "a")));
+        assertThrows(IllegalArgumentException.class, () -> new Dawg(List.of("a", "ab", "ab", "b")));
+        assertThrows(IllegalArgumentException.class, () -> new Dawg(List.of("ab", "a")));
+    }
+
+    @Test
+    void randomDictionariesMatchTrie() throws IOException {
+        Random random = new Random(8);
+        List<String> words = sortedWords(random, 2_000);
+        List<String> shuffled = new ArrayList<>(words);
+        Collections.shuffle(shuffled, random);
+        StringBuilder importance = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            importance.append(words.get((int) Math.abs(random.nextGaussian() * words.size() / 4) % words.size()))
+                    .append(random.nextInt(10) == 0 ? ". " : " ");
+        }
+        Path dictionaryFile = Files.write(directory.resolve("dictionary.txt"), shuffled);
+        Path importanceFile = Files.writeString(directory.resolve("importance.txt"), importance);
+        Dawg dawg = Dawg.fromDictionary(dictionaryFile.toString());
+        dawg.processImportanceFile(importanceFile.toString());
+        Trie trie = new Trie();
+        trie.loadDictionary(dictionaryFile.toString());
+        trie.processImportanceFile(importanceFile.toString());
+
+        assertEquals(words.size(), dawg.wordCount());
+        for (String word : words) {
+            assertEquals(trie.importanceOf(word), dawg.importanceOf(word), word);
+        }
+        for (int i = 0; i < 200; i++) {
+            String word = words.get(random.nextInt(words.size()));
+            String input = word.substring(0, 1 + random.nextInt(word.length()));
+            List<Suggestion> all = trie.suggest(input, words.size());
+            for (int k : new int[] {1, 5, 20}) {
+                assertSameRanking(all, trie.suggest(input, k), dawg.suggest(input, k), input + ", k = " + k);
+            }
+        }
+    }
+
+    @Test
+    void uppercaseInputGetsPrefixCompletions() throws IOException {
+        Path importanceFile = importanceFile(directory);
+        Dawg dawg = new Dawg(WORDS);
+        dawg.processImportanceFile(importanceFile.toString());
+        Trie trie = SuggestionFixture.trie(importanceFile);
+
+        for (String input : MIXED_CASE_INPUTS) {
+            assertEquals(words(trie.suggest(input, 4)), words(dawg.suggest(input, 4)), input);
+        }
+        assertEquals(UPPERCASE_COMPLETIONS, words(dawg.suggest("HEL", 4)));
+    }
+}
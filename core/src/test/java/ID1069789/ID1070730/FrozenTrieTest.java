@@ -0,0 +1,133 @@
+package ID1069789.ID1070730;
+
+import static ID1069789.ID1070730.SuggestionFixture.MIXED_CASE_INPUTS;
+import static ID1069789.ID1070730.SuggestionFixture.UPPERCASE_COMPLETIONS;
+import static ID1069789.ID1070730.SuggestionFixture.importanceFile;
+import static ID1069789.ID1070730.SuggestionFixture.words;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests that a {@link FrozenTrie} answers queries as the {@link Trie} it was frozen from.
+ */
+class FrozenTrieTest {
+    private static final int WORDS = 3_000;
+    private static final int QUERIES = 300;
+
+    /**
+     * Creates a Trie of random words that share prefixes, giving every word a different importance so suggestions
+     * come out in one order.
+     *
+     * @param compressed whether the Trie is path-compressed
+     * @param random     the source of randomness
+     * @return the Trie
+     */
+    private static Trie randomTrie(boolean compressed, Random random) {
+        Set<String> words = new LinkedHashSet<>();
+        while (words.size() < WORDS) {
+            int length = 1 + random.nextInt(9);
+            StringBuilder word = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                word.append((char) ('a' + random.nextInt(random.nextBoolean() ? 4 : 26)));
+            }
+            words.add(word.toString());
+        }
+        List<String> order = new ArrayList<>(words);
+        Collections.shuffle(order, random);
+        Trie trie = new Trie(compressed);
+        for (int i = 0; i < order.size(); i++) {
+            trie.insert(order.get(i));
+            trie.addImportance(order.get(i), i + 1);
+        }
+        return trie;
+    }
+
+    /**
+     * Writes a valid snapshot, lets a change corrupt its header and checks that opening it is rejected.
+     *
+     * @param directory  the directory to write into
+     * @param corruption the change to make to the snapshot bytes
+     * @param message    the start of the expected error message
+     * @throws IOException if the file cannot be written
+     */
+    private static void assertRejected(Path directory, Consumer<ByteBuffer> corruption,
+            String message) throws IOException {
+        Path snapshot = directory.resolve("corrupt.trie");
+        SuggestionFixture.trie(importanceFile(directory)).saveSnapshot(snapshot.toString());
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(snapshot)).order(ByteOrder.LITTLE_ENDIAN);
+        corruption.accept(bytes);
+        Files.write(snapshot, Arrays.copyOf(bytes.array(), bytes.limit()));
+
+        IOException error = assertThrows(IOException.class, () -> FrozenTrie.open(snapshot.toString()));
+        assertTrue(error.getMessage().startsWith(message), error.getMessage());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void snapshotAnswersQueriesAsTheTrieItWasSavedFrom(boolean compressed, @TempDir Path directory)
+            throws IOException {
+        Random random = new Random(7);
+        Trie trie = randomTrie(compressed, random);
+        Path snapshot = directory.resolve("words.trie");
+        trie.saveSnapshot(snapshot.toString());
+        FrozenTrie opened = FrozenTrie.open(snapshot.toString());
+        FrozenTrie frozen = trie.freeze();
+
+        assertEquals(frozen.nodeCount(), opened.nodeCount());
+        assertEquals(frozen.wordCount(), opened.wordCount());
+        for (int q = 0; q < QUERIES; q++) {
+            int length = 1 + random.nextInt(6);
+            StringBuilder input = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                char c = (char) ('a' + random.nextInt(random.nextBoolean() ? 4 : 26));
+                input.append(random.nextInt(4) == 0 ? Character.toUpperCase(c) : c);
+            }
+            String word = input.toString();
+            int k = 1 + random.nextInt(10);
+            assertEquals(trie.suggest(word, k), opened.suggest(word, k), word);
+            assertEquals(frozen.wordsWithPrefix(word), opened.wordsWithPrefix(word), word);
+            assertEquals(trie.importanceOf(word), opened.importanceOf(word), word);
+        }
+    }
+
+    @Test
+    void snapshotWithABadHeaderIsRejected(@TempDir Path directory) throws IOException {
+        assertRejected(directory, bytes -> bytes.putInt(0, 0x12345678), "Not a trie snapshot");
+        assertRejected(directory, bytes -> bytes.putInt(4, FrozenTrie.SNAPSHOT_VERSION + 1),
+                "Unsupported trie snapshot version");
+        assertRejected(directory, bytes -> bytes.putInt(8, bytes.getInt(8) + 1), "Truncated trie snapshot");
+        assertRejected(directory, bytes -> bytes.limit(bytes.limit() - 2), "Truncated trie snapshot");
+        assertRejected(directory, bytes -> bytes.limit(16), "Not a trie snapshot");
+    }
+
+    @Test
+    void uppercaseInputGetsPrefixCompletions(@TempDir Path directory) throws IOException {
+        Trie trie = SuggestionFixture.trie(importanceFile(directory));
+        FrozenTrie frozen = trie.freeze();
+
+        for (String input : MIXED_CASE_INPUTS) {
+            assertEquals(words(trie.suggest(input, 4)), words(frozen.suggest(input, 4)), input);
+        }
+        assertEquals(UPPERCASE_COMPLETIONS, words(frozen.suggest("HEL", 4)));
+    }
+}
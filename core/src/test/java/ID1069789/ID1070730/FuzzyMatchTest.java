@@ -0,0 +1,163 @@
+package ID1069789.ID1070730;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Tests the suggestions found by walking a {@link FuzzyAutomaton} down the Trie against a brute-force filter that
+ * computes the restricted edit distance of every dictionary word, for each kind of {@link MatchOptions}, on random
+ * small dictionaries in plain and compressed mode.
+ */
+class FuzzyMatchTest {
+    private static final int WORDS = 300;
+    private static final int INPUTS = 150;
+
+    /**
+     * Returns the options to test with.
+     *
+     * @return the options and a name for each
+     */
+    static Stream<Arguments> options() {
+        return Stream.of(
+                Arguments.of("default", MatchOptions.DEFAULT),
+                Arguments.of("levenshtein 0", MatchOptions.levenshtein(0)),
+                Arguments.of("levenshtein 1", MatchOptions.levenshtein(1)),
+                Arguments.of("levenshtein 2", MatchOptions.levenshtein(2)),
+                Arguments.of("damerau-levenshtein 1", MatchOptions.damerauLevenshtein(1)),
+                Arguments.of("damerau-levenshtein 2", MatchOptions.damerauLevenshtein(2)),
+                Arguments.of("transpositions", MatchOptions.of(2, MatchOptions.Operation.TRANSPOSITION)),
+                Arguments.of("insertions and deletions",
+                        MatchOptions.of(2, MatchOptions.Operation.INSERTION, MatchOptions.Operation.DELETION)),
+                Arguments.of("combined", MatchOptions.levenshtein(1)
+                        .or(MatchOptions.of(2, MatchOptions.Operation.TRANSPOSITION))));
+    }
+
+    /**
+     * Creates random words over a four-letter alphabet, so that many are within a small edit distance of each other.
+     *
+     * @param random the source of randomness
+     * @param count  the number of words to draw
+     * @param min    the shortest length
+     * @param max    the longest length
+     * @return the words
+     */
+    private static List<String> randomWords(Random random, int count, int min, int max) {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            char[] word = new char[min + random.nextInt(max - min + 1)];
+            for (int j = 0; j < word.length; j++) {
+                word[j] = (char) ('a' + random.nextInt(4));
+            }
+            words.add(new String(word));
+        }
+        return words;
+    }
+
+    /**
+     * Computes the smallest number of operations allowed by one rule that turn the input word into a word, where a
+     * transposition swaps two adjacent characters that are not edited again (the optimal string alignment distance).
+     *
+     * @param input   the input word
+     * @param word    the dictionary word
+     * @param options the options
+     * @param rule    the rule whose operations may be used
+     * @return the distance, or {@link Integer#MAX_VALUE} if the allowed operations cannot turn one into the other
+     */
+    private static int distance(String input, String word, MatchOptions options, int rule) {
+        boolean substitution = options.allows(rule, MatchOptions.Operation.SUBSTITUTION);
+        boolean insertion = options.allows(rule, MatchOptions.Operation.INSERTION);
+        boolean deletion = options.allows(rule, MatchOptions.Operation.DELETION);
+        boolean transposition = options.allows(rule, MatchOptions.Operation.TRANSPOSITION);
+        int infinity = Integer.MAX_VALUE / 2;
+        int[][] d = new int[input.length() + 1][word.length() + 1];
+        for (int i = 0; i <= input.length(); i++) {
+            for (int j = 0; j <= word.length(); j++) {
+                int best = i == 0 && j == 0 ? 0 : infinity;
+                if (i > 0 && j > 0 && input.charAt(i - 1) == word.charAt(j - 1)) {
+                    best = Math.min(best, d[i - 1][j - 1]);
+                }
+                if (substitution && i > 0 && j > 0) {
+                    best = Math.min(best, d[i - 1][j - 1] + 1);
+                }
+                if (insertion && j > 0) {
+                    best = Math.min(best, d[i][j - 1] + 1);
+                }
+                if (deletion && i > 0) {
+                    best = Math.min(best, d[i - 1][j] + 1);
+                }
+                if (transposition && i > 1 && j > 1 && input.charAt(i - 1) == word.charAt(j - 2)
+                        && input.charAt(i - 2) == word.charAt(j - 1)) {
+                    best = Math.min(best, d[i - 2][j - 2] + 1);
+                }
+                d[i][j] = best;
+            }
+        }
+        return d[input.length()][word.length()] >= infinity ? Integer.MAX_VALUE : d[input.length()][word.length()];
+    }
+
+    /**
+     * Checks whether a word is suggested for an input word: either it is longer and starts with the input word, or it
+     * is within the distance of one of the rules.
+     *
+     * @param input   the input word
+     * @param word    the dictionary word
+     * @param options the options
+     * @return {@code true} if the word should be suggested
+     */
+    private static boolean matches(String input, String word, MatchOptions options) {
+        if (word.length() > input.length() && word.startsWith(input)) {
+            return true;
+        }
+        for (int rule = 0; rule < options.ruleCount(); rule++) {
+            if (distance(input, word, options, rule) <= options.maxDistance(rule)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("options")
+    void suggestionsMatchBruteForce(String name, MatchOptions options) {
+        Random random = new Random(name.hashCode());
+        for (boolean compressed : new boolean[] {false, true}) {
+            Trie trie = new Trie(compressed);
+            Set<String> dictionary = new TreeSet<>(randomWords(random, WORDS, 1, 6));
+            dictionary.forEach(trie::insert);
+            for (String word : dictionary) {
+                trie.addImportance(word, random.nextInt(50));
+            }
+
+            for (String input : randomWords(random, INPUTS, 1, 5)) {
+                List<String> expected = dictionary.stream()
+                        .filter(word -> matches(input, word, options))
+                        .sorted(Comparator.comparingInt(trie::importanceOf).reversed()
+                                .thenComparing(Comparator.naturalOrder()))
+                        .collect(Collectors.toList());
+                List<Suggestion> all = trie.suggest(input, WORDS, options);
+                String message = name + ", compressed " + compressed + ", input " + input;
+
+                assertEquals(new TreeSet<>(expected), new TreeSet<>(SuggestionFixture.words(all)), message);
+                for (int k : new int[] {1, 3, 10}) {
+                    List<Integer> top = expected.stream().limit(k).map(trie::importanceOf)
+                            .collect(Collectors.toList());
+                    List<Integer> found = trie.suggest(input, k, options).stream().map(Suggestion::importance)
+                            .collect(Collectors.toList());
+                    assertEquals(top, found, message + ", k " + k);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package ID1069789.ID1070730;
+
+import static ID1069789.ID1070730.SuggestionFixture.assertSameRanking;
+import static ID1069789.ID1070730.SuggestionFixture.importanceFile;
+import static ID1069789.ID1070730.SuggestionFixture.words;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that each tenant of a {@link MultiTenantTrie} holds the same importance and gets the same suggestions as a
+ * {@link Trie} of its own loaded from the same dictionary and fed the same importance, and that its importance
+ * saturates as a Trie's does.
+ */
+class MultiTenantTrieTest {
+    private static final int TENANTS = 3;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void tenantsMatchTheirOwnTrie() throws IOException {
+        Random random = new Random(25);
+        Set<String> words = new TreeSet<>();
+        for (int i = 0; i < 2_000; i++) {
+            char[] word = new char[1 + random.nextInt(7)];
+            for (int j = 0; j < word.length; j++) {
+                word[j] = (char) ('a' + random.nextInt(6));
+            }
+            words.add(new String(word));
+        }
+        List<String> list = new ArrayList<>(words);
+        Path dictionaryFile = Files.write(directory.resolve("dictionary.txt"), list);
+        MultiTenantTrie multiTenant = MultiTenantTrie.fromDictionary(dictionaryFile.toString());
+        List<MultiTenantTrie.Tenant> tenants = new ArrayList<>();
+        List<Trie> tries = new ArrayList<>();
+        for (int t = 0; t < TENANTS; t++) {
+            StringBuilder importance = new StringBuilder();
+            for (int i = 0; i < 10_000; i++) {
+                importance.append(list.get((int) Math.abs(random.nextGaussian() * list.size() / 4) % list.size()))
+                        .append(random.nextInt(10) == 0 ? ". " : " ");
+            }
+            Path importanceFile = Files.writeString(directory.resolve("importance" + t + ".txt"), importance);
+            MultiTenantTrie.Tenant tenant = multiTenant.addTenant("tenant" + t);
+            multiTenant.processImportanceFile(tenant, importanceFile.toString());
+            Trie trie = new Trie();
+            trie.loadDictionary(dictionaryFile.toString());
+            trie.processImportanceFile(importanceFile.toString());
+            for (int i = 0; i < 500; i++) {
+                String word = list.get(random.nextInt(list.size()));
+                int delta = random.nextInt(41) - 20;
+                assertEquals(trie.addImportance(word, delta), multiTenant.addImportance(tenant, word, delta), word);
+            }
+            tenants.add(tenant);
+            tries.add(trie);
+        }
+
+        assertEquals(words.size(), multiTenant.wordCount());
+        for (int t = 0; t < TENANTS; t++) {
+            MultiTenantTrie.Tenant tenant = tenants.get(t);
+            Trie trie = tries.get(t);
+            for (String word : words) {
+                assertEquals(trie.importanceOf(word), multiTenant.importanceOf(tenant, word), tenant + " " + word);
+            }
+            for (int i = 0; i < 100; i++) {
+                String word = list.get(random.nextInt(list.size()));
+                String input = word.substring(0, 1 + random.nextInt(word.length()));
+                List<Suggestion> all = trie.suggest(input, words.size());
+                for (int k : new int[] {1, 5, 20}) {
+                    assertSameRanking(all, trie.suggest(input, k), multiTenant.suggest(tenant, input, k),
+                            tenant + ", " + input + ", k = " + k);
+                }
+            }
+        }
+    }
+
+    @Test
+    void importanceSaturatesAsInATrie() throws IOException {
+        Path dictionaryFile = Files.writeString(directory.resolve("dictionary.txt"), "hello help helm\n");
+        MultiTenantTrie multiTenant = MultiTenantTrie.fromDictionary(dictionaryFile.toString());
+        MultiTenantTrie.Tenant tenant = multiTenant.addTenant("tenant");
+        Trie trie = new Trie();
+        trie.loadDictionary(dictionaryFile.toString());
+
+        for (int delta : new int[] {Integer.MAX_VALUE, Integer.MAX_VALUE, -1, 1}) {
+            trie.addImportance("hello", delta);
+            multiTenant.addImportance(tenant, "hello", delta);
+            assertEquals(trie.importanceOf("hello"), multiTenant.importanceOf(tenant, "hello"));
+        }
+        assertEquals(Integer.MAX_VALUE, multiTenant.importanceOf(tenant, "hello"));
+        multiTenant.processImportanceFile(tenant, Files.writeString(directory.resolve("hello.txt"), "hello hello")
+                .toString());
+        assertEquals(Integer.MAX_VALUE, multiTenant.importanceOf(tenant, "hello"));
+
+        for (int delta : new int[] {-Integer.MAX_VALUE, -Integer.MAX_VALUE, 1}) {
+            trie.addImportance("helm", delta);
+            multiTenant.addImportance(tenant, "helm", delta);
+            assertEquals(trie.importanceOf("helm"), multiTenant.importanceOf(tenant, "helm"));
+        }
+        assertEquals(-Integer.MAX_VALUE + 1, multiTenant.importanceOf(tenant, "helm"));
+        assertEquals(List.of("hello", "help", "helm"), words(multiTenant.suggest(tenant, "hel", 3)));
+    }
+
+    @Test
+    void uppercaseInputGetsPrefixCompletionsForATenant() throws IOException {
+        MultiTenantTrie multiTenant = new MultiTenantTrie(SuggestionFixture.trie(importanceFile(directory)).freeze());
+        MultiTenantTrie.Tenant tenant = multiTenant.addTenant("tenant");
+        multiTenant.addImportance(tenant, "held", 3);
+        multiTenant.addImportance(tenant, "help", 2);
+
+        assertEquals(List.of("HELd", "HELp"), words(multiTenant.suggest(tenant, "HEL", 2)));
+    }
+}
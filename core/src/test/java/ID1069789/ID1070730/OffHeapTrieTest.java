@@ -0,0 +1,117 @@
+package ID1069789.ID1070730;
+
+import static ID1069789.ID1070730.SuggestionFixture.assertSameRanking;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that an {@link OffHeapTrie} loaded from a dictionary and an importance file holds the same words with the same
+ * importance and gives the same suggestions as a {@link Trie} loaded from the same files, including dictionaries with
+ * tokens that have no letters.
+ */
+class OffHeapTrieTest {
+    private static final List<String> NO_LETTERS = List.of("1999", "42", "--", "#");
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Loads a Trie and an OffHeapTrie from the same files.
+     *
+     * @param dictionary the dictionary text
+     * @param importance the importance text
+     * @return the Trie and the OffHeapTrie
+     * @throws IOException if a file cannot be written
+     */
+    private Object[] load(String dictionary, String importance) throws IOException {
+        Path dictionaryFile = Files.writeString(directory.resolve("dictionary.txt"), dictionary);
+        Path importanceFile = Files.writeString(directory.resolve("importance.txt"), importance);
+        Trie trie = new Trie();
+        trie.loadDictionary(dictionaryFile.toString());
+        trie.processImportanceFile(importanceFile.toString());
+        OffHeapTrie offHeapTrie = new OffHeapTrie();
+        offHeapTrie.loadDictionary(dictionaryFile.toString());
+        offHeapTrie.processImportanceFile(importanceFile.toString());
+        return new Object[] {trie, offHeapTrie};
+    }
+
+    /**
+     * Checks that two tries hold exactly the given words with the same importance and suggest the same words.
+     *
+     * @param trie        the Trie
+     * @param offHeapTrie the OffHeapTrie
+     * @param words       the distinct lowercase words of the dictionary
+     * @param inputs      the input words to ask for suggestions
+     */
+    private static void assertSameAsTrie(Trie trie, OffHeapTrie offHeapTrie, Set<String> words, List<String> inputs) {
+        assertEquals(words.size(), offHeapTrie.wordCount());
+        assertEquals(-1, offHeapTrie.search(""));
+        for (String word : words) {
+            assertTrue(offHeapTrie.search(word) >= 0, word);
+            assertEquals(trie.importanceOf(word), offHeapTrie.importanceOf(word), word);
+        }
+        for (String input : inputs) {
+            List<Suggestion> all = trie.suggest(input, words.size());
+            for (int k : new int[] {1, 5, 20}) {
+                assertSameRanking(all, trie.suggest(input, k), offHeapTrie.suggest(input, k), input + ", k = " + k);
+            }
+        }
+    }
+
+    @Test
+    void tokensWithoutLettersAreNotWords() throws IOException {
+        Object[] tries = load("cat car 1999 dog\n42 --\n", "cat cat car 1999 dog.");
+        Trie trie = (Trie) tries[0];
+        OffHeapTrie offHeapTrie = (OffHeapTrie) tries[1];
+
+        assertSameAsTrie(trie, offHeapTrie, Set.of("cat", "car", "dog"), List.of("a", "ca", "c", "do", "x"));
+        for (Suggestion suggestion : offHeapTrie.suggest("a", 5)) {
+            assertTrue(!suggestion.word().isEmpty(), offHeapTrie.suggest("a", 5)::toString);
+        }
+    }
+
+    @Test
+    void randomDictionariesMatchTrie() throws IOException {
+        Random random = new Random(17);
+        Set<String> words = new TreeSet<>();
+        StringBuilder dictionary = new StringBuilder();
+        for (int i = 0; i < 2_000; i++) {
+            if (random.nextInt(20) == 0) {
+                dictionary.append(NO_LETTERS.get(random.nextInt(NO_LETTERS.size()))).append('\n');
+            }
+            char[] word = new char[1 + random.nextInt(7)];
+            for (int j = 0; j < word.length; j++) {
+                word[j] = (char) ('a' + random.nextInt(6));
+            }
+            String text = new String(word);
+            words.add(text);
+            dictionary.append(random.nextBoolean() ? text : text.toUpperCase()).append('\n');
+        }
+        List<String> list = new ArrayList<>(words);
+        StringBuilder importance = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            importance.append(list.get((int) Math.abs(random.nextGaussian() * list.size() / 4) % list.size()))
+                    .append(random.nextInt(10) == 0 ? ", " : " ");
+        }
+        Object[] tries = load(dictionary.toString(), importance.toString());
+
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String word = list.get(random.nextInt(list.size()));
+            inputs.add(word.substring(0, 1 + random.nextInt(word.length())));
+        }
+        assertSameAsTrie((Trie) tries[0], (OffHeapTrie) tries[1], words, inputs);
+    }
+}
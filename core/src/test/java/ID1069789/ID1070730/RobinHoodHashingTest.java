@@ -0,0 +1,119 @@
+package ID1069789.ID1070730;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Stress tests that fill one {@link RobinHoodHashing} table with every {@code char} value and empty it again.
+ */
+class RobinHoodHashingTest {
+    private static final int KEYS = Character.MAX_VALUE + 1;
+
+    /**
+     * Returns every {@code char} value in a random order, so keys are not placed in the order of their home slots.
+     *
+     * @param seed the seed of the order
+     * @return the shuffled keys
+     */
+    private static char[] shuffledKeys(long seed) {
+        char[] keys = new char[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = (char) i;
+        }
+        Random random = new Random(seed);
+        for (int i = KEYS - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            char swap = keys[i];
+            keys[i] = keys[j];
+            keys[j] = swap;
+        }
+        return keys;
+    }
+
+    /**
+     * Checks that the table holds exactly the expected keys and that no probe sequence is longer than the recorded
+     * maximum.
+     *
+     * @param table    the table to check
+     * @param expected the node expected for every key, or null where the key must be absent
+     */
+    private static void assertContents(RobinHoodHashing table, TrieNode[] expected) {
+        int size = 0;
+        for (int key = 0; key < KEYS; key++) {
+            assertSame(expected[key], table.search((char) key), "key " + key);
+            if (expected[key] != null) {
+                size++;
+            }
+        }
+        assertEquals(size, table.size);
+        assertEquals(0, table.capacity & (table.capacity - 1), "capacity is a power of two");
+        assertTrue(table.size <= table.capacity * table.loadFactor);
+        for (int slot = 0; slot < table.capacity; slot++) {
+            if (table.children[slot] != null) {
+                assertTrue(table.probeLengths[slot] <= table.maxProbeLength);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(floats = {0.5f, 0.75f, 0.9f, 0.99f})
+    void holdsEveryCharValue(float loadFactor) {
+        RobinHoodHashing table = new RobinHoodHashing(loadFactor);
+        TrieNode[] expected = new TrieNode[KEYS];
+        for (char key : shuffledKeys(2)) {
+            expected[key] = table.insert(key);
+        }
+        assertContents(table, expected);
+        for (int key = 0; key < KEYS; key++) {
+            assertSame(expected[key], table.insert((char) key), "insert returns the existing node");
+        }
+        assertEquals(KEYS, table.size);
+    }
+
+    @ParameterizedTest
+    @ValueSource(floats = {0.5f, 0.75f, 0.9f, 0.99f})
+    void removesHalfOfTheKeysAndInsertsThemAgain(float loadFactor) {
+        RobinHoodHashing table = new RobinHoodHashing(loadFactor);
+        TrieNode[] expected = new TrieNode[KEYS];
+        for (char key : shuffledKeys(2)) {
+            expected[key] = table.insert(key);
+        }
+
+        for (char key : shuffledKeys(7)) {
+            if (key % 2 == 1) {
+                assertSame(expected[key], table.remove(key));
+                assertNull(table.remove(key));
+                expected[key] = null;
+            }
+        }
+        assertContents(table, expected);
+
+        for (int key = 1; key < KEYS; key += 2) {
+            expected[key] = table.insert((char) key);
+        }
+        assertContents(table, expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(floats = {0.5f, 0.9f})
+    void shrinksBackWhenEveryKeyIsRemoved(float loadFactor) {
+        RobinHoodHashing table = new RobinHoodHashing(loadFactor);
+        char[] keys = shuffledKeys(11);
+        for (char key : keys) {
+            table.insert(key);
+        }
+        for (char key : keys) {
+            table.remove(key);
+        }
+        assertEquals(0, table.size);
+        assertEquals(2, table.capacity);
+        assertContents(table, new TrieNode[KEYS]);
+    }
+}
@@ -0,0 +1,98 @@
+package ID1069789.ID1070730;
+
+import static ID1069789.ID1070730.SuggestionFixture.assertSameRanking;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Tests that a {@link ShardedTrie} loaded from a dictionary and an importance file holds the same importance and gives
+ * the same suggestions as a single {@link Trie} loaded from the same files, for inputs shorter than, as long as and
+ * longer than the two characters that choose a shard.
+ */
+class ShardedTrieTest {
+    private static final List<MatchOptions> OPTIONS = List.of(MatchOptions.DEFAULT, MatchOptions.levenshtein(1),
+            MatchOptions.damerauLevenshtein(2));
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Returns the shard counts and modes to test with.
+     *
+     * @return the number of shards and whether the shards are path-compressed
+     */
+    static Stream<Arguments> shards() {
+        return Stream.of(
+                Arguments.of(1, false),
+                Arguments.of(4, false),
+                Arguments.of(7, true),
+                Arguments.of(16, false));
+    }
+
+    @ParameterizedTest(name = "{0} shards, compressed {1}")
+    @MethodSource("shards")
+    void shardsMatchASingleTrie(int shardCount, boolean compressed) throws IOException {
+        Random random = new Random(shardCount);
+        Set<String> words = new TreeSet<>();
+        StringBuilder dictionary = new StringBuilder();
+        for (int i = 0; i < 3_000; i++) {
+            char[] word = new char[1 + random.nextInt(i % 10 == 0 ? 2 : 7)];
+            for (int j = 0; j < word.length; j++) {
+                word[j] = (char) ('a' + random.nextInt(6));
+            }
+            String text = new String(word);
+            words.add(text);
+            dictionary.append(random.nextBoolean() ? text : text.toUpperCase())
+                    .append(random.nextInt(8) == 0 ? '\n' : ' ');
+        }
+        List<String> list = new ArrayList<>(words);
+        StringBuilder importance = new StringBuilder();
+        for (int i = 0; i < 30_000; i++) {
+            importance.append(list.get((int) Math.abs(random.nextGaussian() * list.size() / 4) % list.size()))
+                    .append(random.nextInt(10) == 0 ? ".\n" : " ");
+        }
+        Path dictionaryFile = Files.writeString(directory.resolve("dictionary.txt"), dictionary);
+        Path importanceFile = Files.writeString(directory.resolve("importance.txt"), importance);
+        Trie trie = new Trie(compressed);
+        trie.loadDictionary(dictionaryFile.toString());
+        trie.processImportanceFile(importanceFile.toString());
+
+        try (ShardedTrie sharded = new ShardedTrie(shardCount, 3, RobinHoodHashing.DEFAULT_LOAD_FACTOR, compressed)) {
+            sharded.loadDictionary(dictionaryFile.toString());
+            sharded.processImportanceFile(importanceFile.toString());
+
+            for (String word : words) {
+                assertEquals(trie.importanceOf(word), sharded.importanceOf(word), word);
+            }
+            assertEquals(trie.importanceOf("zz"), sharded.importanceOf("zz"));
+            List<String> inputs = new ArrayList<>(List.of("a", "b", "f", "z", "A", "ab", "Fe", "zz"));
+            for (int i = 0; i < 100; i++) {
+                String word = list.get(random.nextInt(list.size()));
+                inputs.add(word.substring(0, 1 + random.nextInt(word.length())));
+            }
+            for (String input : inputs) {
+                for (MatchOptions options : OPTIONS) {
+                    List<Suggestion> all = trie.suggest(input, words.size(), options);
+                    for (int k : new int[] {1, 5, 20}) {
+                        assertSameRanking(all, trie.suggest(input, k, options), sharded.suggest(input, k, options),
+                                input + ", " + options + ", k = " + k);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package ID1069789.ID1070730;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Tests that a {@link SuggestionCache} keeps a result while the Trie only changes words that cannot be suggested for
+ * its query, computes it again once a candidate word changes or the {@link ChangeLog} can no longer tell, and counts
+ * hits, misses, invalidations and evictions as it goes, for both eviction policies.
+ */
+class SuggestionCacheTest {
+    private static final List<String> WORDS = List.of("held", "helm", "help", "hello", "word", "world", "apple");
+    private static final int RING = 256;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Creates a Trie holding the test words, each with a different importance.
+     *
+     * @return the Trie
+     */
+    private static Trie trie() {
+        Trie trie = new Trie();
+        for (int i = 0; i < WORDS.size(); i++) {
+            trie.insert(WORDS.get(i));
+            trie.addImportance(WORDS.get(i), i + 1);
+        }
+        return trie;
+    }
+
+    /**
+     * Looks up a query and checks that it was answered from the cache or computed again as expected, that the
+     * counters moved accordingly, and that the result is what the Trie suggests now.
+     *
+     * @param cache   the cache
+     * @param trie    the Trie behind the cache
+     * @param input   the input word
+     * @param options the fuzzy matching options
+     * @param hit     whether the cached result should still be current
+     * @param stale   whether a cached result should be found stale
+     * @return the result
+     */
+    private static List<Suggestion> assertLookup(SuggestionCache cache, Trie trie, String input, MatchOptions options,
+            boolean hit, boolean stale) {
+        long hits = cache.hitCount();
+        long misses = cache.missCount();
+        long invalidations = cache.invalidationCount();
+        List<Suggestion> suggestions = cache.suggest(input, 3, options);
+
+        assertEquals(hits + (hit ? 1 : 0), cache.hitCount(), input + " hits");
+        assertEquals(misses + (hit ? 0 : 1), cache.missCount(), input + " misses");
+        assertEquals(invalidations + (stale ? 1 : 0), cache.invalidationCount(), input + " invalidations");
+        assertEquals(trie.suggest(input, 3, options), suggestions, input);
+        return suggestions;
+    }
+
+    @ParameterizedTest
+    @EnumSource(SuggestionCache.Policy.class)
+    void onlyChangesToCandidatesInvalidateAResult(SuggestionCache.Policy policy) {
+        Trie trie = trie();
+        SuggestionCache cache = new SuggestionCache(trie, 100, policy);
+        MatchOptions exact = MatchOptions.DEFAULT;
+
+        List<Suggestion> cached = assertLookup(cache, trie, "hel", exact, false, false);
+        assertSame(cached, assertLookup(cache, trie, "hel", exact, true, false));
+
+        trie.insert("zebra");
+        trie.addImportance("world", 50);
+        trie.remove("apple");
+        assertSame(cached, assertLookup(cache, trie, "hel", exact, true, false));
+
+        trie.insert("helix");
+        assertLookup(cache, trie, "hel", exact, false, true);
+        assertLookup(cache, trie, "hel", exact, true, false);
+        trie.addImportance("helm", 100);
+        assertEquals("helm", assertLookup(cache, trie, "hel", exact, false, true).get(0).word());
+        trie.remove("helm");
+        assertLookup(cache, trie, "hel", exact, false, true);
+        trie.remove("helm");
+        trie.addImportance("helm", 1);
+        assertLookup(cache, trie, "hel", exact, true, false);
+
+        MatchOptions fuzzy = MatchOptions.levenshtein(1);
+        assertLookup(cache, trie, "wird", fuzzy, false, false);
+        trie.addImportance("hello", 1);
+        assertLookup(cache, trie, "wird", fuzzy, true, false);
+        trie.addImportance("word", 100);
+        assertEquals("word", assertLookup(cache, trie, "wird", fuzzy, false, true).get(0).word());
+        assertLookup(cache, trie, "hel", exact, false, true);
+
+        assertEquals(0, cache.evictionCount());
+        assertEquals(2, cache.size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(SuggestionCache.Policy.class)
+    void changesBeyondTheRingOrToEveryWordInvalidateAResult(SuggestionCache.Policy policy) throws IOException {
+        Trie trie = trie();
+        SuggestionCache cache = new SuggestionCache(trie, 100, policy);
+        MatchOptions exact = MatchOptions.DEFAULT;
+        assertLookup(cache, trie, "hel", exact, false, false);
+
+        for (int i = 0; i < RING; i++) {
+            trie.addImportance("apple", 1);
+        }
+        assertLookup(cache, trie, "hel", exact, true, false);
+        for (int i = 0; i <= RING; i++) {
+            trie.addImportance("apple", 1);
+        }
+        assertLookup(cache, trie, "hel", exact, false, true);
+
+        trie.processImportanceFile(Files.writeString(directory.resolve("importance.txt"), "apple apple").toString());
+        assertLookup(cache, trie, "hel", exact, false, true);
+        trie.addImportance("apple", 1);
+        assertLookup(cache, trie, "hel", exact, true, false);
+
+        trie.loadDictionary(Files.writeString(directory.resolve("dictionary.txt"), "zebra").toString());
+        assertLookup(cache, trie, "hel", exact, false, true);
+        assertEquals(0, cache.evictionCount());
+    }
+
+    @ParameterizedTest
+    @EnumSource(SuggestionCache.Policy.class)
+    void evictionFollowsThePolicy(SuggestionCache.Policy policy) {
+        Trie trie = trie();
+        SuggestionCache cache = new SuggestionCache(trie, 3, policy);
+        MatchOptions exact = MatchOptions.DEFAULT;
+
+        for (String input : List.of("h", "w", "a", "he")) {
+            assertLookup(cache, trie, input, exact, false, false);
+        }
+        assertEquals(1, cache.evictionCount());
+        assertEquals(3, cache.size());
+
+        if (policy == SuggestionCache.Policy.LRU) {
+            // the least recently used result went first
+            assertLookup(cache, trie, "w", exact, true, false);
+            assertLookup(cache, trie, "h", exact, false, false);
+        } else {
+            // the result leaving the window was asked for no more often than the oldest one, so it was not admitted
+            assertLookup(cache, trie, "h", exact, true, false);
+            assertLookup(cache, trie, "a", exact, false, false);
+        }
+        assertEquals(2, cache.evictionCount());
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.hitCount());
+        assertEquals(5, cache.missCount());
+        assertEquals(0, cache.invalidationCount());
+    }
+}
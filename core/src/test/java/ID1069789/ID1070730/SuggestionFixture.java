@@ -0,0 +1,110 @@
+package ID1069789.ID1070730;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A small dictionary and importance file shared by the tests that compare another representation's suggestions with
+ * those of a {@link Trie}. Every word starting with "hel" has a different importance, so those suggestions come out in
+ * one order. It also compares top-k lists in which words of equal importance may come in any order.
+ */
+final class SuggestionFixture {
+
+    /**
+     * The dictionary, sorted.
+     */
+    static final List<String> WORDS = List.of("held", "helium", "hello", "help", "word", "world");
+
+    /**
+     * Input words in lower, upper and mixed case.
+     */
+    static final List<String> MIXED_CASE_INPUTS = List.of("hel", "HEL", "HeL", "WOR");
+
+    /**
+     * The four suggestions for "HEL", which keep the input word's spelling for the part they share with it.
+     */
+    static final List<String> UPPERCASE_COMPLETIONS = List.of("HELlo", "HELp", "HELium", "HELd");
+
+    private static final String IMPORTANCE_TEXT = "hello hello hello hello help help help helium helium held word";
+
+    private SuggestionFixture() {
+    }
+
+    /**
+     * Writes the importance file into a directory.
+     *
+     * @param directory the directory to write into
+     * @return the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    static Path importanceFile(Path directory) throws IOException {
+        return Files.writeString(directory.resolve("importance.txt"), IMPORTANCE_TEXT);
+    }
+
+    /**
+     * Creates a Trie holding the dictionary, with importance counted from the importance file.
+     *
+     * @param importanceFile the importance file
+     * @return the Trie
+     */
+    static Trie trie(Path importanceFile) {
+        Trie trie = new Trie();
+        WORDS.forEach(trie::insert);
+        trie.processImportanceFile(importanceFile.toString());
+        return trie;
+    }
+
+    /**
+     * Returns the words of a list of suggestions.
+     *
+     * @param suggestions the suggestions
+     * @return the suggested words, in order
+     */
+    static List<String> words(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::word).collect(Collectors.toList());
+    }
+
+    /**
+     * Checks that two top-k lists rank the same, allowing words of equal importance to come in any order and, at the
+     * cut-off, to be any of the words tied there.
+     *
+     * @param all      every suggestion for the input
+     * @param expected the top k suggestions of the Trie
+     * @param actual   the top k suggestions of the other representation
+     * @param message  the input and k, for failure messages
+     */
+    static void assertSameRanking(List<Suggestion> all, List<Suggestion> expected, List<Suggestion> actual,
+            String message) {
+        assertEquals(importances(expected), importances(actual), message);
+        int cutOff = expected.isEmpty() ? 0 : expected.get(expected.size() - 1).importance();
+        Set<Suggestion> above = new HashSet<>();
+        for (Suggestion suggestion : expected) {
+            if (suggestion.importance() > cutOff) {
+                above.add(suggestion);
+            }
+        }
+        for (Suggestion suggestion : actual) {
+            assertTrue(all.contains(suggestion), message + ": " + suggestion);
+            above.remove(suggestion);
+        }
+        assertTrue(above.isEmpty(), message + ": missing " + above);
+    }
+
+    /**
+     * Returns the importance of every suggestion in a list.
+     *
+     * @param suggestions the suggestions
+     * @return the importances, in order
+     */
+    static List<Integer> importances(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::importance).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,177 @@
+package ID1069789.ID1070730;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests that a {@link TrieBuilder} builds the same Trie, node by node, as inserting the same words one at a time into
+ * an empty Trie, whether the words are sorted, repeated, prefixes of the word before them or out of order.
+ */
+class TrieBuilderTest {
+    private static final int WORDS = 5_000;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Creates random words over a small alphabet, so that many share prefixes or are prefixes of each other.
+     *
+     * @param random the source of randomness
+     * @return the words, sorted, with duplicates
+     */
+    private static List<String> sortedWords(Random random) {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < WORDS; i++) {
+            char[] word = new char[1 + random.nextInt(8)];
+            for (int j = 0; j < word.length; j++) {
+                word[j] = (char) ('a' + random.nextInt(5));
+            }
+            words.add(new String(word));
+        }
+        Collections.sort(words);
+        return words;
+    }
+
+    /**
+     * Mixes duplicates, prefixes of the previous word, other casings and out-of-order words into a sorted list.
+     *
+     * @param sorted the sorted words
+     * @param random the source of randomness
+     * @return the mostly sorted words
+     */
+    private static List<String> mostlySorted(List<String> sorted, Random random) {
+        List<String> words = new ArrayList<>();
+        for (String word : sorted) {
+            words.add(word);
+            switch (random.nextInt(8)) {
+                case 0:
+                    words.add(word);
+                    break;
+                case 1:
+                    words.add(word.substring(0, 1 + random.nextInt(word.length())));
+                    break;
+                case 2:
+                    words.add(word.toUpperCase());
+                    break;
+                case 3:
+                    words.add(sorted.get(random.nextInt(sorted.size())));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Checks that two subtrees hold the same edges, words, importance and bounds.
+     *
+     * @param expected the subtree built by inserting
+     * @param actual   the subtree built by the builder
+     * @param path     the characters leading to the subtrees, for failure messages
+     */
+    private static void assertSameNodes(TrieNode expected, TrieNode actual, String path) {
+        assertArrayEquals(expected.label, actual.label, path);
+        assertEquals(expected.wordLength, actual.wordLength, path);
+        assertEquals(expected.importance, actual.importance, path);
+        assertEquals(expected.maxImportance, actual.maxImportance, path);
+        String keys = childKeys(expected);
+        assertEquals(keys, childKeys(actual), path);
+        for (char key : keys.toCharArray()) {
+            TrieNode child = expected.child(key);
+            String childPath = path + key + (child.label == null ? "" : new String(child.label));
+            assertSameNodes(child, actual.child(key), childPath);
+        }
+    }
+
+    /**
+     * Lists the keys of the children of a node in order, whatever its layout.
+     *
+     * @param node the node
+     * @return the keys, sorted
+     */
+    private static String childKeys(TrieNode node) {
+        StringBuilder keys = new StringBuilder();
+        for (int i = 0; i < node.children.length; i++) {
+            if (node.children[i] != null) {
+                keys.append(node.keys[i]);
+            }
+        }
+        char[] sorted = keys.toString().toCharArray();
+        Arrays.sort(sorted);
+        return new String(sorted);
+    }
+
+    /**
+     * Builds a Trie from a list of words and compares it with one the words were inserted into.
+     *
+     * @param words      the words, in the order given to the builder and to insert
+     * @param compressed whether both Tries are path-compressed
+     */
+    private static void assertBuildsAsInserted(List<String> words, boolean compressed) {
+        Trie inserted = new Trie(compressed);
+        TrieBuilder builder = new TrieBuilder(compressed);
+        for (String word : words) {
+            inserted.insert(word);
+            builder.add(word);
+        }
+        Trie built = builder.build();
+
+        assertEquals(inserted.nodeCount(), built.nodeCount());
+        assertSameNodes(inserted.root, built.root, "");
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void smallCasesBuildAsInserted(boolean compressed) {
+        assertBuildsAsInserted(List.of(), compressed);
+        assertBuildsAsInserted(List.of("a"), compressed);
+        assertBuildsAsInserted(List.of("abc", "abc", "ab", "a", "abd", "b"), compressed);
+        assertBuildsAsInserted(List.of("abcd", "abx", "ab", "abcd", "aa", "b", "a"), compressed);
+        assertBuildsAsInserted(List.of("zebra", "apple", "Apple", "ap", "zeb", "mango"), compressed);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void sortedWordsBuildAsInserted(boolean compressed) {
+        assertBuildsAsInserted(sortedWords(new Random(3)), compressed);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void duplicatesPrefixesAndOutOfOrderWordsBuildAsInserted(boolean compressed) {
+        Random random = new Random(5);
+        assertBuildsAsInserted(mostlySorted(sortedWords(random), random), compressed);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void dictionaryFilesBuildAsLoaded(boolean compressed) throws IOException {
+        Random random = new Random(9);
+        List<String> words = mostlySorted(sortedWords(random), random);
+        Path dictionary = Files.write(directory.resolve("dictionary.txt"), words);
+        Path importance = Files.write(directory.resolve("importance.txt"), words.subList(0, words.size() / 3));
+
+        Trie loaded = new Trie(compressed);
+        loaded.loadDictionary(dictionary.toString());
+        loaded.processImportanceFile(importance.toString());
+        Trie built = new TrieBuilder(compressed).addDictionary(dictionary.toString()).build();
+        built.processImportanceFile(importance.toString());
+
+        assertEquals(loaded.nodeCount(), built.nodeCount());
+        assertSameNodes(loaded.root, built.root, "");
+    }
+}
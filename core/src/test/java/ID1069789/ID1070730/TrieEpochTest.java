@@ -0,0 +1,99 @@
+package ID1069789.ID1070730;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests that importance weighted by {@link Trie#advanceEpoch()} saturates instead of overflowing, in a plain and a
+ * concurrent Trie.
+ */
+class TrieEpochTest {
+
+    /**
+     * Creates a Trie holding a few words.
+     *
+     * @param concurrent whether to create a {@link ConcurrentTrie}
+     * @return the Trie
+     */
+    private static Trie trie(boolean concurrent) {
+        Trie trie = concurrent ? new ConcurrentTrie() : new Trie();
+        for (String word : List.of("hello", "help", "helm")) {
+            trie.insert(word);
+        }
+        return trie;
+    }
+
+    /**
+     * Advances a Trie to the last epoch before a rescaling, where new importance weighs the most.
+     *
+     * @param trie the Trie
+     */
+    private static void advanceToHeaviestEpoch(Trie trie) {
+        for (int i = 0; i < 7; i++) {
+            trie.advanceEpoch();
+        }
+    }
+
+    /**
+     * Returns the words suggested for "hel", most important first.
+     *
+     * @param trie the Trie
+     * @return the words
+     */
+    private static List<String> ranking(Trie trie) {
+        return trie.suggest("hel", 3).stream().map(Suggestion::word).collect(Collectors.toList());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void weightedDeltasSaturateAtTheLargestImportance(boolean concurrent) {
+        Trie trie = trie(concurrent);
+        trie.addImportance("help", 1);
+        advanceToHeaviestEpoch(trie);
+
+        assertTrue(trie.addImportance("hello", Integer.MAX_VALUE / 2));
+        assertEquals(Integer.MAX_VALUE, trie.importanceOf("hello"));
+        assertTrue(trie.addImportance("hello", Integer.MAX_VALUE));
+        assertEquals(Integer.MAX_VALUE, trie.importanceOf("hello"));
+        assertEquals(List.of("hello", "help", "helm"), ranking(trie));
+
+        trie.advanceEpoch();
+        assertEquals(Integer.MAX_VALUE >> 8, trie.importanceOf("hello"));
+        assertEquals("hello", ranking(trie).get(0));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void negativeDeltasSaturateWithoutLosingTheWord(boolean concurrent) {
+        Trie trie = trie(concurrent);
+        advanceToHeaviestEpoch(trie);
+
+        assertTrue(trie.addImportance("helm", -Integer.MAX_VALUE));
+        assertTrue(trie.addImportance("helm", -Integer.MAX_VALUE));
+        assertEquals(-Integer.MAX_VALUE, trie.importanceOf("helm"));
+        assertTrue(trie.addImportance("helm", 1));
+        assertEquals(-Integer.MAX_VALUE + 128, trie.importanceOf("helm"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void importanceFileCountsSaturate(boolean concurrent) {
+        Trie trie = trie(concurrent);
+        trie.addImportance("help", 1);
+        advanceToHeaviestEpoch(trie);
+        TrieNode hello = trie.search("hello");
+
+        trie.addCounts(List.of(Map.of(hello, new int[] {1 << 30}), Map.of(hello, new int[] {1 << 30})));
+
+        assertEquals(Integer.MAX_VALUE, trie.importanceOf("hello"));
+        assertEquals(Integer.MAX_VALUE, trie.root.maxImportance);
+        assertEquals(List.of("hello", "help", "helm"), ranking(trie));
+    }
+}
@@ -0,0 +1,84 @@
+package ID1069789.ID1070730;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Tests that a {@link TrieNode} keeps its child count and children through every layout while a very wide node is
+ * filled and emptied, and that doing so takes time linear in the number of children.
+ */
+class TrieNodeTest {
+    private static final int KEYS = Character.MAX_VALUE + 1;
+
+    /**
+     * Returns every {@code char} value, in ascending order or shuffled.
+     *
+     * @param random the source of the order, or null for ascending order
+     * @return the keys
+     */
+    private static char[] keys(Random random) {
+        char[] keys = new char[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = (char) i;
+        }
+        if (random != null) {
+            for (int i = KEYS - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                char swap = keys[i];
+                keys[i] = keys[j];
+                keys[j] = swap;
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Adds every key to one node and removes them all again, checking the child count at every step and the
+     * children after filling.
+     *
+     * @param add    the order in which keys are added
+     * @param remove the order in which keys are removed
+     */
+    private static void fillAndEmpty(char[] add, char[] remove) {
+        TrieNode node = new TrieNode();
+        TrieNode[] expected = new TrieNode[KEYS];
+        for (int i = 0; i < add.length; i++) {
+            expected[add[i]] = node.addChild(add[i], RobinHoodHashing.DEFAULT_LOAD_FACTOR);
+            assertEquals(i + 1, node.childCount());
+        }
+        for (int key = 0; key < KEYS; key++) {
+            assertSame(expected[key], node.child((char) key), "key " + key);
+        }
+        assertNull(node.table, "a full key range is direct-indexed");
+
+        for (int i = 0; i < remove.length; i++) {
+            node.removeChild(remove[i], RobinHoodHashing.DEFAULT_LOAD_FACTOR);
+            assertEquals(KEYS - i - 1, node.childCount());
+            if (i == KEYS / 2) {
+                for (int j = i + 1; j < remove.length; j++) {
+                    assertNotNull(node.child(remove[j]), "key " + (int) remove[j]);
+                }
+            }
+        }
+        assertEquals(0, node.children.length);
+    }
+
+    @Test
+    @Timeout(30)
+    void fillsAndEmptiesAWideNodeInAscendingOrder() {
+        fillAndEmpty(keys(null), keys(null));
+    }
+
+    @Test
+    @Timeout(30)
+    void fillsAndEmptiesAWideNodeInRandomOrder() {
+        fillAndEmpty(keys(new Random(1)), keys(new Random(2)));
+    }
+}
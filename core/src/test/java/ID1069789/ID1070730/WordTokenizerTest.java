@@ -0,0 +1,114 @@
+package ID1069789.ID1070730;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests that a {@link WordTokenizer} splits files into the same tokens as {@link Scanner#next()}, however the file ends.
+ */
+class WordTokenizerTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Writes a file.
+     *
+     * @param name     the file name
+     * @param contents the text to write as UTF-8
+     * @return the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    private Path write(String name, String contents) throws IOException {
+        return Files.writeString(directory.resolve(name), contents, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads every token of a file with a WordTokenizer.
+     *
+     * @param file the file to read
+     * @return the tokens, in order
+     * @throws IOException if the file cannot be read
+     */
+    private static List<String> tokenize(Path file) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WordTokenizer tokenizer = new WordTokenizer(channel, 0, channel.size());
+            while (tokenizer.next()) {
+                tokens.add(new String(tokenizer.token, 0, tokenizer.length));
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Reads every token of a file with a Scanner.
+     *
+     * @param file the file to read
+     * @return the tokens, in order
+     * @throws IOException if the file cannot be read
+     */
+    private static List<String> scan(Path file) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        try (Scanner scanner = new Scanner(file, StandardCharsets.UTF_8)) {
+            while (scanner.hasNext()) {
+                tokens.add(scanner.next());
+            }
+        }
+        return tokens;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"hello\nworld", "hello world", "hello\nworld\n", "  hello  ", "", " \n\t", "a",
+            "héllo wörld", "世界", "café\r\nnaïve"})
+    void tokensMatchScannerWithOrWithoutTrailingWhitespace(String contents) throws IOException {
+        Path file = write("tokens.txt", contents);
+
+        assertEquals(scan(file), tokenize(file));
+    }
+
+    @Test
+    void lastTokenSpanningChunksIsReadWithoutTrailingWhitespace() throws IOException {
+        StringBuilder contents = new StringBuilder();
+        while (contents.length() < 200_000) {
+            contents.append("wörds ");
+        }
+        contents.append("é".repeat(70_000));
+        Path file = write("long.txt", contents.toString());
+
+        assertEquals(scan(file), tokenize(file));
+    }
+
+    @Test
+    void filesWithoutTrailingNewlineAreLoadedAndCounted() throws IOException {
+        Path dictionary = write("dictionary.txt", "hello\nworld");
+        Path importance = write("importance.txt", "Hello, world. hello");
+
+        for (int threads = 0; threads <= 3; threads++) {
+            Trie trie = new Trie();
+            trie.loadDictionary(dictionary.toString());
+            if (threads == 0) {
+                trie.processImportanceFile(importance.toString());
+            } else {
+                trie.processImportanceFile(importance.toString(), threads);
+            }
+
+            assertEquals(2, trie.importanceOf("hello"), "threads " + threads);
+            assertEquals(1, trie.importanceOf("world"), "threads " + threads);
+        }
+    }
+}